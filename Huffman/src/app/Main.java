@@ -1,14 +1,38 @@
 package app;
 
+import java.io.File;
+import java.io.IOException;
+
+import modelo.EntropyAnalyzer;
 import view.MainWindow;
 
 public class Main {
 	public static void main(String[] args) {
-		showWindow();
+		if (args.length > 1 && args[0].equals("--analizar")) {
+			analyze(args);
+		} else {
+			showWindow();
+		}
 	}
 
 	private static void showWindow() {
 		MainWindow window = new MainWindow();
 		window.setVisible(true);
 	}
+
+	/**
+	 * Imprime el análisis de entropía de los archivos y directorios indicados
+	 */
+	private static void analyze(String[] args) {
+		EntropyAnalyzer analyzer = new EntropyAnalyzer();
+		for (int i = 1; i < args.length; i++) {
+			try {
+				for (EntropyAnalyzer.FileReport report : analyzer.analyzeAll(new File(args[i]))) {
+					System.out.println(report.getSummary());
+				}
+			} catch (IOException e) {
+				System.err.println("Error al analizar " + args[i] + ": " + e.getMessage());
+			}
+		}
+	}
 }
@@ -0,0 +1,102 @@
+package modelo;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Decodificador de Huffman adaptativo de una sola pasada
+ *
+ * Mantiene el mismo árbol que AdaptiveHuffmanEncoder: recorre el árbol bit a
+ * bit hasta una hoja, entrega el símbolo y actualiza el árbol con él. Solo
+ * espera nuevos bytes del flujo cuando se le acaban los bits, así que sirve
+ * para flujos en vivo.
+ */
+public class AdaptiveHuffmanDecoder implements AutoCloseable {
+
+	private final AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+	private final InputStream in;
+	private final BitReader reader;
+	private boolean finished;
+
+	/**
+	 * @param in el flujo con los bits codificados
+	 */
+	public AdaptiveHuffmanDecoder(InputStream in) {
+		this.in = in;
+		this.reader = new BitReader(in);
+	}
+
+	/**
+	 * Decodifica el siguiente símbolo
+	 * @return el símbolo, o -1 al llegar a la marca de fin
+	 * @throws IOException si el flujo termina antes de la marca de fin o hay un error de lectura
+	 */
+	public int read() throws IOException {
+		if (finished) {
+			return -1;
+		}
+		try {
+			int node = tree.getRoot();
+			while (!tree.isLeaf(node)) {
+				node = tree.getChild(node, readBit());
+			}
+
+			char symbol;
+			if (node == tree.getNyt()) {
+				if (readBit() == 1) {
+					finished = true;
+					return -1;
+				}
+				int bits = readBit() == 0 ? 8 : 16;
+				int value = 0;
+				for (int i = 0; i < bits; i++) {
+					value = value << 1 | readBit();
+				}
+				symbol = (char) value;
+			} else {
+				symbol = (char) tree.getSymbol(node);
+			}
+			tree.update(symbol);
+			return symbol;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Lee un bit, fallando si los datos se acabaron antes de la marca de fin
+	 */
+	private int readBit() throws IOException {
+		if (!reader.hasMoreBits()) {
+			throw new EOFException("Flujo truncado: falta la marca de fin");
+		}
+		return reader.readBit();
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Decodifica un mensaje completo
+	 * @param data los bytes generados por AdaptiveHuffmanEncoder.encode
+	 * @return el mensaje original
+	 * @throws IllegalArgumentException si los datos están truncados
+	 */
+	public static String decode(byte[] data) {
+		StringBuilder message = new StringBuilder(data.length * 2);
+		try (AdaptiveHuffmanDecoder decoder = new AdaptiveHuffmanDecoder(new ByteArrayInputStream(data))) {
+			int symbol;
+			while ((symbol = decoder.read()) != -1) {
+				message.append((char) symbol);
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Datos corruptos: " + e.getMessage(), e);
+		}
+		return message.toString();
+	}
+}
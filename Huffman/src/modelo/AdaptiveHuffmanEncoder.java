@@ -0,0 +1,139 @@
+package modelo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Codificador de Huffman adaptativo de una sola pasada
+ *
+ * No necesita conocer el mensaje de antemano ni escribir una tabla: cada
+ * símbolo se codifica con el árbol de los símbolos anteriores y luego se
+ * actualiza el árbol, igual que hará el decodificador. Un símbolo nuevo se
+ * escribe como el código del NYT seguido de un escape: "00" y 8 bits, o
+ * "01" y 16 bits. El código del NYT seguido de "1" marca el fin del flujo.
+ */
+public class AdaptiveHuffmanEncoder implements AutoCloseable {
+
+	private final AdaptiveHuffmanTree tree = new AdaptiveHuffmanTree();
+	private final BitWriter writer;
+	private final OutputStream out;
+	private int[] path = new int[64];
+	private boolean closed;
+
+	/**
+	 * @param out el flujo donde se escriben los bits
+	 */
+	public AdaptiveHuffmanEncoder(OutputStream out) {
+		this.out = out;
+		this.writer = new BitWriter(out);
+	}
+
+	/**
+	 * Codifica un símbolo
+	 * @param symbol el símbolo
+	 * @throws IOException si hay un error al escribir
+	 */
+	public void write(char symbol) throws IOException {
+		try {
+			int leaf = tree.getLeaf(symbol);
+			if (leaf == AdaptiveHuffmanTree.NONE) {
+				writePath(tree.getNyt());
+				if (symbol < 256) {
+					writer.write(0b00, 2);
+					writer.write(symbol, 8);
+				} else {
+					writer.write(0b01, 2);
+					writer.write(symbol, 16);
+				}
+			} else {
+				writePath(leaf);
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		tree.update(symbol);
+	}
+
+	/**
+	 * Codifica todos los símbolos de un texto
+	 * @param text el texto
+	 * @throws IOException si hay un error al escribir
+	 */
+	public void write(CharSequence text) throws IOException {
+		for (int i = 0; i < text.length(); i++) {
+			write(text.charAt(i));
+		}
+	}
+
+	/**
+	 * Escribe el código de un nodo: el camino desde la raíz hasta él
+	 */
+	private void writePath(int node) {
+		int depth = 0;
+		for (int current = node; tree.getParent(current) != AdaptiveHuffmanTree.NONE; current = tree.getParent(current)) {
+			if (depth == path.length) {
+				path = Arrays.copyOf(path, depth * 2);
+			}
+			path[depth++] = tree.getBit(current);
+		}
+		while (depth > 0) {
+			// Se juntan hasta 32 bits por escritura
+			int chunk = Math.min(depth, 32);
+			long bits = 0;
+			for (int i = 0; i < chunk; i++) {
+				bits = bits << 1 | path[--depth];
+			}
+			writer.write(bits, chunk);
+		}
+	}
+
+	/**
+	 * Entrega al flujo los bytes completos ya codificados, sin cerrar el flujo
+	 * @throws IOException si hay un error al escribir
+	 */
+	public void flush() throws IOException {
+		try {
+			writer.flush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Escribe la marca de fin, completa el último byte y cierra el flujo
+	 * @throws IOException si hay un error al escribir
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			writePath(tree.getNyt());
+			writer.writeBit(1);
+			writer.finish();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		out.close();
+	}
+
+	/**
+	 * Codifica un mensaje completo
+	 * @param message el mensaje
+	 * @return los bytes codificados, incluida la marca de fin
+	 */
+	public static byte[] encode(String message) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(message.length() / 2 + 16);
+		try (AdaptiveHuffmanEncoder encoder = new AdaptiveHuffmanEncoder(bytes)) {
+			encoder.write(message);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+}
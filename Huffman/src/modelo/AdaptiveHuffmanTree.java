@@ -0,0 +1,281 @@
+package modelo;
+
+import java.util.Arrays;
+
+/**
+ * Árbol de Huffman adaptativo (algoritmo FGK) en arreglos primitivos
+ *
+ * Los nodos se numeran por rango: 0 es la raíz y los rangos mayores tienen
+ * peso menor o igual (propiedad de hermanos). Al ver un símbolo se recorre
+ * el camino hasta la raíz; cada nodo se intercambia con el líder de su
+ * clase de peso (el de menor rango) y luego se incrementa, de modo que el
+ * árbol sigue siendo de Huffman para los conteos vistos. Los líderes se
+ * guardan por bloque, así cada paso cuesta O(1) y un símbolo cuesta O(largo
+ * de su código). Los símbolos nuevos cuelgan del nodo NYT ("aún no visto"),
+ * de peso 0, que el codificador y el decodificador mantienen igual.
+ */
+class AdaptiveHuffmanTree {
+
+	static final int NONE = -1;
+
+	private long[] weight;
+	private int[] parent;
+	private int[] left;
+	private int[] right;
+	private int[] symbolOf;
+	private int[] rankOf;
+	private int[] nodeAt;
+	private int[] blockOf;
+	private int size;
+
+	// Bloques: nodos de igual peso, contiguos en rango; se guarda el rango del líder
+	private int[] blockLeader;
+	private int[] freeBlocks;
+	private int freeCount;
+	private int blockCount;
+
+	private final int[] leafBySymbol = new int[65536];
+	private int nyt;
+
+	AdaptiveHuffmanTree() {
+		int capacity = 64;
+		weight = new long[capacity];
+		parent = new int[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		symbolOf = new int[capacity];
+		rankOf = new int[capacity];
+		nodeAt = new int[capacity];
+		blockOf = new int[capacity];
+		blockLeader = new int[capacity];
+		freeBlocks = new int[capacity];
+		Arrays.fill(leafBySymbol, NONE);
+
+		nyt = newLeaf(NONE);
+		parent[nyt] = NONE;
+		blockOf[nyt] = newBlock(0);
+	}
+
+	/**
+	 * @return la raíz del árbol
+	 */
+	int getRoot() {
+		return nodeAt[0];
+	}
+
+	/**
+	 * @return el nodo NYT, por donde se codifican los símbolos nuevos
+	 */
+	int getNyt() {
+		return nyt;
+	}
+
+	/**
+	 * @param symbol el símbolo
+	 * @return su hoja, o NONE si todavía no apareció
+	 */
+	int getLeaf(char symbol) {
+		return leafBySymbol[symbol];
+	}
+
+	boolean isLeaf(int node) {
+		return left[node] == NONE;
+	}
+
+	/**
+	 * @return el símbolo de una hoja (NONE para el NYT)
+	 */
+	int getSymbol(int node) {
+		return symbolOf[node];
+	}
+
+	/**
+	 * @param node un nodo interno
+	 * @param bit 0 para el hijo izquierdo, 1 para el derecho
+	 */
+	int getChild(int node, int bit) {
+		return bit == 0 ? left[node] : right[node];
+	}
+
+	int getParent(int node) {
+		return parent[node];
+	}
+
+	/**
+	 * @return 1 si el nodo es hijo derecho de su padre, 0 si es izquierdo
+	 */
+	int getBit(int node) {
+		return right[parent[node]] == node ? 1 : 0;
+	}
+
+	/**
+	 * Cuenta una aparición del símbolo y reordena el árbol
+	 * @param symbol el símbolo recién codificado o decodificado
+	 */
+	void update(char symbol) {
+		int q = leafBySymbol[symbol];
+		if (q == NONE) {
+			q = splitNyt(symbol);
+		}
+
+		while (q != NONE) {
+			int p = parent[q];
+			int leader = nodeAt[blockLeader[blockOf[q]]];
+
+			// Un ancestro con el mismo peso solo puede ser el padre, cuando el hermano es el NYT
+			if (leader == p) {
+				int next = nodeAt[rankOf[p] + 1];
+				if (next == q) {
+					increment(p);
+					increment(q);
+					q = parent[p];
+					continue;
+				}
+				swap(p, next);
+				leader = next;
+			}
+			if (leader != q) {
+				swap(q, leader);
+			}
+			increment(q);
+			q = parent[q];
+		}
+	}
+
+	/**
+	 * Convierte el NYT en un nodo interno con un NYT nuevo y la hoja del símbolo
+	 * @return la hoja nueva
+	 */
+	private int splitNyt(char symbol) {
+		// La hoja queda justo detrás del nodo y el NYT nuevo en el último rango
+		int node = nyt;
+		int leaf = newLeaf(symbol);
+		int newNyt = newLeaf(NONE);
+		left[node] = newNyt;
+		right[node] = leaf;
+		parent[newNyt] = node;
+		parent[leaf] = node;
+
+		// Los tres nodos pesan 0 y comparten bloque; node sigue siendo el líder
+		blockOf[newNyt] = blockOf[node];
+		blockOf[leaf] = blockOf[node];
+		leafBySymbol[symbol] = leaf;
+		nyt = newNyt;
+		return leaf;
+	}
+
+	/**
+	 * Incrementa el peso de un nodo que es el líder de su bloque
+	 */
+	private void increment(int node) {
+		int rank = rankOf[node];
+		int block = blockOf[node];
+		long w = weight[node];
+
+		if (rank + 1 < size && weight[nodeAt[rank + 1]] == w) {
+			blockLeader[block] = rank + 1;
+		} else {
+			freeBlocks[freeCount++] = block;
+		}
+
+		weight[node] = w + 1;
+		if (rank > 0 && weight[nodeAt[rank - 1]] == w + 1) {
+			blockOf[node] = blockOf[nodeAt[rank - 1]];
+		} else {
+			blockOf[node] = newBlock(rank);
+		}
+	}
+
+	/**
+	 * Intercambia dos subárboles que no son ancestros uno del otro, junto con sus rangos
+	 */
+	private void swap(int a, int b) {
+		int parentA = parent[a];
+		int parentB = parent[b];
+		if (parentA == parentB) {
+			int temp = left[parentA];
+			left[parentA] = right[parentA];
+			right[parentA] = temp;
+		} else {
+			if (left[parentA] == a) {
+				left[parentA] = b;
+			} else {
+				right[parentA] = b;
+			}
+			if (left[parentB] == b) {
+				left[parentB] = a;
+			} else {
+				right[parentB] = a;
+			}
+			parent[a] = parentB;
+			parent[b] = parentA;
+		}
+
+		int rankA = rankOf[a];
+		rankOf[a] = rankOf[b];
+		rankOf[b] = rankA;
+		nodeAt[rankOf[a]] = a;
+		nodeAt[rankOf[b]] = b;
+	}
+
+	private int newLeaf(int symbol) {
+		if (size == weight.length) {
+			grow();
+		}
+		int node = size++;
+		weight[node] = 0;
+		left[node] = NONE;
+		right[node] = NONE;
+		symbolOf[node] = symbol;
+		rankOf[node] = node;
+		nodeAt[node] = node;
+		return node;
+	}
+
+	private int newBlock(int leaderRank) {
+		int block = freeCount > 0 ? freeBlocks[--freeCount] : blockCount++;
+		blockLeader[block] = leaderRank;
+		return block;
+	}
+
+	private void grow() {
+		int capacity = weight.length * 2;
+		weight = Arrays.copyOf(weight, capacity);
+		parent = Arrays.copyOf(parent, capacity);
+		left = Arrays.copyOf(left, capacity);
+		right = Arrays.copyOf(right, capacity);
+		symbolOf = Arrays.copyOf(symbolOf, capacity);
+		rankOf = Arrays.copyOf(rankOf, capacity);
+		nodeAt = Arrays.copyOf(nodeAt, capacity);
+		blockOf = Arrays.copyOf(blockOf, capacity);
+		blockLeader = Arrays.copyOf(blockLeader, capacity);
+		freeBlocks = Arrays.copyOf(freeBlocks, capacity);
+	}
+
+	/**
+	 * Verifica la propiedad de hermanos y los bloques (para pruebas)
+	 * @return true si el árbol es consistente
+	 */
+	boolean isConsistent() {
+		for (int rank = 0; rank < size; rank++) {
+			int node = nodeAt[rank];
+			if (rankOf[node] != rank) {
+				return false;
+			}
+			if (rank > 0 && weight[nodeAt[rank - 1]] < weight[node]) {
+				return false;
+			}
+			if (!isLeaf(node) && (weight[node] != weight[left[node]] + weight[right[node]]
+					|| parent[left[node]] != node || parent[right[node]] != node
+					|| Math.abs(rankOf[left[node]] - rankOf[right[node]]) != 1)) {
+				return false;
+			}
+			int leaderRank = blockLeader[blockOf[node]];
+			if (weight[nodeAt[leaderRank]] != weight[node]
+					|| (leaderRank > 0 && weight[nodeAt[leaderRank - 1]] == weight[node])) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
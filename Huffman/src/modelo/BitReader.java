@@ -0,0 +1,128 @@
+package modelo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Lee bits empaquetados (del más significativo al menos significativo)
+ *
+ * Mantiene una ventana de 64 bits alineada a la izquierda que se recarga
+ * byte a byte, de modo que se pueden consultar hasta 57 bits sin avanzar.
+ * Después del final de los datos la ventana se completa con ceros; quien
+ * lee debe comparar getBitsRead() con la cantidad real de bits.
+ */
+public class BitReader {
+
+	private final InputStream source;
+	private byte[] buffer;
+	private int position;
+	private int limit;
+	private long window;
+	private int available;
+	private long bitsRead;
+
+	/**
+	 * @param data los bytes a leer
+	 */
+	public BitReader(byte[] data) {
+		this.source = null;
+		this.buffer = data;
+		this.limit = data.length;
+	}
+
+	/**
+	 * @param source el flujo del que se leen los bytes a medida que se necesitan
+	 */
+	public BitReader(InputStream source) {
+		this.source = source;
+		this.buffer = new byte[64 * 1024];
+	}
+
+	/**
+	 * Carga bytes en la ventana hasta tener al menos 57 bits o llegar al final.
+	 * Solo se pide más al flujo si faltan bits para la consulta actual, para
+	 * no quedar esperando datos que un flujo en vivo todavía no envió.
+	 * @param needed cantidad de bits que se necesitan ahora
+	 */
+	private void refill(int needed) {
+		while (available <= 56) {
+			if (position == limit && (available >= needed || !fillBuffer())) {
+				return;
+			}
+			window |= (buffer[position++] & 0xFFL) << (56 - available);
+			available += 8;
+		}
+	}
+
+	private boolean fillBuffer() {
+		if (source == null) {
+			return false;
+		}
+		try {
+			int read = source.read(buffer);
+			if (read <= 0) {
+				return false;
+			}
+			position = 0;
+			limit = read;
+			return true;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Consulta los próximos bits sin avanzar
+	 * @param count cantidad de bits, de 1 a 57
+	 * @return los bits, alineados a la derecha
+	 */
+	public long peek(int count) {
+		if (available < count) {
+			refill(count);
+		}
+		return window >>> (64 - count);
+	}
+
+	/**
+	 * Avanza sobre bits ya consultados
+	 * @param count cantidad de bits, como máximo los consultados con peek
+	 */
+	public void skip(int count) {
+		if (count >= available) {
+			// Se llegó al relleno posterior al final de los datos
+			window = 0;
+			available = 0;
+		} else {
+			window <<= count;
+			available -= count;
+		}
+		bitsRead += count;
+	}
+
+	/**
+	 * @return true si queda al menos un bit de datos reales por leer
+	 */
+	public boolean hasMoreBits() {
+		if (available == 0) {
+			refill(1);
+		}
+		return available > 0;
+	}
+
+	/**
+	 * @return el siguiente bit (0 o 1)
+	 */
+	public int readBit() {
+		int bit = (int) peek(1);
+		skip(1);
+		return bit;
+	}
+
+	/**
+	 * @return la cantidad de bits consumidos
+	 */
+	public long getBitsRead() {
+		return bitsRead;
+	}
+}
@@ -0,0 +1,153 @@
+package modelo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Escribe bits empaquetados en un arreglo de bytes
+ *
+ * Los bits se juntan en un acumulador de 64 bits y se vuelcan byte a byte,
+ * del bit más significativo al menos significativo. Se lleva la cantidad
+ * exacta de bits escritos, ya que el último byte puede quedar incompleto.
+ * Si se construye sobre un flujo, el buffer se vacía en él al llenarse en
+ * lugar de crecer.
+ */
+public class BitWriter {
+
+	private final OutputStream sink;
+	private byte[] buffer;
+	private int position;
+	private long accumulator;
+	private int pendingBits;
+	private long bitLength;
+
+	public BitWriter() {
+		this(1024);
+	}
+
+	/**
+	 * @param expectedBytes capacidad inicial en bytes
+	 */
+	public BitWriter(int expectedBytes) {
+		this.sink = null;
+		this.buffer = new byte[Math.max(16, expectedBytes)];
+	}
+
+	/**
+	 * @param sink el flujo donde se escriben los bytes completos
+	 */
+	public BitWriter(OutputStream sink) {
+		this.sink = sink;
+		this.buffer = new byte[64 * 1024];
+	}
+
+	/**
+	 * Escribe los bits menos significativos de un valor
+	 * @param value el valor (alineado a la derecha)
+	 * @param length cantidad de bits, de 0 a 64
+	 */
+	public void write(long value, int length) {
+		if (length > 56) {
+			// El acumulador puede tener hasta 7 bits pendientes
+			write(value >>> 32, length - 32);
+			write(value & 0xFFFFFFFFL, 32);
+			return;
+		}
+		if (length == 0) {
+			return;
+		}
+
+		accumulator = (accumulator << length) | (value & (-1L >>> (64 - length)));
+		pendingBits += length;
+		bitLength += length;
+
+		if (pendingBits >= 8) {
+			ensureCapacity(8);
+			while (pendingBits >= 8) {
+				pendingBits -= 8;
+				buffer[position++] = (byte) (accumulator >>> pendingBits);
+			}
+		}
+	}
+
+	/**
+	 * @param bit el bit a escribir (0 o 1)
+	 */
+	public void writeBit(int bit) {
+		write(bit, 1);
+	}
+
+	private void ensureCapacity(int extra) {
+		if (position + extra > buffer.length) {
+			if (sink != null) {
+				drain();
+			} else {
+				buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+			}
+		}
+	}
+
+	private void drain() {
+		try {
+			sink.write(buffer, 0, position);
+			position = 0;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Vuelca en el flujo los bytes ya completos; los bits de un byte a medio
+	 * llenar quedan en el acumulador hasta la próxima escritura
+	 */
+	public void flush() {
+		if (sink == null) {
+			throw new IllegalStateException("El escritor no tiene un flujo de destino");
+		}
+		drain();
+		try {
+			sink.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Vuelca en el flujo los bytes pendientes, completando el último con ceros.
+	 * Se llama una sola vez, al terminar de escribir.
+	 */
+	public void finish() {
+		if (sink == null) {
+			throw new IllegalStateException("El escritor no tiene un flujo de destino");
+		}
+		if (pendingBits > 0) {
+			ensureCapacity(1);
+			buffer[position++] = (byte) (accumulator << (8 - pendingBits));
+			pendingBits = 0;
+		}
+		drain();
+	}
+
+	/**
+	 * @return la cantidad exacta de bits escritos
+	 */
+	public long getBitLength() {
+		return bitLength;
+	}
+
+	/**
+	 * @return los bits escritos; el último byte se completa con ceros
+	 */
+	public byte[] toByteArray() {
+		if (sink != null) {
+			throw new IllegalStateException("Los bits se escribieron en un flujo");
+		}
+		byte[] bytes = Arrays.copyOf(buffer, (int) ((bitLength + 7) / 8));
+		if (pendingBits > 0) {
+			bytes[position] = (byte) (accumulator << (8 - pendingBits));
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,355 @@
+package modelo;
+
+import java.util.Arrays;
+
+/**
+ * Huffman de orden 1: la tabla de cada símbolo depende del símbolo anterior
+ *
+ * Se arma un histograma por contexto (el carácter previo). Un contexto
+ * recibe tabla propia solo si lo que ahorra frente a la tabla compartida
+ * paga su encabezado; los contextos raros se agrupan en una única tabla
+ * compartida, que también codifica el primer símbolo. Como la tabla
+ * compartida depende de qué contextos se agrupan, la decisión se repite
+ * contra la nueva tabla hasta que no cambia (a lo sumo MAX_ROUNDS veces). Todas las tablas se
+ * limitan a MAX_CODE_LENGTH bits, así cada símbolo se decodifica con una
+ * sola consulta en tabla.
+ *
+ * Formato (en bits): 32 de cantidad de símbolos, la tabla compartida, 32 de
+ * cantidad de contextos con tabla propia, y por cada uno 16 bits con el
+ * carácter de contexto y su tabla; luego los códigos. Cada tabla es 16 bits
+ * de cantidad de símbolos y, por símbolo, 16 bits del carácter y 5 de la
+ * longitud de su código (16 cuando hay más de 2^15 símbolos distintos).
+ */
+public class ContextHuffmanCodec {
+
+	private static final int MAX_CODE_LENGTH = 15;
+	private static final int LENGTH_BITS = 5;
+	private static final int SHARED = 0;
+	private static final int MAX_ROUNDS = 8;
+
+	/**
+	 * Resultado de la codificación por contexto
+	 */
+	public static class ContextResult {
+		private final byte[] encoded;
+		private final long bitLength;
+		private final long headerBits;
+		private final int symbolCount;
+		private final double entropy;
+		private final double conditionalEntropy;
+		private final double order0AverageLength;
+		private final int contextCount;
+		private final int ownTables;
+
+		ContextResult(byte[] encoded, long bitLength, long headerBits, int symbolCount, double entropy,
+		              double conditionalEntropy, double order0AverageLength, int contextCount, int ownTables) {
+			this.encoded = encoded;
+			this.bitLength = bitLength;
+			this.headerBits = headerBits;
+			this.symbolCount = symbolCount;
+			this.entropy = entropy;
+			this.conditionalEntropy = conditionalEntropy;
+			this.order0AverageLength = order0AverageLength;
+			this.contextCount = contextCount;
+			this.ownTables = ownTables;
+		}
+
+		/**
+		 * @return el mensaje codificado con sus tablas, listo para decode
+		 */
+		public byte[] getEncoded() {
+			return encoded;
+		}
+
+		/**
+		 * @return la cantidad exacta de bits, incluidas las tablas
+		 */
+		public long getBitLength() {
+			return bitLength;
+		}
+
+		/**
+		 * @return los bits ocupados por las tablas
+		 */
+		public long getHeaderBits() {
+			return headerBits;
+		}
+
+		/**
+		 * @return la entropía de orden 0, H(X), en bits por símbolo
+		 */
+		public double getEntropy() {
+			return entropy;
+		}
+
+		/**
+		 * @return la entropía condicional de orden 1, H(X | símbolo anterior)
+		 */
+		public double getConditionalEntropy() {
+			return conditionalEntropy;
+		}
+
+		/**
+		 * @return los bits por símbolo de los códigos, sin contar las tablas
+		 */
+		public double getAverageLength() {
+			return symbolCount == 0 ? 0.0 : (double) (bitLength - headerBits) / symbolCount;
+		}
+
+		/**
+		 * @return el largo medio del Huffman de orden 0 para el mismo mensaje
+		 */
+		public double getOrder0AverageLength() {
+			return order0AverageLength;
+		}
+
+		/**
+		 * @return la eficiencia frente a la entropía condicional, en porcentaje
+		 */
+		public double getEfficiency() {
+			double averageLength = getAverageLength();
+			return averageLength > 0 ? conditionalEntropy / averageLength * 100 : 0.0;
+		}
+
+		/**
+		 * @return la cantidad de contextos distintos del mensaje
+		 */
+		public int getContextCount() {
+			return contextCount;
+		}
+
+		/**
+		 * @return cuántos contextos tienen tabla propia; el resto usa la compartida
+		 */
+		public int getOwnTableCount() {
+			return ownTables;
+		}
+	}
+
+	/**
+	 * Codifica un mensaje con tablas por contexto
+	 * @param message el mensaje
+	 * @return el resultado con los bytes y las métricas
+	 * @throws IllegalArgumentException si el mensaje está vacío
+	 */
+	public static ContextResult encode(String message) {
+		if (message == null || message.isEmpty()) {
+			throw new IllegalArgumentException("El mensaje no puede estar vacío");
+		}
+		int n = message.length();
+
+		// Histograma global y uno por carácter previo
+		SymbolHistogram global = FrequencyAnalyzer.histogram(message);
+		SymbolHistogram[] byContext = new SymbolHistogram[65536];
+		for (int i = 1; i < n; i++) {
+			char context = message.charAt(i - 1);
+			if (byContext[context] == null) {
+				byContext[context] = new SymbolHistogram();
+			}
+			byContext[context].add(message.charAt(i));
+		}
+		char[] contexts = contextsOf(byContext);
+
+		// Entropía condicional: promedio de la entropía de cada contexto, ponderado por su peso
+		double conditionalEntropy = 0.0;
+		for (char context : contexts) {
+			conditionalEntropy += (double) byContext[context].getTotal() / n * byContext[context].getEntropy();
+		}
+
+		// Costo de cada contexto con tabla propia, encabezado incluido
+		long[] ownCost = new long[contexts.length];
+		for (int i = 0; i < contexts.length; i++) {
+			SymbolHistogram histogram = byContext[contexts[i]];
+			HuffmanCodeTable table = limitedTable(histogram);
+			ownCost[i] = 16 + tableBits(table) + cost(table, histogram);
+		}
+
+		// Un contexto tiene tabla propia si su costo baja del de la tabla compartida.
+		// La primera ronda compara contra la tabla global (todos agrupados); las
+		// siguientes contra la tabla de los contextos que quedaron agrupados. Se
+		// queda la ronda de menor costo total, así nunca se empeora la primera
+		boolean[] ownAt = new boolean[contexts.length];
+		boolean[] bestOwnAt = null;
+		HuffmanCodeTable bestShared = null;
+		long bestTotal = Long.MAX_VALUE;
+		HuffmanCodeTable sharedTable = limitedTable(global);
+		for (int round = 0; round < MAX_ROUNDS; round++) {
+			boolean changed = false;
+			long total = 0;
+			SymbolHistogram pooled = new SymbolHistogram();
+			pooled.add(message.charAt(0));
+			for (int i = 0; i < contexts.length; i++) {
+				SymbolHistogram histogram = byContext[contexts[i]];
+				boolean better = ownCost[i] < cost(sharedTable, histogram);
+				changed |= better != ownAt[i];
+				ownAt[i] = better;
+				if (better) {
+					total += ownCost[i];
+				} else {
+					pooled.merge(histogram);
+				}
+			}
+			// La compartida sale de los contextos agrupados en esta ronda
+			sharedTable = limitedTable(pooled);
+			total += tableBits(sharedTable) + cost(sharedTable, pooled);
+			if (total < bestTotal) {
+				bestTotal = total;
+				bestOwnAt = ownAt.clone();
+				bestShared = sharedTable;
+			}
+			if (!changed) {
+				break;
+			}
+		}
+		boolean[] own = new boolean[65536];
+		int ownTables = 0;
+		for (int i = 0; i < contexts.length; i++) {
+			if (bestOwnAt[i]) {
+				own[contexts[i]] = true;
+				ownTables++;
+			}
+		}
+
+		// Tablas finales
+		HuffmanCodeTable[] tables = new HuffmanCodeTable[ownTables + 1];
+		int[] tableOf = new int[65536];
+		tables[SHARED] = bestShared;
+		int next = 1;
+		for (char context : contexts) {
+			if (own[context]) {
+				tableOf[context] = next;
+				tables[next++] = limitedTable(byContext[context]);
+			}
+		}
+
+		BitWriter writer = new BitWriter(n / 2 + 64);
+		writer.write(n, 32);
+		writeTable(tables[SHARED], writer);
+		writer.write(ownTables, 32);
+		for (char context : contexts) {
+			if (own[context]) {
+				writer.write(context, 16);
+				writeTable(tables[tableOf[context]], writer);
+			}
+		}
+		long headerBits = writer.getBitLength();
+
+		tables[SHARED].encode(message.subSequence(0, 1), writer);
+		for (int i = 1; i < n; i++) {
+			HuffmanCodeTable table = tables[tableOf[message.charAt(i - 1)]];
+			int index = table.indexOf(message.charAt(i));
+			writer.write(table.getCode(index), table.getLength(index));
+		}
+
+		// Referencia: Huffman de orden 0 sin límite de largo
+		char[] symbols = global.getSymbols();
+		HuffmanCodeTable order0 = HuffmanTreeBuilder.buildCodeTable(symbols, global.getCounts(symbols));
+		double order0AverageLength = (double) cost(order0, global) / n;
+		return new ContextResult(writer.toByteArray(), writer.getBitLength(), headerBits, n, global.getEntropy(),
+			conditionalEntropy, order0AverageLength, contexts.length, ownTables);
+	}
+
+	/**
+	 * Decodifica un mensaje generado por encode
+	 * @param data los bytes codificados
+	 * @return el mensaje original
+	 * @throws IllegalArgumentException si los datos están corruptos
+	 */
+	public static String decode(byte[] data) {
+		BitReader reader = new BitReader(data);
+		int n = (int) reader.peek(32);
+		reader.skip(32);
+		if (n <= 0) {
+			throw new IllegalArgumentException("Datos corruptos: cantidad de símbolos inválida");
+		}
+		HuffmanDecoder shared = new HuffmanDecoder(readTable(reader));
+		int ownTables = (int) reader.peek(32);
+		reader.skip(32);
+		if (ownTables < 0 || ownTables > 65536) {
+			throw new IllegalArgumentException("Datos corruptos: cantidad de contextos inválida");
+		}
+		HuffmanDecoder[] decoderOf = new HuffmanDecoder[65536];
+		Arrays.fill(decoderOf, shared);
+		for (int i = 0; i < ownTables; i++) {
+			char context = (char) reader.peek(16);
+			reader.skip(16);
+			decoderOf[context] = new HuffmanDecoder(readTable(reader));
+		}
+
+		char[] output = new char[n];
+		shared.decode(reader, output, 0, 1);
+		for (int i = 1; i < n; i++) {
+			decoderOf[output[i - 1]].decode(reader, output, i, 1);
+		}
+		if (reader.getBitsRead() > (long) data.length * 8) {
+			throw new IllegalArgumentException("Datos corruptos: faltan bits");
+		}
+		return new String(output);
+	}
+
+	private static char[] contextsOf(SymbolHistogram[] byContext) {
+		char[] contexts = new char[64];
+		int count = 0;
+		for (int c = 0; c < byContext.length; c++) {
+			if (byContext[c] != null) {
+				if (count == contexts.length) {
+					contexts = Arrays.copyOf(contexts, count * 2);
+				}
+				contexts[count++] = (char) c;
+			}
+		}
+		return Arrays.copyOf(contexts, count);
+	}
+
+	private static HuffmanCodeTable limitedTable(SymbolHistogram histogram) {
+		char[] symbols = histogram.getSymbols();
+		int maxLength = MAX_CODE_LENGTH;
+		// Con más de 2^15 símbolos distintos no alcanza el límite: se usa el mínimo posible
+		while (symbols.length > 1 << maxLength) {
+			maxLength++;
+		}
+		return HuffmanTreeBuilder.buildLimitedCodeTable(symbols, histogram.getCounts(symbols), maxLength);
+	}
+
+	/**
+	 * @return los bits de codificar el histograma con la tabla, o Long.MAX_VALUE
+	 *         si la tabla no tiene alguno de sus símbolos
+	 */
+	private static long cost(HuffmanCodeTable table, SymbolHistogram histogram) {
+		long bits = 0;
+		for (char c : histogram.getSymbols()) {
+			int index = table.indexOf(c);
+			if (index < 0) {
+				return Long.MAX_VALUE;
+			}
+			bits += (long) histogram.getCount(c) * table.getLength(index);
+		}
+		return bits;
+	}
+
+	private static long tableBits(HuffmanCodeTable table) {
+		return 16 + (16L + LENGTH_BITS) * table.getSymbolCount();
+	}
+
+	private static void writeTable(HuffmanCodeTable table, BitWriter writer) {
+		writer.write(table.getSymbolCount() - 1, 16);
+		for (int i = 0; i < table.getSymbolCount(); i++) {
+			writer.write(table.getSymbol(i), 16);
+			writer.write(table.getLength(i), LENGTH_BITS);
+		}
+	}
+
+	private static HuffmanCodeTable readTable(BitReader reader) {
+		int count = (int) reader.peek(16) + 1;
+		reader.skip(16);
+		char[] symbols = new char[count];
+		int[] lengths = new int[count];
+		for (int i = 0; i < count; i++) {
+			symbols[i] = (char) reader.peek(16);
+			reader.skip(16);
+			lengths[i] = (int) reader.peek(LENGTH_BITS);
+			reader.skip(LENGTH_BITS);
+		}
+		return HuffmanCodeTable.fromLengths(symbols, lengths);
+	}
+}
@@ -0,0 +1,744 @@
+package modelo;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Analiza la entropía y la compresibilidad de archivos leyéndolos por bloques
+ *
+ * Recorre cada archivo una sola vez, tomando cada byte como símbolo, y
+ * calcula con histogramas primitivos la entropía de orden 0 y la entropía
+ * condicional de orden 1 y 2, además de la curva de entropía local en una
+ * ventana deslizante. Con eso estima cuánto ocuparía el archivo con Huffman
+ * (la tabla exacta del .huff), con LZ78 (simulando su diccionario y con el
+ * formato del .lz78: 6 bytes por par) y almacenado sin codificar, y predice
+ * cuál conviene. Los archivos grandes se reportan también por regiones.
+ *
+ * Las entropías se miden siempre sobre bytes. LZ78 en cambio se simula sobre
+ * los caracteres que comprimiría el proyecto LZ78: los .txt se decodifican
+ * como UTF-8 y el resto se toma byte a byte.
+ *
+ * La memoria no depende del tamaño de los archivos: los histogramas de orden
+ * 2 guardan a lo sumo 2^20 tríos distintos en una tabla dispersa, la curva
+ * tiene como máximo MAX_CURVE_POINTS puntos y el diccionario de LZ78 deja de
+ * crecer en LZ78_LIMIT frases (de ahí en más la estimación supone que el
+ * texto sigue pareciéndose a lo ya visto).
+ */
+public class EntropyAnalyzer {
+
+	public static final String HUFFMAN = "Huffman";
+	public static final String LZ78 = "LZ78";
+	public static final String STORED = "Almacenado";
+
+	public static final int DEFAULT_WINDOW = 64 * 1024;
+	public static final long DEFAULT_REGION = 16L * 1024 * 1024;
+
+	private static final int BLOCK_SIZE = 64 * 1024;
+	private static final int MAX_CURVE_POINTS = 512;
+	private static final int LZ78_LIMIT = 1 << 18;
+	// Tamaño fijo del encabezado .huff versión 2, sin la tabla de símbolos
+	private static final int HUFF_HEADER_BYTES = 4 + 1 + 1 + 8 + 4 + 4 + 8;
+	// Archivo .lz78: magic "LZ78" y extensión con writeUTF, tamaño long, cantidad de pares int
+	private static final int LZ78_HEADER_BYTES = 2 + 4 + 2 + 8 + 4;
+	// Cada par se guarda como índice int y carácter char
+	private static final int LZ78_PAIR_BYTES = 4 + 2;
+	private static final String TEXT_EXTENSION = ".txt";
+
+	/**
+	 * Resultado del análisis de una región de un archivo
+	 */
+	public static class RegionReport {
+		private final long offset;
+		private final long length;
+		private final double entropy;
+		private final double conditionalEntropy1;
+		private final long huffmanBits;
+		private final long lz78Bits;
+
+		RegionReport(long offset, long length, double entropy, double conditionalEntropy1,
+		             long huffmanBits, long lz78Bits) {
+			this.offset = offset;
+			this.length = length;
+			this.entropy = entropy;
+			this.conditionalEntropy1 = conditionalEntropy1;
+			this.huffmanBits = huffmanBits;
+			this.lz78Bits = lz78Bits;
+		}
+
+		public long getOffset() {
+			return offset;
+		}
+
+		public long getLength() {
+			return length;
+		}
+
+		/**
+		 * @return la entropía de orden 0 de la región, en bits por byte
+		 */
+		public double getEntropy() {
+			return entropy;
+		}
+
+		/**
+		 * @return la entropía condicional de orden 1 de la región
+		 */
+		public double getConditionalEntropy1() {
+			return conditionalEntropy1;
+		}
+
+		/**
+		 * @return los bits estimados con Huffman, con una tabla propia para la región
+		 */
+		public long getHuffmanBits() {
+			return huffmanBits;
+		}
+
+		/**
+		 * En los .txt un carácter de varios bytes que cruza el límite cuenta
+		 * para la región siguiente.
+		 * @return los bits de los pares LZ78 de la región, continuando el diccionario del archivo
+		 */
+		public long getLz78Bits() {
+			return lz78Bits;
+		}
+
+		/**
+		 * @return el codec que se predice más chico para la región
+		 */
+		public String getPredictedCodec() {
+			return predict(huffmanBits, lz78Bits, length * 8);
+		}
+	}
+
+	/**
+	 * Resultado del análisis de un archivo
+	 */
+	public static class FileReport {
+		private final String name;
+		private final long size;
+		private final double entropy;
+		private final double conditionalEntropy1;
+		private final double conditionalEntropy2;
+		private final double[] localEntropy;
+		private final long curveStep;
+		private final long huffmanBits;
+		private final long lz78Bits;
+		private final List<RegionReport> regions;
+
+		FileReport(String name, long size, double entropy, double conditionalEntropy1, double conditionalEntropy2,
+		           double[] localEntropy, long curveStep, long huffmanBits, long lz78Bits, List<RegionReport> regions) {
+			this.name = name;
+			this.size = size;
+			this.entropy = entropy;
+			this.conditionalEntropy1 = conditionalEntropy1;
+			this.conditionalEntropy2 = conditionalEntropy2;
+			this.localEntropy = localEntropy;
+			this.curveStep = curveStep;
+			this.huffmanBits = huffmanBits;
+			this.lz78Bits = lz78Bits;
+			this.regions = regions;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		/**
+		 * @return la entropía de orden 0, H(X), en bits por byte
+		 */
+		public double getEntropy() {
+			return entropy;
+		}
+
+		/**
+		 * @return la entropía condicional de orden 1, H(X | byte anterior)
+		 */
+		public double getConditionalEntropy1() {
+			return conditionalEntropy1;
+		}
+
+		/**
+		 * @return la entropía condicional de orden 2, H(X | dos bytes anteriores)
+		 */
+		public double getConditionalEntropy2() {
+			return conditionalEntropy2;
+		}
+
+		/**
+		 * @return la entropía de la ventana deslizante, un punto cada getCurveStep() bytes
+		 */
+		public double[] getLocalEntropy() {
+			return localEntropy.clone();
+		}
+
+		/**
+		 * @return los bytes entre dos puntos de la curva de entropía local
+		 */
+		public long getCurveStep() {
+			return curveStep;
+		}
+
+		public double getMinLocalEntropy() {
+			return Arrays.stream(localEntropy).min().orElse(0.0);
+		}
+
+		public double getMaxLocalEntropy() {
+			return Arrays.stream(localEntropy).max().orElse(0.0);
+		}
+
+		/**
+		 * @return los bits estimados con Huffman, incluido el encabezado .huff
+		 */
+		public long getHuffmanBits() {
+			return huffmanBits;
+		}
+
+		/**
+		 * @return los bits del .lz78, incluido el encabezado
+		 */
+		public long getLz78Bits() {
+			return lz78Bits;
+		}
+
+		/**
+		 * @return los bits sin comprimir
+		 */
+		public long getStoredBits() {
+			return size * 8;
+		}
+
+		/**
+		 * @return el codec que se predice más chico para el archivo completo
+		 */
+		public String getPredictedCodec() {
+			return predict(huffmanBits, lz78Bits, size * 8);
+		}
+
+		/**
+		 * @return las regiones del archivo; vacío si el archivo ocupa una sola región
+		 */
+		public List<RegionReport> getRegions() {
+			return regions;
+		}
+
+		/**
+		 * @return un resumen legible del análisis
+		 */
+		public String getSummary() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(String.format("ARCHIVO: %s (%,d bytes)%n", name, size));
+			sb.append(String.format("Entropía orden 0:     %.4f bits/byte%n", entropy));
+			sb.append(String.format("Entropía orden 1:     %.4f bits/byte%n", conditionalEntropy1));
+			sb.append(String.format("Entropía orden 2:     %.4f bits/byte%n", conditionalEntropy2));
+			sb.append(String.format("Entropía local:       %.4f .. %.4f bits/byte (%d puntos cada %,d bytes)%n",
+				getMinLocalEntropy(), getMaxLocalEntropy(), localEntropy.length, curveStep));
+			sb.append(String.format("Huffman:              %,d bytes%n", (huffmanBits + 7) / 8));
+			sb.append(String.format("LZ78:                 %,d bytes%n", (lz78Bits + 7) / 8));
+			sb.append(String.format("Almacenado:           %,d bytes%n", size));
+			sb.append(String.format("Codec sugerido:       %s%n", getPredictedCodec()));
+			if (!regions.isEmpty()) {
+				sb.append(String.format("%-16s %-14s %-8s %-8s %s%n", "Región", "Bytes", "H0", "H1", "Codec"));
+				for (RegionReport region : regions) {
+					sb.append(String.format("%-16s %-14s %-8.4f %-8.4f %s%n",
+						String.format("%,d", region.getOffset()), String.format("%,d", region.getLength()),
+						region.getEntropy(), region.getConditionalEntropy1(), region.getPredictedCodec()));
+				}
+			}
+			return sb.toString();
+		}
+	}
+
+	private final int window;
+	private final long regionSize;
+
+	// Histogramas del archivo
+	private final long[] counts = new long[256];
+	private final long[] pairs = new long[65536];
+	private final TrigramCounts triples = new TrigramCounts();
+
+	// Histogramas de la región actual
+	private final long[] regionCounts = new long[256];
+	private final long[] regionPairs = new long[65536];
+
+	// Ventana deslizante: los últimos bytes, sus conteos y la suma de n·log2(n)
+	private final byte[] ring;
+	private final int[] windowCounts = new int[256];
+	private final double[] nLogN;
+
+	private final Lz78Model lz78 = new Lz78Model();
+
+	public EntropyAnalyzer() {
+		this(DEFAULT_WINDOW, DEFAULT_REGION);
+	}
+
+	/**
+	 * @param window tamaño de la ventana de entropía local, en bytes
+	 * @param regionSize tamaño de cada región del reporte, en bytes
+	 */
+	public EntropyAnalyzer(int window, long regionSize) {
+		if (window <= 0 || regionSize <= 0) {
+			throw new IllegalArgumentException("La ventana y la región deben ser positivas");
+		}
+		this.window = window;
+		this.regionSize = regionSize;
+		this.ring = new byte[window];
+		this.nLogN = new double[window + 1];
+		for (int n = 1; n <= window; n++) {
+			nLogN[n] = n * log2(n);
+		}
+	}
+
+	/**
+	 * Analiza un archivo o, si es un directorio, todos los archivos que contiene
+	 * @param path el archivo o directorio
+	 * @return un reporte por archivo, en orden de ruta
+	 * @throws IOException si hay un error de lectura
+	 */
+	public List<FileReport> analyzeAll(File path) throws IOException {
+		if (!path.isDirectory()) {
+			return Collections.singletonList(analyze(path));
+		}
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(path.toPath())) {
+			files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+		List<FileReport> reports = new ArrayList<>();
+		for (Path file : files) {
+			reports.add(analyze(file.toFile()));
+		}
+		return reports;
+	}
+
+	/**
+	 * Analiza un archivo
+	 * @param file el archivo
+	 * @return el reporte del archivo
+	 * @throws IOException si hay un error de lectura
+	 */
+	public FileReport analyze(File file) throws IOException {
+		try (InputStream in = new FileInputStream(file)) {
+			return analyze(in, file.getPath(), file.length());
+		}
+	}
+
+	/**
+	 * Analiza un flujo de bytes
+	 * @param in el flujo; no se cierra
+	 * @param name el nombre para el reporte; su extensión define cómo se simula LZ78
+	 * @param expectedSize el tamaño esperado, para repartir los puntos de la curva
+	 * @return el reporte
+	 * @throws IOException si hay un error de lectura
+	 */
+	public FileReport analyze(InputStream in, String name, long expectedSize) throws IOException {
+		String extension = getExtension(new File(name).getName());
+		CharsetDecoder decoder = extension.equalsIgnoreCase(TEXT_EXTENSION) ? StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE)
+			.onUnmappableCharacter(CodingErrorAction.REPLACE) : null;
+		ByteBuffer undecoded = ByteBuffer.allocate(BLOCK_SIZE + 8);
+		CharBuffer decoded = CharBuffer.allocate(BLOCK_SIZE + 8);
+
+		Arrays.fill(counts, 0);
+		Arrays.fill(pairs, 0);
+		triples.clear();
+		Arrays.fill(windowCounts, 0);
+		lz78.clear();
+		resetRegion();
+
+		long curveStep = Math.max(window / 4, (expectedSize + MAX_CURVE_POINTS - 1) / MAX_CURVE_POINTS);
+		double[] curve = new double[16];
+		int curvePoints = 0;
+		double windowSum = 0.0;
+		double log2Window = log2(window);
+
+		List<long[]> regionData = new ArrayList<>();
+		List<double[]> regionEntropy = new ArrayList<>();
+		long regionStart = 0;
+		long regionPairsAtStart = 0;
+
+		byte[] block = new byte[BLOCK_SIZE];
+		long position = 0;
+		int previous2 = -1;
+		int previous = -1;
+		int read;
+		while ((read = in.read(block)) > 0) {
+			// El bloque se parte en el límite de región, así los pares de LZ78 de
+			// los .txt se cuentan con el texto decodificado hasta ese límite
+			int from = 0;
+			while (from < read) {
+				int to = (int) Math.min(read, from + (regionStart + regionSize - position));
+				if (decoder != null) {
+					undecoded.put(block, from, to - from).flip();
+					decoder.decode(undecoded, decoded, false);
+					undecoded.compact();
+					addChars(decoded);
+				}
+				for (int i = from; i < to; i++) {
+					int c = block[i] & 0xFF;
+					counts[c]++;
+					regionCounts[c]++;
+					if (previous >= 0) {
+						pairs[previous << 8 | c]++;
+						regionPairs[previous << 8 | c]++;
+						if (previous2 >= 0) {
+							triples.add(previous2 << 16 | previous << 8 | c);
+						}
+					}
+					if (decoder == null) {
+						lz78.add((char) c);
+					}
+
+					// Ventana: entra el byte nuevo y, con la ventana llena, sale el más viejo
+					int slot = (int) (position % window);
+					if (position >= window) {
+						int old = ring[slot] & 0xFF;
+						windowSum += nLogN[windowCounts[old] - 1] - nLogN[windowCounts[old]];
+						windowCounts[old]--;
+					}
+					ring[slot] = (byte) c;
+					windowSum += nLogN[windowCounts[c] + 1] - nLogN[windowCounts[c]];
+					windowCounts[c]++;
+					position++;
+					if (position >= window && (position - window) % curveStep == 0) {
+						if (curvePoints == curve.length) {
+							curve = Arrays.copyOf(curve, curvePoints * 2);
+						}
+						curve[curvePoints++] = Math.max(0.0, log2Window - windowSum / window);
+					}
+
+					previous2 = previous;
+					previous = c;
+				}
+				from = to;
+
+				if (position - regionStart == regionSize) {
+					long[] data = {regionStart, position - regionStart, huffmanBits(regionCounts),
+						lz78.getPairs() - regionPairsAtStart};
+					regionData.add(data);
+					regionEntropy.add(new double[] {entropy(regionCounts), conditionalEntropy(regionPairs)});
+					regionStart = position;
+					regionPairsAtStart = lz78.getPairs();
+					resetRegion();
+				}
+			}
+		}
+
+		if (decoder != null) {
+			undecoded.flip();
+			decoder.decode(undecoded, decoded, true);
+			decoder.flush(decoded);
+			addChars(decoded);
+		}
+
+		// Un archivo más chico que la ventana tiene un solo punto: su propia entropía
+		if (curvePoints == 0 && position > 0) {
+			curve[curvePoints++] = entropy(counts);
+		}
+
+		// La última región incompleta; solo se reporta por regiones si hay más de una
+		if (position > regionStart && !regionData.isEmpty()) {
+			regionData.add(new long[] {regionStart, position - regionStart, huffmanBits(regionCounts),
+				lz78.getPairs() + lz78.getPendingPairs() - regionPairsAtStart});
+			regionEntropy.add(new double[] {entropy(regionCounts), conditionalEntropy(regionPairs)});
+		}
+		List<RegionReport> regions = new ArrayList<>();
+		for (int r = 0; r < regionData.size(); r++) {
+			long[] data = regionData.get(r);
+			double[] entropies = regionEntropy.get(r);
+			regions.add(new RegionReport(data[0], data[1], entropies[0], entropies[1], data[2],
+				data[3] * LZ78_PAIR_BYTES * 8));
+		}
+
+		long lz78Bytes = LZ78_HEADER_BYTES + extension.getBytes(StandardCharsets.UTF_8).length
+			+ (lz78.getPairs() + lz78.getPendingPairs()) * LZ78_PAIR_BYTES;
+		return new FileReport(name, position, entropy(counts), conditionalEntropy(pairs),
+			triples.conditionalEntropy(), Arrays.copyOf(curve, curvePoints), curveStep,
+			huffmanBits(counts), lz78Bytes * 8, Collections.unmodifiableList(regions));
+	}
+
+	/**
+	 * Pasa a la simulación de LZ78 los caracteres ya decodificados
+	 */
+	private void addChars(CharBuffer decoded) {
+		decoded.flip();
+		while (decoded.hasRemaining()) {
+			lz78.add(decoded.get());
+		}
+		decoded.clear();
+	}
+
+	/**
+	 * La extensión con punto, o "" si no tiene, como la guarda el .lz78
+	 */
+	private static String getExtension(String fileName) {
+		int lastDot = fileName.lastIndexOf('.');
+		if (lastDot > 0 && lastDot < fileName.length() - 1) {
+			return fileName.substring(lastDot);
+		}
+		return "";
+	}
+
+	private void resetRegion() {
+		Arrays.fill(regionCounts, 0);
+		Arrays.fill(regionPairs, 0);
+	}
+
+	/**
+	 * Elige el codec con menos bits; ante un empate gana el más simple
+	 */
+	private static String predict(long huffmanBits, long lz78Bits, long storedBits) {
+		if (storedBits <= huffmanBits && storedBits <= lz78Bits) {
+			return STORED;
+		}
+		return huffmanBits <= lz78Bits ? HUFFMAN : LZ78;
+	}
+
+	/**
+	 * Bits del .huff para un histograma de bytes: encabezado, tabla y códigos
+	 */
+	private static long huffmanBits(long[] histogram) {
+		char[] symbols = new char[256];
+		long[] frequencies = new long[256];
+		int n = 0;
+		for (int c = 0; c < 256; c++) {
+			if (histogram[c] > 0) {
+				symbols[n] = (char) c;
+				frequencies[n++] = histogram[c];
+			}
+		}
+		long bits = (HUFF_HEADER_BYTES + 2L * n) * 8;
+		if (n == 0) {
+			return bits;
+		}
+		HuffmanCodeTable table = HuffmanTreeBuilder.buildCodeTable(Arrays.copyOf(symbols, n),
+			Arrays.copyOf(frequencies, n));
+		for (int i = 0; i < n; i++) {
+			bits += histogram[table.getSymbol(i)] * table.getLength(i);
+		}
+		return bits;
+	}
+
+	/**
+	 * H(X) = log2(N) - Σ n·log2(n) / N
+	 */
+	private static double entropy(long[] histogram) {
+		long total = 0;
+		double sum = 0.0;
+		for (long n : histogram) {
+			if (n > 0) {
+				total += n;
+				sum += n * log2(n);
+			}
+		}
+		return total == 0 ? 0.0 : log2(total) - sum / total;
+	}
+
+	/**
+	 * H(X | anterior) = (Σ n(a)·log2 n(a) - Σ n(a,x)·log2 n(a,x)) / N, con n(a)
+	 * la cantidad de veces que a aparece como contexto
+	 */
+	private static double conditionalEntropy(long[] pairCounts) {
+		long total = 0;
+		double contextSum = 0.0;
+		double pairSum = 0.0;
+		for (int context = 0; context < 256; context++) {
+			long contextCount = 0;
+			for (int c = 0; c < 256; c++) {
+				long n = pairCounts[context << 8 | c];
+				if (n > 0) {
+					contextCount += n;
+					pairSum += n * log2(n);
+				}
+			}
+			if (contextCount > 0) {
+				total += contextCount;
+				contextSum += contextCount * log2(contextCount);
+			}
+		}
+		return total == 0 ? 0.0 : Math.max(0.0, (contextSum - pairSum) / total);
+	}
+
+	private static double log2(double x) {
+		return Math.log(x) / Math.log(2);
+	}
+
+	/**
+	 * Conteos de tríos de bytes en una tabla dispersa de direccionamiento
+	 * abierto. La tabla guarda a lo sumo MAX_KEYS tríos distintos (2^21
+	 * celdas, 16 MB); con la tabla llena, cada aparición de un trío nuevo se
+	 * cuenta como un trío distinto de una sola aparición. Con más de 2^20
+	 * tríos distintos la entropía condicional queda entonces sobrestimada,
+	 * tanto más cuantos más tríos queden afuera; esos archivos son casi
+	 * aleatorios y su entropía real ya está cerca de 8 bits. Si un contador llega al máximo se dividen todos a la mitad,
+	 * lo que casi no cambia las proporciones.
+	 */
+	private static class TrigramCounts {
+		private static final int MAX_KEYS = 1 << 20;
+
+		private int[] keys = new int[1024];
+		private int[] values = new int[1024];
+		private int size;
+		// Apariciones que no entraron en la tabla, por contexto de dos bytes
+		private long[] overflow;
+
+		void clear() {
+			keys = new int[1024];
+			values = new int[1024];
+			size = 0;
+			overflow = null;
+		}
+
+		void add(int key) {
+			int mask = keys.length - 1;
+			int slot = (key * 0x9E3779B1) >>> 7 & mask;
+			// Las claves se guardan más uno para que 0 marque una celda vacía
+			while (keys[slot] != 0 && keys[slot] != key + 1) {
+				slot = (slot + 1) & mask;
+			}
+			if (keys[slot] == 0) {
+				if (size == MAX_KEYS) {
+					if (overflow == null) {
+						overflow = new long[65536];
+					}
+					overflow[key >>> 8]++;
+					return;
+				}
+				keys[slot] = key + 1;
+				values[slot] = 1;
+				// Con MAX_KEYS tríos la tabla tiene 2 * MAX_KEYS celdas y no vuelve a crecer
+				if (++size * 2 > keys.length) {
+					grow();
+				}
+				return;
+			}
+			if (++values[slot] == Integer.MAX_VALUE) {
+				halve(values);
+			}
+		}
+
+		private void grow() {
+			int[] oldKeys = keys;
+			int[] oldValues = values;
+			keys = new int[oldKeys.length * 2];
+			values = new int[oldKeys.length * 2];
+			int mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != 0) {
+					int slot = ((oldKeys[i] - 1) * 0x9E3779B1) >>> 7 & mask;
+					while (keys[slot] != 0) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+
+		private static void halve(int[] counts) {
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = (counts[i] + 1) >>> 1;
+			}
+		}
+
+		/**
+		 * H(X | dos anteriores), con los contextos sumados desde los mismos tríos
+		 */
+		double conditionalEntropy() {
+			long[] contexts = new long[65536];
+			long total = 0;
+			double tripleSum = 0.0;
+			for (int i = 0; i < keys.length; i++) {
+				if (keys[i] != 0) {
+					int n = values[i];
+					contexts[(keys[i] - 1) >>> 8] += n;
+					tripleSum += n * log2(n);
+					total += n;
+				}
+			}
+			// Los tríos que no entraron aportan al contexto, y 1·log2(1) = 0 a la suma
+			if (overflow != null) {
+				for (int context = 0; context < overflow.length; context++) {
+					contexts[context] += overflow[context];
+					total += overflow[context];
+				}
+			}
+			double contextSum = 0.0;
+			for (long n : contexts) {
+				if (n > 0) {
+					contextSum += n * log2(n);
+				}
+			}
+			return total == 0 ? 0.0 : Math.max(0.0, (contextSum - tripleSum) / total);
+		}
+	}
+
+	/**
+	 * Recorre el texto con el análisis de LZ78 y cuenta los pares que emitiría.
+	 * Las frases se guardan en una tabla hash de (frase, carácter) a frase
+	 * hija, que deja de crecer al llegar a LZ78_LIMIT.
+	 */
+	private static class Lz78Model {
+		private final long[] keys = new long[LZ78_LIMIT * 2];
+		private final int[] children = new int[LZ78_LIMIT * 2];
+		private int phrases;
+		private int current;
+		private long pairCount;
+
+		void clear() {
+			Arrays.fill(keys, 0);
+			phrases = 0;
+			current = 0;
+			pairCount = 0;
+		}
+
+		void add(char c) {
+			long key = ((long) current << 16 | c) + 1;
+			int mask = keys.length - 1;
+			int slot = (int) (key * 0x9E3779B97F4A7C15L >>> 40) & mask;
+			while (keys[slot] != 0 && keys[slot] != key) {
+				slot = (slot + 1) & mask;
+			}
+			if (keys[slot] == key) {
+				current = children[slot];
+				return;
+			}
+			// La frase termina: se emite un par y, si hay lugar, se agrega al diccionario
+			pairCount++;
+			if (phrases < LZ78_LIMIT) {
+				keys[slot] = key;
+				children[slot] = ++phrases;
+			}
+			current = 0;
+		}
+
+		long getPairs() {
+			return pairCount;
+		}
+
+		/**
+		 * @return 1 si quedó una frase a medias, que se emite al final
+		 */
+		long getPendingPairs() {
+			return current != 0 ? 1 : 0;
+		}
+	}
+}
@@ -7,11 +7,18 @@ import java.io.IOException;
 
 /**
  * Clase para exportar los resultados de la codificación de Huffman a un archivo
+ *
+ * Genera un reporte de texto legible. Para guardar el mensaje comprimido y
+ * poder leerlo de nuevo está HuffmanFileCodec.save, que escribe un .huff.
  */
 public class FileExporter {
 	
+	// Bits del mensaje codificado que se pasan a texto por vez
+	private static final int CHUNK_BITS = 64 * 1024;
+	
 	/**
-	 * Exporta el diccionario y el mensaje codificado a un archivo
+	 * Exporta el diccionario y el mensaje codificado a un reporte de texto. El
+	 * mensaje codificado se escribe por tramos, sin armarlo completo en memoria.
 	 * @param result el resultado de la codificación de Huffman
 	 * @param filePath la ruta del archivo donde guardar
 	 * @param originalMessage el mensaje original
@@ -67,7 +74,9 @@ public class FileExporter {
 			writer.newLine();
 			writer.write("----------------------------------------");
 			writer.newLine();
-			writer.write(result.getEncodedMessage());
+			for (long from = 0; from < result.getEncodedBitLength(); from += CHUNK_BITS) {
+				writer.write(result.getEncodedMessage(from, CHUNK_BITS));
+			}
 			writer.newLine();
 			writer.newLine();
 			
@@ -82,6 +91,19 @@ public class FileExporter {
 			writer.newLine();
 			writer.write(String.format("Eficiencia (η):        %.2f%%", result.getEfficiency()));
 			writer.newLine();
+			if (result.isLengthLimited()) {
+				writer.write(String.format("Longitud máxima:       %d bits (pérdida de eficiencia: %.2f%%)",
+					result.getCodeTable().getMaxLength(), result.getEfficiencyLoss()));
+				writer.newLine();
+			}
+			if (result.hasContextMetrics()) {
+				writer.write(String.format("Entropía H(S|ant.):    %.4f bits", result.getConditionalEntropy()));
+				writer.newLine();
+				writer.write(String.format("Largo por contexto:    %.4f bits", result.getContextAverageLength()));
+				writer.newLine();
+				writer.write(String.format("Eficiencia contexto:   %.2f%%", result.getContextEfficiency()));
+				writer.newLine();
+			}
 			writer.newLine();
 			
 			// Escribir estadísticas adicionales
@@ -91,12 +113,12 @@ public class FileExporter {
 			writer.newLine();
 			writer.write(String.format("Longitud original:     %d caracteres", originalMessage.length()));
 			writer.newLine();
-			writer.write(String.format("Longitud codificada:   %d bits", result.getEncodedMessage().length()));
+			writer.write(String.format("Longitud codificada:   %d bits", result.getEncodedBitLength()));
 			writer.newLine();
 			writer.write(String.format("Bits originales:       %d bits (ASCII 8 bits/char)", originalMessage.length() * 8));
 			writer.newLine();
 			writer.write(String.format("Compresión:            %.2f%%", 
-				(1.0 - (double) result.getEncodedMessage().length() / (originalMessage.length() * 8)) * 100));
+				(1.0 - (double) result.getEncodedBitLength() / (originalMessage.length() * 8)) * 100));
 			writer.newLine();
 			writer.newLine();
 			
@@ -118,6 +140,15 @@ public class FileExporter {
 	 * @return nombre de archivo sugerido
 	 */
 	public static String getSuggestedFileName() {
-		return "huffman_" + System.currentTimeMillis() + getFileExtension();
+		return getSuggestedFileName(getFileExtension());
+	}
+	
+	/**
+	 * Genera un nombre de archivo sugerido con la extensión indicada
+	 * @param extension la extensión, con el punto
+	 * @return nombre de archivo sugerido
+	 */
+	public static String getSuggestedFileName(String extension) {
+		return "huffman_" + System.currentTimeMillis() + extension;
 	}
 }
@@ -2,26 +2,72 @@ package modelo;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Analiza las frecuencias de los símbolos en un mensaje
  */
 public class FrequencyAnalyzer {
 	
+	// Por debajo de este tamaño no conviene repartir el conteo entre hilos
+	private static final int PARALLEL_THRESHOLD = 1 << 20;
+	
+	/**
+	 * Cuenta una parte del mensaje; divide el tramo en dos mientras sea grande
+	 * y suma los histogramas de cada mitad al terminar
+	 */
+	private static class CountTask extends RecursiveTask<SymbolHistogram> {
+		private static final long serialVersionUID = 1L;
+		private final String message;
+		private final int from;
+		private final int to;
+		
+		CountTask(String message, int from, int to) {
+			this.message = message;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected SymbolHistogram compute() {
+			if (to - from <= PARALLEL_THRESHOLD) {
+				SymbolHistogram histogram = new SymbolHistogram();
+				histogram.add(message, from, to);
+				return histogram;
+			}
+			int middle = (from + to) >>> 1;
+			CountTask left = new CountTask(message, from, middle);
+			left.fork();
+			SymbolHistogram right = new CountTask(message, middle, to).compute();
+			SymbolHistogram result = left.join();
+			result.merge(right);
+			return result;
+		}
+	}
+	
+	/**
+	 * Calcula el histograma del mensaje sin copiarlo ni crear objetos por carácter.
+	 * Los mensajes grandes se cuentan en paralelo con un histograma por tarea.
+	 * @param message el mensaje a analizar
+	 * @return el histograma de símbolos
+	 */
+	public static SymbolHistogram histogram(String message) {
+		if (message.length() <= PARALLEL_THRESHOLD) {
+			SymbolHistogram histogram = new SymbolHistogram();
+			histogram.add(message, 0, message.length());
+			return histogram;
+		}
+		return ForkJoinPool.commonPool().invoke(new CountTask(message, 0, message.length()));
+	}
+	
 	/**
 	 * Calcula la frecuencia de cada símbolo en el mensaje
 	 * @param message el mensaje a analizar
 	 * @return un mapa con cada símbolo y su frecuencia
 	 */
 	public static Map<Character, Integer> analyzeFrequencies(String message) {
-		Map<Character, Integer> frequencies = new HashMap<>();
-		
-		// Contar la frecuencia de cada carácter
-		for (char c : message.toCharArray()) {
-			frequencies.put(c, frequencies.getOrDefault(c, 0) + 1);
-		}
-		
-		return frequencies;
+		return histogram(message).toMap();
 	}
 	
 	/**
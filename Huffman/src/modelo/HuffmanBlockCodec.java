@@ -0,0 +1,415 @@
+package modelo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Comprime archivos con Huffman por bloques, eligiendo la tabla de cada bloque
+ *
+ * Cada bloque tiene su propio histograma. Se calcula el costo exacto en bits
+ * de guardarlo sin comprimir, de codificarlo con cada una de las últimas
+ * RECENT_TABLES tablas usadas o de construir una tabla nueva (incluyendo su
+ * encabezado), y se elige la opción más barata. Así las regiones distintas
+ * de un archivo (encabezados, tablas numéricas, texto) usan códigos propios
+ * sin pagar una tabla en cada bloque.
+ *
+ * Formato: int mágico, byte versión, long tamaño original, int CRC-32 del
+ * original, int tamaño de bloque y luego, por bloque, 2 bits de modo: 00 sin comprimir (8 bits por
+ * byte), 01 tabla nueva (mapa de 256 bits de símbolos presentes y 4 bits de
+ * longitud por símbolo) seguida de los códigos, 10 reutilizar una tabla (2
+ * bits con su posición entre las recientes) seguida de los códigos. Las
+ * tablas recientes se ordenan de la más a la menos recién usada. La versión
+ * 1, sin CRC, todavía se puede leer.
+ */
+public class HuffmanBlockCodec {
+
+	/** "HUFB" */
+	public static final int MAGIC_NUMBER = 0x48554642;
+	public static final int VERSION = 2;
+	public static final String EXTENSION = ".hufb";
+	public static final int DEFAULT_BLOCK_SIZE = 32 * 1024;
+
+	private static final int RECENT_TABLES = 4;
+	private static final int REFERENCE_BITS = 2;
+	private static final int MAX_CODE_LENGTH = 15;
+	private static final int LENGTH_BITS = 4;
+
+	private static final int MODE_RAW = 0b00;
+	private static final int MODE_NEW_TABLE = 0b01;
+	private static final int MODE_REUSE = 0b10;
+	private static final int MODE_BITS = 2;
+
+	// Bytes del encabezado por versión: mágico, versión, tamaño, [CRC,] tamaño de bloque
+	private static final int HEADER_BYTES_V1 = 4 + 1 + 8 + 4;
+	private static final int HEADER_BYTES = HEADER_BYTES_V1 + 4;
+	private static final int CRC_POSITION = 4 + 1 + 8;
+
+	/**
+	 * Tabla de códigos indexada por byte, con su decodificador
+	 */
+	private static class BlockTable {
+		final long[] codes = new long[256];
+		final int[] lengths = new int[256];
+		final HuffmanCodeTable table;
+		private HuffmanDecoder decoder;
+
+		BlockTable(HuffmanCodeTable table) {
+			this.table = table;
+			for (int i = 0; i < table.getSymbolCount(); i++) {
+				codes[table.getSymbol(i)] = table.getCode(i);
+				lengths[table.getSymbol(i)] = table.getLength(i);
+			}
+		}
+
+		/**
+		 * @return bits para codificar el histograma, o -1 si falta algún símbolo
+		 */
+		long cost(int[] histogram) {
+			long bits = 0;
+			for (int symbol = 0; symbol < 256; symbol++) {
+				if (histogram[symbol] > 0) {
+					if (lengths[symbol] == 0) {
+						return -1;
+					}
+					bits += (long) histogram[symbol] * lengths[symbol];
+				}
+			}
+			return bits;
+		}
+
+		long headerBits() {
+			return 256 + (long) LENGTH_BITS * table.getSymbolCount();
+		}
+
+		HuffmanDecoder getDecoder() {
+			if (decoder == null) {
+				decoder = new HuffmanDecoder(table);
+			}
+			return decoder;
+		}
+	}
+
+	/**
+	 * Resumen de la compresión por bloques
+	 */
+	public static class BlockResult {
+		private final long originalSize;
+		private final long compressedSize;
+		private final int rawBlocks;
+		private final int newTableBlocks;
+		private final int reusedBlocks;
+
+		BlockResult(long originalSize, long compressedSize, int rawBlocks, int newTableBlocks, int reusedBlocks) {
+			this.originalSize = originalSize;
+			this.compressedSize = compressedSize;
+			this.rawBlocks = rawBlocks;
+			this.newTableBlocks = newTableBlocks;
+			this.reusedBlocks = reusedBlocks;
+		}
+
+		public long getOriginalSize() {
+			return originalSize;
+		}
+
+		public long getCompressedSize() {
+			return compressedSize;
+		}
+
+		public int getRawBlocks() {
+			return rawBlocks;
+		}
+
+		public int getNewTableBlocks() {
+			return newTableBlocks;
+		}
+
+		public int getReusedBlocks() {
+			return reusedBlocks;
+		}
+
+		/**
+		 * @return un resumen legible de la compresión
+		 */
+		public String getSummary() {
+			double ratio = originalSize == 0 ? 0.0 : (1.0 - (double) compressedSize / originalSize) * 100;
+			return String.format("Original: %,d bytes%nComprimido: %,d bytes%nCompresión: %.2f%%%n"
+				+ "Bloques: %d con tabla nueva, %d reutilizando tabla, %d sin comprimir",
+				originalSize, compressedSize, ratio, newTableBlocks, reusedBlocks, rawBlocks);
+		}
+	}
+
+	/**
+	 * Comprime un archivo con el tamaño de bloque por defecto
+	 * @param input el archivo original
+	 * @param output el archivo comprimido a crear
+	 * @return el resumen de la compresión
+	 * @throws IOException si hay un error de lectura o escritura
+	 */
+	public static BlockResult compress(File input, File output) throws IOException {
+		return compress(input, output, DEFAULT_BLOCK_SIZE);
+	}
+
+	/**
+	 * Comprime un archivo por bloques, en una sola pasada
+	 * @param input el archivo original
+	 * @param output el archivo comprimido a crear
+	 * @param blockSize el tamaño de bloque en bytes
+	 * @return el resumen de la compresión
+	 * @throws IOException si hay un error de lectura o escritura
+	 */
+	public static BlockResult compress(File input, File output, int blockSize) throws IOException {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("El tamaño de bloque debe ser positivo");
+		}
+		int[] counts = new int[3];
+		CRC32 crc = new CRC32();
+		try (InputStream in = new BufferedInputStream(new FileInputStream(input), 64 * 1024);
+		     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output), 64 * 1024))) {
+			out.writeInt(MAGIC_NUMBER);
+			out.writeByte(VERSION);
+			out.writeLong(input.length());
+			// El CRC se completa al final, cuando ya se leyó todo el original
+			out.writeInt(0);
+			out.writeInt(blockSize);
+
+			BitWriter writer = new BitWriter(out);
+			BlockTable[] recent = new BlockTable[RECENT_TABLES];
+			byte[] block = new byte[blockSize];
+			int[] histogram = new int[256];
+			long remaining = input.length();
+			try {
+				while (remaining > 0) {
+					int length = (int) Math.min(blockSize, remaining);
+					if (in.readNBytes(block, 0, length) != length) {
+						throw new EOFException("El archivo cambió de tamaño mientras se comprimía");
+					}
+					remaining -= length;
+					crc.update(block, 0, length);
+					counts[encodeBlock(block, length, histogram, recent, writer)]++;
+				}
+				writer.finish();
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+		try (RandomAccessFile file = new RandomAccessFile(output, "rw")) {
+			file.seek(CRC_POSITION);
+			file.writeInt((int) crc.getValue());
+		}
+		return new BlockResult(input.length(), output.length(), counts[MODE_RAW], counts[MODE_NEW_TABLE], counts[MODE_REUSE]);
+	}
+
+	/**
+	 * Elige el modo más barato para un bloque y lo escribe
+	 * @return el modo elegido
+	 */
+	private static int encodeBlock(byte[] block, int length, int[] histogram, BlockTable[] recent, BitWriter writer) {
+		Arrays.fill(histogram, 0);
+		for (int i = 0; i < length; i++) {
+			histogram[block[i] & 0xFF]++;
+		}
+
+		long bestCost = MODE_BITS + 8L * length;
+		int bestMode = MODE_RAW;
+		int bestIndex = -1;
+		for (int i = 0; i < RECENT_TABLES && recent[i] != null; i++) {
+			long cost = recent[i].cost(histogram);
+			if (cost >= 0 && MODE_BITS + REFERENCE_BITS + cost < bestCost) {
+				bestCost = MODE_BITS + REFERENCE_BITS + cost;
+				bestMode = MODE_REUSE;
+				bestIndex = i;
+			}
+		}
+		BlockTable fresh = new BlockTable(buildTable(histogram));
+		long freshCost = MODE_BITS + fresh.headerBits() + fresh.cost(histogram);
+		if (freshCost < bestCost) {
+			bestMode = MODE_NEW_TABLE;
+		}
+
+		writer.write(bestMode, MODE_BITS);
+		if (bestMode == MODE_RAW) {
+			for (int i = 0; i < length; i++) {
+				writer.write(block[i] & 0xFF, 8);
+			}
+			return bestMode;
+		}
+
+		BlockTable table;
+		if (bestMode == MODE_REUSE) {
+			writer.write(bestIndex, REFERENCE_BITS);
+			table = recent[bestIndex];
+			moveToFront(recent, bestIndex, table);
+		} else {
+			writeTable(fresh.table, writer);
+			table = fresh;
+			moveToFront(recent, RECENT_TABLES - 1, table);
+		}
+		for (int i = 0; i < length; i++) {
+			int symbol = block[i] & 0xFF;
+			writer.write(table.codes[symbol], table.lengths[symbol]);
+		}
+		return bestMode;
+	}
+
+	private static HuffmanCodeTable buildTable(int[] histogram) {
+		char[] symbols = new char[256];
+		long[] frequencies = new long[256];
+		int n = 0;
+		for (int symbol = 0; symbol < 256; symbol++) {
+			if (histogram[symbol] > 0) {
+				symbols[n] = (char) symbol;
+				frequencies[n++] = histogram[symbol];
+			}
+		}
+		return HuffmanTreeBuilder.buildLimitedCodeTable(Arrays.copyOf(symbols, n),
+			Arrays.copyOf(frequencies, n), MAX_CODE_LENGTH);
+	}
+
+	/**
+	 * Escribe el mapa de símbolos presentes y la longitud de cada uno
+	 */
+	private static void writeTable(HuffmanCodeTable table, BitWriter writer) {
+		int[] lengths = new int[256];
+		for (int i = 0; i < table.getSymbolCount(); i++) {
+			lengths[table.getSymbol(i)] = table.getLength(i);
+		}
+		for (int symbol = 0; symbol < 256; symbol++) {
+			writer.writeBit(lengths[symbol] > 0 ? 1 : 0);
+		}
+		for (int symbol = 0; symbol < 256; symbol++) {
+			if (lengths[symbol] > 0) {
+				// Las longitudes van de 1 a 15 y se guardan en 4 bits
+				writer.write(lengths[symbol], LENGTH_BITS);
+			}
+		}
+	}
+
+	private static HuffmanCodeTable readTable(BitReader reader) throws IOException {
+		boolean[] present = new boolean[256];
+		int n = 0;
+		for (int symbol = 0; symbol < 256; symbol++) {
+			present[symbol] = reader.readBit() == 1;
+			if (present[symbol]) {
+				n++;
+			}
+		}
+		char[] symbols = new char[n];
+		int[] lengths = new int[n];
+		int index = 0;
+		for (int symbol = 0; symbol < 256; symbol++) {
+			if (present[symbol]) {
+				symbols[index] = (char) symbol;
+				lengths[index++] = (int) reader.peek(LENGTH_BITS);
+				reader.skip(LENGTH_BITS);
+			}
+		}
+		try {
+			return HuffmanCodeTable.fromLengths(symbols, lengths);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Archivo corrupto: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Pone una tabla al frente de las recientes, corriendo las anteriores hasta la posición dada
+	 */
+	private static void moveToFront(BlockTable[] recent, int from, BlockTable table) {
+		System.arraycopy(recent, 0, recent, 1, from);
+		recent[0] = table;
+	}
+
+	/**
+	 * Descomprime un archivo creado con compress
+	 * @param input el archivo comprimido
+	 * @param output el archivo original a recrear
+	 * @throws IOException si el archivo no es válido o hay un error de lectura o escritura
+	 */
+	public static void decompress(File input, File output) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(input), 64 * 1024));
+		     OutputStream out = new BufferedOutputStream(new FileOutputStream(output), 64 * 1024)) {
+			if (in.readInt() != MAGIC_NUMBER) {
+				throw new IOException("Formato de archivo inválido: no es un archivo Huffman por bloques");
+			}
+			int version = in.readUnsignedByte();
+			if (version != 1 && version != VERSION) {
+				throw new IOException("Versión de archivo no soportada: " + version);
+			}
+			long remaining = in.readLong();
+			int expectedCrc = version == 1 ? 0 : in.readInt();
+			int blockSize = in.readInt();
+			if (remaining < 0 || blockSize <= 0) {
+				throw new IOException("Archivo corrupto: encabezado inválido");
+			}
+			// BitReader completa con ceros al final: los bits reales se cuentan aparte
+			long availableBits = (input.length() - (version == 1 ? HEADER_BYTES_V1 : HEADER_BYTES)) * 8;
+			CRC32 crc = new CRC32();
+
+			BitReader reader = new BitReader(in);
+			BlockTable[] recent = new BlockTable[RECENT_TABLES];
+			char[] decoded = new char[(int) Math.min(blockSize, Math.max(remaining, 1))];
+			byte[] block = new byte[decoded.length];
+			try {
+				while (remaining > 0) {
+					int length = (int) Math.min(blockSize, remaining);
+					if (!reader.hasMoreBits()) {
+						throw new EOFException("Archivo truncado");
+					}
+					int mode = (int) reader.peek(MODE_BITS);
+					reader.skip(MODE_BITS);
+					if (mode == MODE_RAW) {
+						for (int i = 0; i < length; i++) {
+							block[i] = (byte) reader.peek(8);
+							reader.skip(8);
+						}
+					} else {
+						BlockTable table;
+						if (mode == MODE_REUSE) {
+							int index = (int) reader.peek(REFERENCE_BITS);
+							reader.skip(REFERENCE_BITS);
+							table = recent[index];
+							if (table == null) {
+								throw new IOException("Archivo corrupto: referencia a una tabla inexistente");
+							}
+							moveToFront(recent, index, table);
+						} else if (mode == MODE_NEW_TABLE) {
+							table = new BlockTable(readTable(reader));
+							moveToFront(recent, RECENT_TABLES - 1, table);
+						} else {
+							throw new IOException("Archivo corrupto: modo de bloque inválido");
+						}
+						table.getDecoder().decode(reader, decoded, 0, length);
+						for (int i = 0; i < length; i++) {
+							block[i] = (byte) decoded[i];
+						}
+					}
+					if (reader.getBitsRead() > availableBits) {
+						throw new EOFException("Archivo truncado");
+					}
+					out.write(block, 0, length);
+					crc.update(block, 0, length);
+					remaining -= length;
+				}
+				if (version != 1 && (int) crc.getValue() != expectedCrc) {
+					throw new IOException("Archivo corrupto: el CRC no coincide");
+				}
+			} catch (IllegalArgumentException e) {
+				throw new IOException(e.getMessage(), e);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
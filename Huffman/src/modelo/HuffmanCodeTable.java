@@ -0,0 +1,200 @@
+package modelo;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de códigos de Huffman canónicos en arreglos primitivos
+ *
+ * Los símbolos se ordenan por (longitud, símbolo) y reciben códigos
+ * consecutivos; así el código completo queda determinado solo por las
+ * longitudes y no hace falta guardar el árbol.
+ */
+public class HuffmanCodeTable {
+
+	/** Longitud máxima de código que admite la tabla */
+	public static final int MAX_CODE_LENGTH = 64;
+
+	private final char[] symbols;
+	private final int[] lengths;
+	private final long[] codes;
+	private final int[] positionBySymbol;
+	private final int maxLength;
+
+	private HuffmanCodeTable(char[] symbols, int[] lengths, long[] codes, int[] positionBySymbol, int maxLength) {
+		this.symbols = symbols;
+		this.lengths = lengths;
+		this.codes = codes;
+		this.positionBySymbol = positionBySymbol;
+		this.maxLength = maxLength;
+	}
+
+	/**
+	 * Construye los códigos canónicos a partir de las longitudes
+	 * @param symbols los símbolos (sin repetir)
+	 * @param codeLengths la longitud del código de cada símbolo
+	 * @return la tabla canónica
+	 * @throws IllegalArgumentException si las longitudes no forman un código prefijo
+	 */
+	public static HuffmanCodeTable fromLengths(char[] symbols, int[] codeLengths) {
+		int n = symbols.length;
+		if (n == 0 || codeLengths.length != n) {
+			throw new IllegalArgumentException("Se necesita al menos un símbolo con su longitud");
+		}
+
+		// Ordenar por (longitud, símbolo) empaquetando ambos en un long
+		long[] order = new long[n];
+		int maxSymbol = 0;
+		for (int i = 0; i < n; i++) {
+			if (codeLengths[i] < 1 || codeLengths[i] > MAX_CODE_LENGTH) {
+				throw new IllegalArgumentException("Longitud de código inválida: " + codeLengths[i]);
+			}
+			order[i] = ((long) codeLengths[i] << 16) | symbols[i];
+			maxSymbol = Math.max(maxSymbol, symbols[i]);
+		}
+		Arrays.sort(order);
+
+		char[] sortedSymbols = new char[n];
+		int[] sortedLengths = new int[n];
+		long[] sortedCodes = new long[n];
+		int[] positions = new int[maxSymbol + 1];
+		Arrays.fill(positions, -1);
+
+		// Asignar códigos consecutivos, desplazando al aumentar la longitud
+		long code = 0;
+		int previousLength = (int) (order[0] >>> 16);
+		for (int i = 0; i < n; i++) {
+			char symbol = (char) order[i];
+			int length = (int) (order[i] >>> 16);
+			if (positions[symbol] != -1) {
+				throw new IllegalArgumentException("Símbolo repetido: " + symbol);
+			}
+			if (i > 0) {
+				code = (code + 1) << (length - previousLength);
+			}
+			if (length < 64 && code >>> length != 0) {
+				throw new IllegalArgumentException("Las longitudes no forman un código prefijo");
+			}
+			sortedSymbols[i] = symbol;
+			sortedLengths[i] = length;
+			sortedCodes[i] = code;
+			positions[symbol] = i;
+			previousLength = length;
+		}
+
+		return new HuffmanCodeTable(sortedSymbols, sortedLengths, sortedCodes, positions, previousLength);
+	}
+
+	/**
+	 * @return número de símbolos de la tabla
+	 */
+	public int getSymbolCount() {
+		return symbols.length;
+	}
+
+	/**
+	 * @param index posición en orden canónico
+	 * @return el símbolo
+	 */
+	public char getSymbol(int index) {
+		return symbols[index];
+	}
+
+	/**
+	 * @param index posición en orden canónico
+	 * @return la longitud del código
+	 */
+	public int getLength(int index) {
+		return lengths[index];
+	}
+
+	/**
+	 * @param index posición en orden canónico
+	 * @return el código, alineado a la derecha
+	 */
+	public long getCode(int index) {
+		return codes[index];
+	}
+
+	/**
+	 * @return la longitud del código más largo
+	 */
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * @param symbol el símbolo
+	 * @return la posición canónica del símbolo, o -1 si no está en la tabla
+	 */
+	public int indexOf(char symbol) {
+		return symbol < positionBySymbol.length ? positionBySymbol[symbol] : -1;
+	}
+
+	/**
+	 * @param symbol el símbolo
+	 * @return el código como texto de '0' y '1'
+	 */
+	public String getCodeString(char symbol) {
+		int index = indexOf(symbol);
+		if (index < 0) {
+			throw new IllegalArgumentException("Símbolo sin código: " + symbol);
+		}
+		StringBuilder text = new StringBuilder(lengths[index]);
+		for (int bit = lengths[index] - 1; bit >= 0; bit--) {
+			text.append((codes[index] >>> bit & 1) == 0 ? '0' : '1');
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Codifica un mensaje escribiendo el código de cada símbolo
+	 * @param message el mensaje
+	 * @param writer el destino de los bits
+	 * @throws IllegalArgumentException si el mensaje tiene un símbolo sin código
+	 */
+	public void encode(CharSequence message, BitWriter writer) {
+		encode(message, 0, message.length(), writer);
+	}
+
+	/**
+	 * Codifica un tramo del mensaje, para avanzar por partes
+	 * @param message el mensaje
+	 * @param from primer índice a codificar
+	 * @param to índice siguiente al último
+	 * @param writer el destino de los bits
+	 * @throws IllegalArgumentException si el tramo tiene un símbolo sin código
+	 */
+	public void encode(CharSequence message, int from, int to, BitWriter writer) {
+		int[] positions = positionBySymbol;
+		for (int i = from; i < to; i++) {
+			char c = message.charAt(i);
+			int index = c < positions.length ? positions[c] : -1;
+			if (index < 0) {
+				throw new IllegalArgumentException("Símbolo sin código: " + c);
+			}
+			writer.write(codes[index], lengths[index]);
+		}
+	}
+
+	/**
+	 * Calcula cuántos bits ocupa un tramo del mensaje codificado, sin codificarlo
+	 * @param message el mensaje
+	 * @param from primer índice del tramo
+	 * @param to índice siguiente al último
+	 * @return la cantidad exacta de bits
+	 * @throws IllegalArgumentException si el tramo tiene un símbolo sin código
+	 */
+	public long getBitLength(CharSequence message, int from, int to) {
+		int[] positions = positionBySymbol;
+		long bits = 0;
+		for (int i = from; i < to; i++) {
+			char c = message.charAt(i);
+			int index = c < positions.length ? positions[c] : -1;
+			if (index < 0) {
+				throw new IllegalArgumentException("Símbolo sin código: " + c);
+			}
+			bits += lengths[index];
+		}
+		return bits;
+	}
+}
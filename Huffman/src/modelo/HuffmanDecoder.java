@@ -0,0 +1,198 @@
+package modelo;
+
+/**
+ * Decodifica mensajes codificados con códigos de Huffman canónicos
+ *
+ * Usa tablas de búsqueda: se consultan los próximos LOOKUP_BITS bits y una
+ * sola lectura da el símbolo y la longitud de su código. Los códigos más
+ * largos apuntan a una tabla de segundo nivel; si aún así no alcanzan, se
+ * decodifican bit a bit con los códigos canónicos. Si ningún código supera
+ * SINGLE_LEVEL_LIMIT bits (por ejemplo con longitud limitada) la tabla
+ * principal cubre el código más largo y siempre basta una lectura.
+ *
+ * Cada entrada es un int: longitud en los 7 bits bajos (0 = código inválido),
+ * el bit 7 indica tabla de segundo nivel y el resto guarda el símbolo o la
+ * posición de la subtabla.
+ */
+public class HuffmanDecoder {
+
+	private static final int LOOKUP_BITS = 11;
+	private static final int SINGLE_LEVEL_LIMIT = 15;
+	private static final int SECOND_LEVEL_BITS = 10;
+	private static final int SUBTABLE_FLAG = 0x80;
+	private static final int LENGTH_MASK = 0x7F;
+	private static final int SLOW_PATH = 0x7F;
+
+	private final HuffmanCodeTable table;
+	private final int lookupBits;
+	private final int[] primary;
+	private final int[] secondary;
+
+	// Datos canónicos para la decodificación bit a bit
+	private final long[] firstCode;
+	private final int[] firstIndex;
+	private final int[] countByLength;
+
+	/**
+	 * Construye las tablas de búsqueda
+	 * @param table la tabla de códigos canónicos usada al codificar
+	 */
+	public HuffmanDecoder(HuffmanCodeTable table) {
+		this.table = table;
+		int maxLength = table.getMaxLength();
+		this.lookupBits = maxLength <= SINGLE_LEVEL_LIMIT ? maxLength : LOOKUP_BITS;
+		this.primary = new int[1 << lookupBits];
+
+		int n = table.getSymbolCount();
+		this.firstCode = new long[maxLength + 1];
+		this.firstIndex = new int[maxLength + 1];
+		this.countByLength = new int[maxLength + 1];
+		for (int i = n - 1; i >= 0; i--) {
+			int length = table.getLength(i);
+			countByLength[length]++;
+			firstCode[length] = table.getCode(i);
+			firstIndex[length] = i;
+		}
+
+		// Mayor longitud de código bajo cada prefijo de la tabla principal
+		int[] longestByPrefix = new int[primary.length];
+		for (int i = 0; i < n; i++) {
+			int length = table.getLength(i);
+			if (length > lookupBits) {
+				int prefix = (int) (table.getCode(i) >>> (length - lookupBits));
+				longestByPrefix[prefix] = Math.max(longestByPrefix[prefix], length);
+			}
+		}
+
+		// Reservar una subtabla por prefijo con códigos largos
+		int secondarySize = 0;
+		for (int prefix = 0; prefix < primary.length; prefix++) {
+			if (longestByPrefix[prefix] > 0) {
+				int bits = Math.min(SECOND_LEVEL_BITS, longestByPrefix[prefix] - lookupBits);
+				primary[prefix] = (secondarySize << 8) | SUBTABLE_FLAG | bits;
+				secondarySize += 1 << bits;
+			}
+		}
+		this.secondary = new int[secondarySize];
+
+		for (int i = 0; i < n; i++) {
+			int length = table.getLength(i);
+			long code = table.getCode(i);
+			int entry = (table.getSymbol(i) << 8) | length;
+
+			if (length <= lookupBits) {
+				int start = (int) (code << (lookupBits - length));
+				int end = start + (1 << (lookupBits - length));
+				for (int j = start; j < end; j++) {
+					primary[j] = entry;
+				}
+				continue;
+			}
+
+			int pointer = primary[(int) (code >>> (length - lookupBits))];
+			int offset = pointer >>> 8;
+			int bits = pointer & LENGTH_MASK;
+			int extra = length - lookupBits;
+			if (extra <= bits) {
+				int start = offset + (int) ((code & ((1L << extra) - 1)) << (bits - extra));
+				int end = start + (1 << (bits - extra));
+				for (int j = start; j < end; j++) {
+					secondary[j] = entry;
+				}
+			} else {
+				// Código más largo que ambos niveles: marcar para el camino lento
+				secondary[offset + (int) ((code >>> (extra - bits)) & ((1 << bits) - 1))] = SLOW_PATH;
+			}
+		}
+	}
+
+	/**
+	 * Decodifica un mensaje
+	 * @param data los bits empaquetados
+	 * @param bitLength la cantidad exacta de bits
+	 * @param symbolCount la cantidad de símbolos del mensaje
+	 * @return los símbolos decodificados
+	 * @throws IllegalArgumentException si los bits no corresponden a la tabla
+	 */
+	public char[] decode(byte[] data, long bitLength, int symbolCount) {
+		char[] output = new char[symbolCount];
+		BitReader reader = new BitReader(data);
+		decode(reader, output, 0, symbolCount);
+		if (reader.getBitsRead() != bitLength) {
+			throw new IllegalArgumentException("Datos corruptos: la cantidad de bits no coincide");
+		}
+		return output;
+	}
+
+	/**
+	 * Decodifica símbolos desde un lector de bits
+	 * @param reader el lector, posicionado al inicio del próximo código
+	 * @param output el destino de los símbolos
+	 * @param offset posición inicial en el destino
+	 * @param count cantidad de símbolos a decodificar
+	 * @throws IllegalArgumentException si se encuentra un código inválido
+	 */
+	public void decode(BitReader reader, char[] output, int offset, int count) {
+		int[] primary = this.primary;
+		int[] secondary = this.secondary;
+		int lookupBits = this.lookupBits;
+
+		for (int i = offset; i < offset + count; i++) {
+			int entry = primary[(int) reader.peek(lookupBits)];
+			if ((entry & SUBTABLE_FLAG) != 0) {
+				int bits = entry & LENGTH_MASK;
+				int index = (int) reader.peek(lookupBits + bits) & ((1 << bits) - 1);
+				entry = secondary[(entry >>> 8) + index];
+			}
+
+			int length = entry & LENGTH_MASK;
+			if (length == SLOW_PATH) {
+				output[i] = decodeSlow(reader);
+			} else if (length == 0) {
+				throw new IllegalArgumentException("Datos corruptos: código inválido");
+			} else {
+				reader.skip(length);
+				output[i] = (char) (entry >>> 8);
+			}
+		}
+	}
+
+	/**
+	 * Decodifica un código bit a bit con los códigos canónicos
+	 */
+	private char decodeSlow(BitReader reader) {
+		long code = 0;
+		for (int length = 1; length < firstCode.length; length++) {
+			code = (code << 1) | reader.readBit();
+			if (countByLength[length] > 0 && code - firstCode[length] >= 0
+					&& code - firstCode[length] < countByLength[length]) {
+				return table.getSymbol(firstIndex[length] + (int) (code - firstCode[length]));
+			}
+		}
+		throw new IllegalArgumentException("Datos corruptos: código inválido");
+	}
+
+	/**
+	 * Decodifica el mensaje de un resultado de Huffman
+	 * @param result el resultado con la tabla canónica y los bits
+	 * @return el mensaje original
+	 */
+	public static String decode(HuffmanResult result) {
+		if (result.getCodeTable() == null) {
+			throw new IllegalArgumentException("El resultado no tiene tabla de códigos canónicos");
+		}
+		int symbolCount = 0;
+		for (int i = 0; i < result.getSymbolCount(); i++) {
+			symbolCount += result.getFrequency(i);
+		}
+		HuffmanDecoder decoder = new HuffmanDecoder(result.getCodeTable());
+		return new String(decoder.decode(result.getEncodedBits(), result.getEncodedBitLength(), symbolCount));
+	}
+
+	/**
+	 * @return la tabla de códigos usada por el decodificador
+	 */
+	public HuffmanCodeTable getCodeTable() {
+		return table;
+	}
+}
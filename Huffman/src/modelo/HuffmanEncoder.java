@@ -1,12 +1,32 @@
 package modelo;
 
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Clase principal que orquesta el proceso de codificación de Huffman
  */
 public class HuffmanEncoder {
 	
+	// Cantidad de símbolos codificados entre dos avisos de avance
+	private static final int PROGRESS_CHUNK = 1 << 20;
+	
+	// Desde este tamaño se codifica en paralelo si hay más de un núcleo
+	private static final int PARALLEL_THRESHOLD = 1 << 22;
+	
+	/**
+	 * Recibe el avance de una codificación y permite cancelarla
+	 */
+	public interface ProgressListener {
+		/**
+		 * Con la codificación en paralelo se llama desde varios hilos
+		 * @param percent el avance, de 0 a 100
+		 * @return false para cancelar la codificación
+		 */
+		boolean update(int percent);
+	}
+	
 	/**
 	 * Codifica un mensaje usando el algoritmo de Huffman
 	 * @param message el mensaje a codificar
@@ -14,42 +34,113 @@ public class HuffmanEncoder {
 	 * @throws IllegalArgumentException si el mensaje está vacío
 	 */
 	public static HuffmanResult encode(String message) {
+		return encode(message, 0);
+	}
+	
+	/**
+	 * Codifica un mensaje limitando la longitud de los códigos
+	 * @param message el mensaje a codificar
+	 * @param maxLength longitud máxima de código en bits, o 0 para no limitarla
+	 * @return un objeto HuffmanResult con todos los resultados y la pérdida de eficiencia
+	 * @throws IllegalArgumentException si el mensaje está vacío o sus símbolos no caben en maxLength bits
+	 */
+	public static HuffmanResult encode(String message, int maxLength) {
+		return encode(message, maxLength, percent -> true);
+	}
+	
+	/**
+	 * Codifica un mensaje informando el avance, para correr en segundo plano
+	 * @param message el mensaje a codificar
+	 * @param maxLength longitud máxima de código en bits, o 0 para no limitarla
+	 * @param listener recibe el avance; si devuelve false se cancela
+	 * @return un objeto HuffmanResult con todos los resultados
+	 * @throws IllegalArgumentException si el mensaje está vacío o sus símbolos no caben en maxLength bits
+	 * @throws CancellationException si el listener pidió cancelar
+	 */
+	public static HuffmanResult encode(String message, int maxLength, ProgressListener listener) {
 		if (message == null || message.isEmpty()) {
 			throw new IllegalArgumentException("El mensaje no puede estar vacío");
 		}
 		
 		// Paso 1: Analizar las frecuencias
-		Map<Character, Integer> frequencies = FrequencyAnalyzer.analyzeFrequencies(message);
+		SymbolHistogram histogram = FrequencyAnalyzer.histogram(message);
+		report(listener, 20);
+		Map<Character, Integer> frequencies = histogram.toMap();
 		
 		// Paso 2: Calcular las probabilidades
 		Map<Character, Double> probabilities = FrequencyAnalyzer.calculateProbabilities(frequencies, message.length());
 		
-		// Paso 3: Construir el árbol de Huffman
+		// Paso 3: Construir el árbol de Huffman; su desempate fija los códigos que se muestran
 		HuffmanNode root = HuffmanTreeBuilder.buildTree(frequencies);
 		
-		// Paso 4: Generar los códigos binarios
-		Map<Character, String> codes = HuffmanTreeBuilder.generateCodes(root);
+		// Paso 4: Generar los códigos canónicos
+		HuffmanCodeTable codeTable = HuffmanTreeBuilder.buildCodeTable(root);
+		HuffmanCodeTable unlimitedTable = null;
+		if (maxLength > 0 && codeTable.getMaxLength() > maxLength) {
+			// Los arreglos planos solo hacen falta para limitar las longitudes
+			char[] symbols = histogram.getSymbols();
+			long[] counts = histogram.getCounts(symbols);
+			unlimitedTable = codeTable;
+			codeTable = HuffmanTreeBuilder.buildLimitedCodeTable(symbols, counts, maxLength);
+		}
+		report(listener, 25);
 		
-		// Paso 5: Codificar el mensaje
-		String encodedMessage = encodeMessage(message, codes);
+		// Paso 5: Codificar el mensaje empaquetando los bits
+		byte[] encodedBits = encodeMessage(message, codeTable, listener);
 		
 		// Paso 6: Crear y retornar el resultado
-		return new HuffmanResult(frequencies, probabilities, codes, encodedMessage);
+		HuffmanResult result = new HuffmanResult(frequencies, probabilities, codeTable,
+			encodedBits, bitLength(codeTable, histogram));
+		if (maxLength > 0) {
+			result.setUnlimitedAverageLength(unlimitedTable == null ? result.getAverageLength()
+				: (double) bitLength(unlimitedTable, histogram) / message.length());
+		}
+		report(listener, 100);
+		return result;
+	}
+	
+	/**
+	 * Informa el avance y corta la codificación si el listener lo pide
+	 */
+	static void report(ProgressListener listener, int percent) {
+		if (!listener.update(percent)) {
+			throw new CancellationException("Codificación cancelada");
+		}
 	}
 	
 	/**
-	 * Codifica un mensaje reemplazando cada símbolo por su código binario
+	 * Calcula cuántos bits ocupa el mensaje con una tabla de códigos, a partir de su histograma
+	 */
+	private static long bitLength(HuffmanCodeTable codeTable, SymbolHistogram histogram) {
+		long bits = 0;
+		for (int i = 0; i < codeTable.getSymbolCount(); i++) {
+			bits += (long) histogram.getCount(codeTable.getSymbol(i)) * codeTable.getLength(i);
+		}
+		return bits;
+	}
+	
+	/**
+	 * Codifica un mensaje escribiendo el código de cada símbolo en un BitWriter.
+	 * Los mensajes grandes se codifican en paralelo con el mismo resultado;
+	 * en ese caso el avance se informa solo al terminar.
 	 * @param message el mensaje original
-	 * @param codes el mapa de códigos
-	 * @return el mensaje codificado en binario
+	 * @param codeTable la tabla de códigos canónicos
+	 * @param listener recibe el avance entre 25 y 95 por ciento
+	 * @return el mensaje codificado, empaquetado en bytes
 	 */
-	private static String encodeMessage(String message, Map<Character, String> codes) {
-		StringBuilder encoded = new StringBuilder();
-		
-		for (char c : message.toCharArray()) {
-			encoded.append(codes.get(c));
+	private static byte[] encodeMessage(String message, HuffmanCodeTable codeTable, ProgressListener listener) {
+		if (message.length() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+			return ParallelHuffmanEncoder.encode(message, codeTable, percent -> listener.update(25 + 70 * percent / 100));
 		}
 		
-		return encoded.toString();
+		// Estimar el tamaño con el largo medio para evitar copias al crecer
+		BitWriter writer = new BitWriter(message.length() / 2 + 16);
+		int length = message.length();
+		for (int from = 0; from < length; from += PROGRESS_CHUNK) {
+			int to = Math.min(length, from + PROGRESS_CHUNK);
+			codeTable.encode(message, from, to, writer);
+			report(listener, 25 + (int) (70L * to / length));
+		}
+		return writer.toByteArray();
 	}
 }
@@ -0,0 +1,510 @@
+package modelo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Comprime y descomprime archivos .huff con Huffman
+ *
+ * Un archivo cualquiera se comprime tomando cada byte como símbolo, en dos
+ * pasadas sobre el archivo mapeado en memoria por regiones: la primera
+ * cuenta los bytes y la segunda escribe los códigos. El archivo nunca se
+ * carga completo, así que sirve para archivos grandes. Un mensaje ya
+ * codificado se guarda con símbolos de 16 bits y se vuelve a leer con load.
+ *
+ * Formato (versión 2): int mágico, byte versión, byte bits por símbolo (8 o
+ * 16), long cantidad de símbolos, int CRC-32 del original, int cantidad de
+ * símbolos distintos, (símbolo, byte longitud) por símbolo en orden
+ * canónico, long cantidad de bits y los bits empaquetados. El CRC se
+ * calcula sobre los bytes del archivo, o sobre los caracteres en UTF-16BE.
+ * La versión 1 no tenía bits por símbolo ni CRC, y la cantidad de símbolos
+ * distintos era un short; se sigue pudiendo leer.
+ */
+public class HuffmanFileCodec {
+
+	/** "HUFF" */
+	public static final int MAGIC_NUMBER = 0x48554646;
+	public static final int VERSION = 2;
+	public static final String EXTENSION = ".huff";
+
+	private static final long MAPPED_REGION = 64L * 1024 * 1024;
+	private static final int BLOCK_SIZE = 64 * 1024;
+
+	/**
+	 * Recibe bloques consecutivos de un archivo
+	 */
+	private interface BlockHandler {
+		void accept(byte[] block, int length) throws IOException;
+	}
+
+	/**
+	 * Recibe bloques consecutivos de símbolos decodificados
+	 */
+	private interface SymbolHandler {
+		void accept(char[] block, int length) throws IOException;
+	}
+
+	/**
+	 * Encabezado leído de un archivo .huff
+	 */
+	private static class Header {
+		int version;
+		int symbolBits;
+		long size;
+		int checksum;
+		HuffmanCodeTable codeTable;
+		long bitLength;
+	}
+
+	/**
+	 * Resumen de la compresión de un archivo
+	 */
+	public static class FileResult {
+		private final long[] frequencies;
+		private final HuffmanCodeTable codeTable;
+		private final long originalSize;
+		private final long compressedSize;
+		private final long bitLength;
+
+		FileResult(long[] frequencies, HuffmanCodeTable codeTable, long originalSize, long compressedSize, long bitLength) {
+			this.frequencies = frequencies;
+			this.codeTable = codeTable;
+			this.originalSize = originalSize;
+			this.compressedSize = compressedSize;
+			this.bitLength = bitLength;
+		}
+
+		/**
+		 * @param symbol el byte (0 a 255)
+		 * @return cuántas veces aparece en el archivo
+		 */
+		public long getFrequency(int symbol) {
+			return frequencies[symbol];
+		}
+
+		/**
+		 * @return la tabla de códigos, o null si el archivo estaba vacío
+		 */
+		public HuffmanCodeTable getCodeTable() {
+			return codeTable;
+		}
+
+		public long getOriginalSize() {
+			return originalSize;
+		}
+
+		public long getCompressedSize() {
+			return compressedSize;
+		}
+
+		public long getBitLength() {
+			return bitLength;
+		}
+
+		/**
+		 * @return la entropía en bits por byte
+		 */
+		public double getEntropy() {
+			double entropy = 0.0;
+			for (long frequency : frequencies) {
+				if (frequency > 0) {
+					double p = (double) frequency / originalSize;
+					entropy -= p * (Math.log(p) / Math.log(2));
+				}
+			}
+			return entropy;
+		}
+
+		/**
+		 * @return el largo medio en bits por byte
+		 */
+		public double getAverageLength() {
+			return originalSize == 0 ? 0.0 : (double) bitLength / originalSize;
+		}
+
+		/**
+		 * @return la eficiencia en porcentaje
+		 */
+		public double getEfficiency() {
+			double averageLength = getAverageLength();
+			return averageLength > 0 ? getEntropy() / averageLength * 100 : 0.0;
+		}
+
+		/**
+		 * @return un resumen legible de la compresión
+		 */
+		public String getSummary() {
+			double ratio = originalSize == 0 ? 0.0 : (1.0 - (double) compressedSize / originalSize) * 100;
+			return String.format("Original: %,d bytes%nComprimido: %,d bytes%nCompresión: %.2f%%%n"
+				+ "Símbolos distintos: %d",
+				originalSize, compressedSize, ratio, codeTable == null ? 0 : codeTable.getSymbolCount());
+		}
+	}
+
+	/**
+	 * Comprime un archivo
+	 * @param input el archivo original
+	 * @param output el archivo comprimido a crear
+	 * @return el resumen de la compresión
+	 * @throws IOException si hay un error de lectura o escritura
+	 */
+	public static FileResult compress(File input, File output) throws IOException {
+		return compress(input, output, percent -> true);
+	}
+
+	/**
+	 * Comprime un archivo informando el avance: la primera pasada cubre hasta
+	 * el 50% y la escritura de los códigos el resto
+	 * @param input el archivo original
+	 * @param output el archivo comprimido a crear
+	 * @param listener recibe el avance de 0 a 100; si devuelve false se cancela
+	 * @return el resumen de la compresión
+	 * @throws IOException si hay un error de lectura o escritura
+	 * @throws java.util.concurrent.CancellationException si el listener pidió cancelar;
+	 *         el archivo de salida queda incompleto
+	 */
+	public static FileResult compress(File input, File output, HuffmanEncoder.ProgressListener listener)
+			throws IOException {
+		try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+
+			// Primera pasada: histograma de bytes y CRC
+			long[] frequencies = new long[256];
+			CRC32 crc = new CRC32();
+			readBlocks(channel, listener, 0, 50, (block, length) -> {
+				for (int i = 0; i < length; i++) {
+					frequencies[block[i] & 0xFF]++;
+				}
+				crc.update(block, 0, length);
+			});
+
+			HuffmanCodeTable codeTable = size == 0 ? null : buildCodeTable(frequencies);
+
+			// La cantidad de bits se conoce antes de codificar
+			long bitLength = 0;
+			int symbolCount = codeTable == null ? 0 : codeTable.getSymbolCount();
+			for (int i = 0; i < symbolCount; i++) {
+				bitLength += frequencies[codeTable.getSymbol(i)] * codeTable.getLength(i);
+			}
+
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(output), BLOCK_SIZE))) {
+				writeHeader(out, 8, size, (int) crc.getValue(), codeTable, bitLength);
+
+				// Segunda pasada: escribir los códigos
+				if (codeTable != null) {
+					encode(channel, codeTable, out, listener);
+				}
+			}
+			return new FileResult(frequencies, codeTable, size, output.length(), bitLength);
+		}
+	}
+
+	/**
+	 * Guarda un mensaje ya codificado como .huff, con símbolos de 16 bits.
+	 * Se escriben solo las longitudes de los códigos y los bits que ya tiene
+	 * el resultado, sin volver a codificar.
+	 * @param result el resultado de codificar el mensaje
+	 * @param message el mensaje original, para el CRC
+	 * @param output el archivo a crear
+	 * @throws IOException si hay un error al escribir
+	 * @throws IllegalArgumentException si el resultado no tiene tabla canónica
+	 */
+	public static void save(HuffmanResult result, String message, File output) throws IOException {
+		HuffmanCodeTable codeTable = result.getCodeTable();
+		if (codeTable == null) {
+			throw new IllegalArgumentException("El resultado no tiene códigos canónicos");
+		}
+		CRC32 crc = new CRC32();
+		char[] block = new char[BLOCK_SIZE];
+		byte[] bytes = new byte[BLOCK_SIZE * 2];
+		for (int from = 0; from < message.length(); from += BLOCK_SIZE) {
+			int length = Math.min(BLOCK_SIZE, message.length() - from);
+			message.getChars(from, from + length, block, 0);
+			updateChecksum(crc, 16, block, length, bytes);
+		}
+
+		long bitLength = result.getEncodedBitLength();
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(output), BLOCK_SIZE))) {
+			writeHeader(out, 16, message.length(), (int) crc.getValue(), codeTable, bitLength);
+			out.write(result.getEncodedBits(), 0, (int) ((bitLength + 7) / 8));
+		}
+	}
+
+	/**
+	 * Lee el mensaje de un archivo .huff
+	 * @param input el archivo
+	 * @return el mensaje; los símbolos de 8 bits se leen como caracteres de 0 a 255
+	 * @throws IOException si el archivo no es válido, no cabe en memoria o hay un error de lectura
+	 */
+	public static String load(File input) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(input), BLOCK_SIZE))) {
+			Header header = readHeader(in);
+			if (header.size > Integer.MAX_VALUE - 8) {
+				throw new IOException("El mensaje es demasiado grande para cargarlo en memoria");
+			}
+			StringBuilder message = new StringBuilder((int) header.size);
+			decode(header, in, percent -> true, (block, length) -> message.append(block, 0, length));
+			return message.toString();
+		}
+	}
+
+	/**
+	 * Descomprime un archivo .huff. Los archivos comprimidos byte a byte se
+	 * recrean tal cual; los mensajes de 16 bits se escriben como texto UTF-8.
+	 * @param input el archivo comprimido
+	 * @param output el archivo original a recrear
+	 * @throws IOException si el archivo no es válido o hay un error de lectura o escritura
+	 */
+	public static void decompress(File input, File output) throws IOException {
+		decompress(input, output, percent -> true);
+	}
+
+	/**
+	 * Descomprime un archivo .huff informando el avance por símbolos decodificados
+	 * @param input el archivo comprimido
+	 * @param output el archivo original a recrear
+	 * @param listener recibe el avance de 0 a 100; si devuelve false se cancela
+	 * @throws IOException si el archivo no es válido o hay un error de lectura o escritura
+	 * @throws java.util.concurrent.CancellationException si el listener pidió cancelar;
+	 *         el archivo de salida queda incompleto
+	 */
+	public static void decompress(File input, File output, HuffmanEncoder.ProgressListener listener)
+			throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(input), BLOCK_SIZE));
+		     OutputStream out = new BufferedOutputStream(new FileOutputStream(output), BLOCK_SIZE)) {
+			Header header = readHeader(in);
+			if (header.symbolBits == 16) {
+				Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+				decode(header, in, listener, (block, length) -> writer.write(block, 0, length));
+				writer.flush();
+				return;
+			}
+			byte[] bytes = new byte[BLOCK_SIZE];
+			decode(header, in, listener, (block, length) -> {
+				for (int i = 0; i < length; i++) {
+					bytes[i] = (byte) block[i];
+				}
+				out.write(bytes, 0, length);
+			});
+		}
+	}
+
+	/**
+	 * Escribe el encabezado de la versión actual
+	 */
+	private static void writeHeader(DataOutputStream out, int symbolBits, long size, int checksum,
+	                                HuffmanCodeTable codeTable, long bitLength) throws IOException {
+		out.writeInt(MAGIC_NUMBER);
+		out.writeByte(VERSION);
+		out.writeByte(symbolBits);
+		out.writeLong(size);
+		out.writeInt(checksum);
+		int symbolCount = codeTable == null ? 0 : codeTable.getSymbolCount();
+		out.writeInt(symbolCount);
+		for (int i = 0; i < symbolCount; i++) {
+			if (symbolBits == 8) {
+				out.writeByte(codeTable.getSymbol(i));
+			} else {
+				out.writeChar(codeTable.getSymbol(i));
+			}
+			out.writeByte(codeTable.getLength(i));
+		}
+		out.writeLong(bitLength);
+	}
+
+	/**
+	 * Lee y valida el encabezado, de la versión 1 o 2
+	 */
+	private static Header readHeader(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC_NUMBER) {
+			throw new IOException("Formato de archivo inválido: no es un archivo Huffman");
+		}
+		Header header = new Header();
+		header.version = in.readUnsignedByte();
+		if (header.version != 1 && header.version != VERSION) {
+			throw new IOException("Versión de archivo no soportada: " + header.version);
+		}
+		header.symbolBits = header.version == 1 ? 8 : in.readUnsignedByte();
+		if (header.symbolBits != 8 && header.symbolBits != 16) {
+			throw new IOException("Archivo corrupto: tamaño de símbolo inválido");
+		}
+		header.size = in.readLong();
+		if (header.version > 1) {
+			header.checksum = in.readInt();
+		}
+		int symbolCount = header.version == 1 ? in.readUnsignedShort() : in.readInt();
+		if (header.size < 0 || symbolCount < 0 || symbolCount > 1 << header.symbolBits
+				|| (symbolCount == 0) != (header.size == 0)) {
+			throw new IOException("Archivo corrupto: cantidad de símbolos inválida");
+		}
+		char[] symbols = new char[symbolCount];
+		int[] lengths = new int[symbolCount];
+		for (int i = 0; i < symbolCount; i++) {
+			symbols[i] = header.symbolBits == 8 ? (char) in.readUnsignedByte() : in.readChar();
+			lengths[i] = in.readUnsignedByte();
+		}
+		header.bitLength = in.readLong();
+		if (symbolCount > 0) {
+			try {
+				header.codeTable = HuffmanCodeTable.fromLengths(symbols, lengths);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Archivo corrupto: " + e.getMessage(), e);
+			}
+		}
+		return header;
+	}
+
+	/**
+	 * Decodifica los bits que siguen al encabezado, entregándolos por bloques,
+	 * y verifica la cantidad de bits y el CRC
+	 */
+	private static void decode(Header header, DataInputStream in, HuffmanEncoder.ProgressListener listener,
+			SymbolHandler handler) throws IOException {
+		if (header.size == 0) {
+			return;
+		}
+		HuffmanDecoder decoder = new HuffmanDecoder(header.codeTable);
+		BitReader reader = new BitReader(in);
+		CRC32 crc = new CRC32();
+		char[] decoded = new char[BLOCK_SIZE];
+		byte[] bytes = new byte[BLOCK_SIZE * 2];
+		long remaining = header.size;
+		try {
+			while (remaining > 0) {
+				int count = (int) Math.min(BLOCK_SIZE, remaining);
+				decoder.decode(reader, decoded, 0, count);
+				updateChecksum(crc, header.symbolBits, decoded, count, bytes);
+				handler.accept(decoded, count);
+				remaining -= count;
+				HuffmanEncoder.report(listener, (int) (100 * (header.size - remaining) / header.size));
+			}
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage(), e);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		if (reader.getBitsRead() != header.bitLength) {
+			throw new EOFException("Archivo corrupto o truncado: la cantidad de bits no coincide");
+		}
+		if (header.version > 1 && (int) crc.getValue() != header.checksum) {
+			throw new IOException("Archivo corrupto: el CRC no coincide");
+		}
+	}
+
+	/**
+	 * Suma un bloque de símbolos al CRC: un byte por símbolo de 8 bits, dos
+	 * (el más significativo primero) por símbolo de 16 bits
+	 * @param bytes espacio de trabajo de al menos el doble del bloque
+	 */
+	private static void updateChecksum(CRC32 crc, int symbolBits, char[] block, int length, byte[] bytes) {
+		if (symbolBits == 8) {
+			for (int i = 0; i < length; i++) {
+				bytes[i] = (byte) block[i];
+			}
+			crc.update(bytes, 0, length);
+		} else {
+			for (int i = 0; i < length; i++) {
+				bytes[2 * i] = (byte) (block[i] >>> 8);
+				bytes[2 * i + 1] = (byte) block[i];
+			}
+			crc.update(bytes, 0, 2 * length);
+		}
+	}
+
+	/**
+	 * Construye la tabla canónica a partir del histograma de bytes
+	 */
+	private static HuffmanCodeTable buildCodeTable(long[] frequencies) {
+		// Se usa buildTree para conservar su desempate y con él los mismos códigos.
+		// El árbol usa frecuencias int: reducir la escala en archivos de más de 2 GB
+		int shift = 0;
+		while (scaledTotal(frequencies, shift) > Integer.MAX_VALUE) {
+			shift++;
+		}
+		Map<Character, Integer> scaled = new HashMap<>();
+		for (int symbol = 0; symbol < 256; symbol++) {
+			if (frequencies[symbol] > 0) {
+				scaled.put((char) symbol, (int) Math.max(1, frequencies[symbol] >>> shift));
+			}
+		}
+		return HuffmanTreeBuilder.buildCodeTable(HuffmanTreeBuilder.buildTree(scaled));
+	}
+
+	private static long scaledTotal(long[] frequencies, int shift) {
+		long total = 0;
+		for (long frequency : frequencies) {
+			if (frequency > 0) {
+				total += Math.max(1, frequency >>> shift);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Escribe los códigos de todos los bytes del archivo
+	 */
+	private static void encode(FileChannel channel, HuffmanCodeTable codeTable, OutputStream out,
+			HuffmanEncoder.ProgressListener listener) throws IOException {
+		long[] codes = new long[256];
+		int[] lengths = new int[256];
+		for (int i = 0; i < codeTable.getSymbolCount(); i++) {
+			codes[codeTable.getSymbol(i)] = codeTable.getCode(i);
+			lengths[codeTable.getSymbol(i)] = codeTable.getLength(i);
+		}
+
+		BitWriter writer = new BitWriter(out);
+		try {
+			readBlocks(channel, listener, 50, 100, (block, length) -> {
+				for (int i = 0; i < length; i++) {
+					int symbol = block[i] & 0xFF;
+					writer.write(codes[symbol], lengths[symbol]);
+				}
+			});
+			writer.finish();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Recorre el archivo por regiones mapeadas, entregando bloques de bytes e
+	 * informando el avance entre from y to
+	 */
+	private static void readBlocks(FileChannel channel, HuffmanEncoder.ProgressListener listener,
+			int from, int to, BlockHandler handler) throws IOException {
+		byte[] block = new byte[BLOCK_SIZE];
+		long size = channel.size();
+		long read = 0;
+		for (long position = 0; position < size; position += MAPPED_REGION) {
+			MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+				Math.min(MAPPED_REGION, size - position));
+			while (region.hasRemaining()) {
+				int length = Math.min(BLOCK_SIZE, region.remaining());
+				region.get(block, 0, length);
+				handler.accept(block, length);
+				read += length;
+				HuffmanEncoder.report(listener, from + (int) ((to - from) * read / size));
+			}
+		}
+	}
+}
@@ -10,6 +10,7 @@ public class HuffmanNode implements Comparable<HuffmanNode> {
 	private HuffmanNode left;
 	private HuffmanNode right;
 	private boolean isLeaf;
+	private int height;
 	
 	/**
 	 * Constructor para un nodo hoja (contiene un símbolo)
@@ -27,14 +28,15 @@ public class HuffmanNode implements Comparable<HuffmanNode> {
 	/**
 	 * Constructor para un nodo interno (no contiene símbolo)
 	 * @param left el hijo izquierdo
-	 * @param right el hijo derecho
+	 * @param right el hijo derecho (null en la raíz de un árbol con un solo símbolo)
 	 */
 	public HuffmanNode(HuffmanNode left, HuffmanNode right) {
 		this.symbol = '\0';
-		this.frequency = left.frequency + right.frequency;
+		this.frequency = left.frequency + (right != null ? right.frequency : 0);
 		this.left = left;
 		this.right = right;
 		this.isLeaf = false;
+		this.height = 1 + Math.max(left.height, right != null ? right.height : 0);
 	}
 	
 	/**
@@ -65,6 +67,13 @@ public class HuffmanNode implements Comparable<HuffmanNode> {
 		return right;
 	}
 	
+	/**
+	 * @return la altura del subárbol (0 para una hoja), calculada al crear el nodo
+	 */
+	public int getHeight() {
+		return height;
+	}
+	
 	/**
 	 * @return true si el nodo es una hoja
 	 */
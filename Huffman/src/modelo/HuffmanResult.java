@@ -2,6 +2,7 @@ package modelo;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -14,10 +15,15 @@ public class HuffmanResult {
 	private List<Integer> frequencies;
 	private List<Double> probabilities;
 	private List<String> codes;
-	private String encodedMessage;
+	private HuffmanCodeTable codeTable;
+	private byte[] encodedBits;
+	private long encodedBitLength;
 	private double entropy;
 	private double averageLength;
 	private double efficiency;
+	private double unlimitedAverageLength = Double.NaN;
+	private double conditionalEntropy = Double.NaN;
+	private double contextAverageLength = Double.NaN;
 	
 	/**
 	 * Clase auxiliar para ordenar los símbolos
@@ -36,6 +42,20 @@ public class HuffmanResult {
 		}
 	}
 	
+	/**
+	 * Constructor a partir de los códigos canónicos y el mensaje empaquetado
+	 * @param frequencies mapa de frecuencias
+	 * @param probabilities mapa de probabilidades
+	 * @param codeTable tabla de códigos canónicos
+	 * @param encodedBits mensaje codificado, empaquetado en bytes
+	 * @param encodedBitLength cantidad exacta de bits del mensaje codificado
+	 */
+	public HuffmanResult(Map<Character, Integer> frequencies, Map<Character, Double> probabilities,
+	                     HuffmanCodeTable codeTable, byte[] encodedBits, long encodedBitLength) {
+		this(frequencies, probabilities, codeStrings(codeTable), encodedBits, encodedBitLength);
+		this.codeTable = codeTable;
+	}
+	
 	/**
 	 * Constructor
 	 * @param frequencies mapa de frecuencias
@@ -45,6 +65,11 @@ public class HuffmanResult {
 	 */
 	public HuffmanResult(Map<Character, Integer> frequencies, Map<Character, Double> probabilities, 
 	                     Map<Character, String> codes, String encodedMessage) {
+		this(frequencies, probabilities, codes, packBits(encodedMessage), encodedMessage.length());
+	}
+	
+	private HuffmanResult(Map<Character, Integer> frequencies, Map<Character, Double> probabilities,
+	                      Map<Character, String> codes, byte[] encodedBits, long encodedBitLength) {
 		this.symbols = new ArrayList<>();
 		this.frequencies = new ArrayList<>();
 		this.probabilities = new ArrayList<>();
@@ -73,12 +98,36 @@ public class HuffmanResult {
 			this.codes.add(data.code);
 		}
 		
-		this.encodedMessage = encodedMessage;
+		this.encodedBits = encodedBits;
+		this.encodedBitLength = encodedBitLength;
 		
 		// Calcular métricas
 		calculateMetrics();
 	}
 	
+	/**
+	 * Convierte la tabla canónica en un mapa de códigos en texto
+	 */
+	private static Map<Character, String> codeStrings(HuffmanCodeTable codeTable) {
+		Map<Character, String> codes = new HashMap<>();
+		for (int i = 0; i < codeTable.getSymbolCount(); i++) {
+			char symbol = codeTable.getSymbol(i);
+			codes.put(symbol, codeTable.getCodeString(symbol));
+		}
+		return codes;
+	}
+	
+	/**
+	 * Empaqueta un texto de '0' y '1' en bytes
+	 */
+	private static byte[] packBits(String bits) {
+		BitWriter writer = new BitWriter(bits.length() / 8 + 1);
+		for (int i = 0; i < bits.length(); i++) {
+			writer.writeBit(bits.charAt(i) == '1' ? 1 : 0);
+		}
+		return writer.toByteArray();
+	}
+	
 	/**
 	 * Calcula la entropía, largo medio y eficiencia
 	 */
@@ -145,10 +194,49 @@ public class HuffmanResult {
 	}
 	
 	/**
+	 * Genera el mensaje codificado como texto de '0' y '1'. Es solo una vista
+	 * de depuración: ocupa un carácter por bit y se arma en cada llamada.
 	 * @return el mensaje codificado
 	 */
 	public String getEncodedMessage() {
-		return encodedMessage;
+		return getEncodedMessage(0, (int) Math.min(encodedBitLength, Integer.MAX_VALUE));
+	}
+	
+	/**
+	 * Genera un tramo del mensaje codificado como texto de '0' y '1'
+	 * @param fromBit primer bit del tramo
+	 * @param bitCount cantidad de bits; se recorta al final del mensaje
+	 * @return el tramo codificado
+	 */
+	public String getEncodedMessage(long fromBit, int bitCount) {
+		long to = Math.min(encodedBitLength, fromBit + bitCount);
+		StringBuilder text = new StringBuilder((int) Math.max(0, to - fromBit));
+		for (long i = fromBit; i < to; i++) {
+			int bit = encodedBits[(int) (i >>> 3)] >>> (7 - (int) (i & 7)) & 1;
+			text.append(bit == 0 ? '0' : '1');
+		}
+		return text.toString();
+	}
+	
+	/**
+	 * @return el mensaje codificado empaquetado (el último byte se completa con ceros)
+	 */
+	public byte[] getEncodedBits() {
+		return encodedBits;
+	}
+	
+	/**
+	 * @return la cantidad exacta de bits del mensaje codificado
+	 */
+	public long getEncodedBitLength() {
+		return encodedBitLength;
+	}
+	
+	/**
+	 * @return la tabla de códigos canónicos, o null si el resultado se creó con códigos en texto
+	 */
+	public HuffmanCodeTable getCodeTable() {
+		return codeTable;
 	}
 	
 	/**
@@ -171,4 +259,73 @@ public class HuffmanResult {
 	public double getEfficiency() {
 		return efficiency;
 	}
+	
+	/**
+	 * Registra el largo medio del código sin límite de longitud, para comparar
+	 * @param averageLength el largo medio del código de Huffman sin límite
+	 */
+	void setUnlimitedAverageLength(double averageLength) {
+		this.unlimitedAverageLength = averageLength;
+	}
+	
+	/**
+	 * @return true si el código se construyó con una longitud máxima
+	 */
+	public boolean isLengthLimited() {
+		return !Double.isNaN(unlimitedAverageLength);
+	}
+	
+	/**
+	 * @return el largo medio del código sin límite, o el propio si no hay límite
+	 */
+	public double getUnlimitedAverageLength() {
+		return isLengthLimited() ? unlimitedAverageLength : averageLength;
+	}
+	
+	/**
+	 * Registra las métricas del Huffman de orden 1 sobre el mismo mensaje
+	 * @param context el resultado de ContextHuffmanCodec.encode
+	 */
+	public void setContextResult(ContextHuffmanCodec.ContextResult context) {
+		this.conditionalEntropy = context.getConditionalEntropy();
+		this.contextAverageLength = context.getAverageLength();
+	}
+	
+	/**
+	 * @return true si se registraron las métricas por contexto
+	 */
+	public boolean hasContextMetrics() {
+		return !Double.isNaN(conditionalEntropy);
+	}
+	
+	/**
+	 * @return la entropía condicional H(S | símbolo anterior), o NaN si no se registró
+	 */
+	public double getConditionalEntropy() {
+		return conditionalEntropy;
+	}
+	
+	/**
+	 * @return el largo medio con tablas por contexto, sin contar las tablas, o NaN si no se registró
+	 */
+	public double getContextAverageLength() {
+		return contextAverageLength;
+	}
+	
+	/**
+	 * @return la eficiencia por contexto frente a la entropía condicional, en porcentaje
+	 */
+	public double getContextEfficiency() {
+		return contextAverageLength > 0 ? conditionalEntropy / contextAverageLength * 100 : 0.0;
+	}
+	
+	/**
+	 * @return los puntos de eficiencia perdidos frente al código sin límite
+	 */
+	public double getEfficiencyLoss() {
+		if (!isLengthLimited() || averageLength == 0) {
+			return 0.0;
+		}
+		return (entropy / unlimitedAverageLength - entropy / averageLength) * 100;
+	}
 }
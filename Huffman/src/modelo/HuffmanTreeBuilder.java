@@ -1,5 +1,6 @@
 package modelo;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
@@ -89,12 +90,244 @@ public class HuffmanTreeBuilder {
 	 * @return la altura del subárbol
 	 */
 	private static int getHeight(HuffmanNode node) {
-		if (node == null || node.isLeaf()) {
-			return 0;
+		return node == null ? 0 : node.getHeight();
+	}
+	
+	/**
+	 * Construye los códigos canónicos sin crear nodos, con el método de las dos colas
+	 *
+	 * Las hojas se ordenan una vez por frecuencia; los nodos internos se crean
+	 * con frecuencias no decrecientes, así que basta una segunda cola ordenada
+	 * para tomar siempre los dos de menor frecuencia en tiempo lineal. El árbol
+	 * queda en arreglos planos (padre y altura por nodo) y se desempata con
+	 * los mismos criterios que buildTree: primero la frecuencia, luego las
+	 * hojas antes que los nodos internos y luego la menor altura.
+	 *
+	 * Entre nodos que empatan en los tres criterios buildTree depende del
+	 * orden interno de su PriorityQueue, y acá se toman por símbolo y orden de
+	 * creación. Con frecuencias repetidas las longitudes de cada símbolo
+	 * pueden diferir de buildTree, aunque el largo total codificado es el
+	 * mismo. Donde los códigos deben coincidir con los de siempre se usa
+	 * buildTree.
+	 * @param symbols los símbolos (sin repetir)
+	 * @param frequencies la frecuencia de cada símbolo, mayor a cero
+	 * @return la tabla de códigos canónicos
+	 */
+	public static HuffmanCodeTable buildCodeTable(char[] symbols, long[] frequencies) {
+		int n = symbols.length;
+		if (n == 0 || frequencies.length != n) {
+			throw new IllegalArgumentException("Se necesita al menos un símbolo con su frecuencia");
+		}
+		if (n == 1) {
+			return HuffmanCodeTable.fromLengths(symbols.clone(), new int[] { 1 });
+		}
+
+		// Ordenar las hojas por (frecuencia, símbolo) empaquetadas en un long
+		long[] order = new long[n];
+		for (int i = 0; i < n; i++) {
+			if (frequencies[i] <= 0 || frequencies[i] >= 1L << 47) {
+				throw new IllegalArgumentException("Frecuencia fuera de rango: " + frequencies[i]);
+			}
+			order[i] = frequencies[i] << 16 | symbols[i];
+		}
+		Arrays.sort(order);
+
+		// Nodos 0..n-1: hojas ordenadas; n..2n-2: nodos internos en orden de creación
+		int nodeCount = 2 * n - 1;
+		long[] weight = new long[nodeCount];
+		int[] height = new int[nodeCount];
+		int[] parent = new int[nodeCount];
+		for (int i = 0; i < n; i++) {
+			weight[i] = order[i] >>> 16;
+		}
+
+		int[] internalQueue = new int[n - 1];
+		int queueHead = 0;
+		int queueTail = 0;
+		int leafHead = 0;
+		for (int node = n; node < nodeCount; node++) {
+			// En empate de frecuencia la hoja va primero
+			int first;
+			if (leafHead < n && (queueHead == queueTail || weight[leafHead] <= weight[internalQueue[queueHead]])) {
+				first = leafHead++;
+			} else {
+				first = internalQueue[queueHead++];
+			}
+			int second;
+			if (leafHead < n && (queueHead == queueTail || weight[leafHead] <= weight[internalQueue[queueHead]])) {
+				second = leafHead++;
+			} else {
+				second = internalQueue[queueHead++];
+			}
+			weight[node] = weight[first] + weight[second];
+			height[node] = 1 + Math.max(height[first], height[second]);
+			parent[first] = node;
+			parent[second] = node;
+
+			// Insertar en la cola manteniendo el orden por (frecuencia, altura)
+			int position = queueTail++;
+			while (position > queueHead && weight[internalQueue[position - 1]] == weight[node]
+					&& height[internalQueue[position - 1]] > height[node]) {
+				internalQueue[position] = internalQueue[position - 1];
+				position--;
+			}
+			internalQueue[position] = node;
+		}
+
+		// La raíz es el último nodo creado y cada padre tiene un índice mayor que sus hijos
+		int[] depth = new int[nodeCount];
+		for (int node = nodeCount - 2; node >= 0; node--) {
+			depth[node] = depth[parent[node]] + 1;
+		}
+
+		char[] sortedSymbols = new char[n];
+		int[] lengths = new int[n];
+		for (int i = 0; i < n; i++) {
+			sortedSymbols[i] = (char) order[i];
+			lengths[i] = depth[i];
 		}
-		return 1 + Math.max(getHeight(node.getLeft()), getHeight(node.getRight()));
+		return HuffmanCodeTable.fromLengths(sortedSymbols, lengths);
 	}
 	
+	/**
+	 * Construye códigos canónicos óptimos con una longitud máxima (package-merge)
+	 *
+	 * Se parte de la lista de hojas ordenadas por frecuencia en el nivel más
+	 * profundo; en cada nivel superior se agrupan de a pares los elementos del
+	 * nivel anterior ("paquetes") y se mezclan con las hojas. De la lista final
+	 * se toman los 2n-2 elementos más livianos: la longitud de cada símbolo es
+	 * la cantidad de niveles en los que quedó elegido.
+	 * @param symbols los símbolos (sin repetir)
+	 * @param frequencies la frecuencia de cada símbolo, mayor a cero
+	 * @param maxLength la longitud máxima de código
+	 * @return la tabla de códigos canónicos
+	 * @throws IllegalArgumentException si los símbolos no caben en esa longitud
+	 */
+	public static HuffmanCodeTable buildLimitedCodeTable(char[] symbols, long[] frequencies, int maxLength) {
+		int n = symbols.length;
+		if (n == 0 || frequencies.length != n) {
+			throw new IllegalArgumentException("Se necesita al menos un símbolo con su frecuencia");
+		}
+		if (maxLength < 1 || maxLength > HuffmanCodeTable.MAX_CODE_LENGTH
+				|| (maxLength < 31 && n > 1 << maxLength)) {
+			throw new IllegalArgumentException("No caben " + n + " símbolos en códigos de hasta " + maxLength + " bits");
+		}
+		if (n == 1) {
+			return HuffmanCodeTable.fromLengths(symbols.clone(), new int[] { 1 });
+		}
+
+		long[] order = new long[n];
+		for (int i = 0; i < n; i++) {
+			if (frequencies[i] <= 0 || frequencies[i] >= 1L << 47) {
+				throw new IllegalArgumentException("Frecuencia fuera de rango: " + frequencies[i]);
+			}
+			order[i] = frequencies[i] << 16 | symbols[i];
+		}
+		Arrays.sort(order);
+		long[] leafWeight = new long[n];
+		for (int i = 0; i < n; i++) {
+			leafWeight[i] = order[i] >>> 16;
+		}
+
+		// Más de n-1 niveles no cambia el resultado: es el árbol sin límite
+		int levels = Math.min(maxLength, n - 1);
+
+		// isPackage[l][k]: si el elemento k del nivel l es un paquete o una hoja
+		boolean[][] isPackage = new boolean[levels][];
+		long[] previous = leafWeight;
+		isPackage[levels - 1] = new boolean[n];
+		for (int level = levels - 2; level >= 0; level--) {
+			int packages = previous.length / 2;
+			long[] current = new long[n + packages];
+			boolean[] flags = new boolean[n + packages];
+			int leaf = 0;
+			int pack = 0;
+			for (int k = 0; k < current.length; k++) {
+				long packageWeight = pack < packages ? previous[2 * pack] + previous[2 * pack + 1] : Long.MAX_VALUE;
+				// En empate la hoja va primero
+				if (leaf < n && leafWeight[leaf] <= packageWeight) {
+					current[k] = leafWeight[leaf++];
+				} else {
+					current[k] = packageWeight;
+					flags[k] = true;
+					pack++;
+				}
+			}
+			isPackage[level] = flags;
+			previous = current;
+		}
+
+		// Recorrer los niveles desde arriba contando cuántas veces se elige cada hoja
+		int[] lengths = new int[n];
+		int selected = 2 * n - 2;
+		for (int level = 0; level < levels && selected > 0; level++) {
+			int leavesTaken = 0;
+			for (int k = 0; k < selected; k++) {
+				if (!isPackage[level][k]) {
+					leavesTaken++;
+				}
+			}
+			for (int i = 0; i < leavesTaken; i++) {
+				lengths[i]++;
+			}
+			selected = 2 * (selected - leavesTaken);
+		}
+
+		char[] sortedSymbols = new char[n];
+		for (int i = 0; i < n; i++) {
+			sortedSymbols[i] = (char) order[i];
+		}
+		return HuffmanCodeTable.fromLengths(sortedSymbols, lengths);
+	}
+	
+	/**
+	 * Genera los códigos canónicos a partir de las profundidades de las hojas
+	 * @param root la raíz del árbol de Huffman
+	 * @return la tabla de códigos canónicos
+	 */
+	public static HuffmanCodeTable buildCodeTable(HuffmanNode root) {
+		// Caso especial: árbol con un solo símbolo
+		if (root.getLeft() != null && root.getRight() == null) {
+			return HuffmanCodeTable.fromLengths(new char[] { root.getLeft().getSymbol() }, new int[] { 1 });
+		}
+		if (root.isLeaf()) {
+			return HuffmanCodeTable.fromLengths(new char[] { root.getSymbol() }, new int[] { 1 });
+		}
+
+		// Recorrido iterativo: la profundidad de cada hoja es la longitud de su código
+		HuffmanNode[] stack = new HuffmanNode[64];
+		int[] stackDepths = new int[64];
+		char[] symbolArray = new char[16];
+		int[] lengthArray = new int[16];
+		int top = 0;
+		int leaves = 0;
+		stack[top] = root;
+		stackDepths[top++] = 0;
+		while (top > 0) {
+			HuffmanNode node = stack[--top];
+			int depth = stackDepths[top];
+			if (node.isLeaf()) {
+				if (leaves == symbolArray.length) {
+					symbolArray = Arrays.copyOf(symbolArray, leaves * 2);
+					lengthArray = Arrays.copyOf(lengthArray, leaves * 2);
+				}
+				symbolArray[leaves] = node.getSymbol();
+				lengthArray[leaves++] = depth;
+			} else {
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+					stackDepths = Arrays.copyOf(stackDepths, stackDepths.length * 2);
+				}
+				stack[top] = node.getLeft();
+				stackDepths[top++] = depth + 1;
+				stack[top] = node.getRight();
+				stackDepths[top++] = depth + 1;
+			}
+		}
+
+		return HuffmanCodeTable.fromLengths(Arrays.copyOf(symbolArray, leaves), Arrays.copyOf(lengthArray, leaves));
+	}
+
 	/**
 	 * Genera los códigos binarios para cada símbolo recorriendo el árbol
 	 * @param root la raíz del árbol de Huffman
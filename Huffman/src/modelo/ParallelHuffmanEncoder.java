@@ -0,0 +1,182 @@
+package modelo;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Codifica un mensaje con una tabla ya construida repartiendo el trabajo
+ * entre hilos
+ *
+ * El mensaje se corta en tramos. Primero se cuenta en paralelo cuántos bits
+ * ocupa cada tramo y una suma de prefijos da el bit exacto donde empieza
+ * cada uno. Después cada tramo se codifica por su cuenta, corrido para
+ * empezar en la posición que le toca dentro de su primer byte, y copia en
+ * el buffer compartido los bytes que son solo suyos. Los bytes de los bordes
+ * los comparte con el tramo vecino: se guardan aparte y se combinan con OR
+ * al final, en un solo hilo. El resultado es idéntico bit a bit al de la
+ * codificación secuencial.
+ */
+public class ParallelHuffmanEncoder {
+
+	/** Cantidad de símbolos por tramo */
+	public static final int CHUNK_SIZE = 1 << 20;
+
+	/**
+	 * Ejecuta una tarea por tramo; divide el rango en dos mientras tenga más de uno
+	 */
+	private static class ChunkTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final IntConsumer work;
+		private final int from;
+		private final int to;
+
+		ChunkTask(IntConsumer work, int from, int to) {
+			this.work = work;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				work.accept(from);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ChunkTask(work, from, middle), new ChunkTask(work, middle, to));
+		}
+	}
+
+	/**
+	 * Codifica el mensaje en paralelo
+	 * @param message el mensaje
+	 * @param codeTable la tabla de códigos
+	 * @return los bits empaquetados; el último byte se completa con ceros
+	 * @throws IllegalArgumentException si el mensaje tiene un símbolo sin código
+	 */
+	public static byte[] encode(String message, HuffmanCodeTable codeTable) {
+		return encode(message, codeTable, percent -> true);
+	}
+
+	/**
+	 * Codifica el mensaje en paralelo informando el avance al terminar cada
+	 * tramo de cada pasada. Si el listener pide cancelar, los tramos que
+	 * faltan no se procesan.
+	 * @param message el mensaje
+	 * @param codeTable la tabla de códigos
+	 * @param listener recibe el avance de 0 a 100, desde varios hilos; si devuelve false se cancela
+	 * @return los bits empaquetados; el último byte se completa con ceros
+	 * @throws IllegalArgumentException si el mensaje tiene un símbolo sin código
+	 * @throws CancellationException si el listener pidió cancelar
+	 */
+	public static byte[] encode(String message, HuffmanCodeTable codeTable, HuffmanEncoder.ProgressListener listener) {
+		int n = message.length();
+		int chunks = Math.max(1, (n + CHUNK_SIZE - 1) / CHUNK_SIZE);
+		Progress progress = new Progress(listener, 2 * chunks);
+
+		// Bits de cada tramo y, con la suma de prefijos, el bit donde empieza
+		long[] offsets = new long[chunks + 1];
+		run(chunks, progress, chunk -> offsets[chunk + 1] = codeTable.getBitLength(message, start(chunk), end(chunk, n)));
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			offsets[chunk + 1] += offsets[chunk];
+		}
+		long bitLength = offsets[chunks];
+		if (bitLength > (long) Integer.MAX_VALUE * 8) {
+			throw new IllegalArgumentException("El mensaje codificado no cabe en un arreglo");
+		}
+
+		byte[] output = new byte[(int) ((bitLength + 7) / 8)];
+		byte[] heads = new byte[chunks];
+		byte[] tails = new byte[chunks];
+		run(chunks, progress, chunk -> {
+			long first = offsets[chunk];
+			long last = offsets[chunk + 1];
+			int shift = (int) (first & 7);
+			BitWriter writer = new BitWriter((int) ((last - first) / 8) + 16);
+			writer.write(0, shift);
+			codeTable.encode(message, start(chunk), end(chunk, n), writer);
+			byte[] bytes = writer.toByteArray();
+			if (bytes.length == 0) {
+				return;
+			}
+
+			// El primer byte es compartido si el tramo no empieza alineado, y el último si no termina alineado
+			int own = shift == 0 ? 0 : 1;
+			int ownEnd = (last & 7) == 0 ? bytes.length : bytes.length - 1;
+			heads[chunk] = bytes[0];
+			tails[chunk] = bytes[bytes.length - 1];
+			if (own < ownEnd) {
+				System.arraycopy(bytes, own, output, (int) (first >>> 3) + own, ownEnd - own);
+			}
+		});
+
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			long first = offsets[chunk];
+			long last = offsets[chunk + 1];
+			if (first == last) {
+				continue;
+			}
+			if ((first & 7) != 0) {
+				output[(int) (first >>> 3)] |= heads[chunk];
+			}
+			if ((last & 7) != 0) {
+				output[(int) (last >>> 3)] |= tails[chunk];
+			}
+		}
+		return output;
+	}
+
+	/**
+	 * Cuenta los tramos terminados y recuerda si se pidió cancelar
+	 */
+	private static class Progress {
+		private final HuffmanEncoder.ProgressListener listener;
+		private final int total;
+		private final AtomicInteger done = new AtomicInteger();
+		private final AtomicBoolean cancelled = new AtomicBoolean();
+
+		Progress(HuffmanEncoder.ProgressListener listener, int total) {
+			this.listener = listener;
+			this.total = total;
+		}
+
+		void chunkDone() {
+			if (!listener.update((int) (100L * done.incrementAndGet() / total))) {
+				cancelled.set(true);
+			}
+		}
+
+		boolean isCancelled() {
+			return cancelled.get();
+		}
+	}
+
+	private static void run(int chunks, Progress progress, IntConsumer work) {
+		IntConsumer tracked = chunk -> {
+			if (!progress.isCancelled()) {
+				work.accept(chunk);
+				progress.chunkDone();
+			}
+		};
+		if (chunks == 1) {
+			tracked.accept(0);
+		} else {
+			ForkJoinPool.commonPool().invoke(new ChunkTask(tracked, 0, chunks));
+		}
+		if (progress.isCancelled()) {
+			throw new CancellationException("Codificación cancelada");
+		}
+	}
+
+	private static int start(int chunk) {
+		return chunk * CHUNK_SIZE;
+	}
+
+	private static int end(int chunk, int n) {
+		return (int) Math.min(n, (long) (chunk + 1) * CHUNK_SIZE);
+	}
+}
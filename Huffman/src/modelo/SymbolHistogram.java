@@ -0,0 +1,242 @@
+package modelo;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Histograma de símbolos en arreglos primitivos
+ *
+ * Los caracteres menores a 256 se cuentan directamente en un int[256]. Los
+ * demás van a una tabla hash abierta pequeña, que pasa a un int[65536]
+ * cuando hay muchos símbolos distintos; así un texto en español no paga
+ * 256 KB y un texto en chino no paga una búsqueda por carácter.
+ */
+public class SymbolHistogram {
+
+	private static final int DENSE_THRESHOLD = 512;
+
+	private final int[] low = new int[256];
+	private int[] dense;
+	private int[] sparseKeys;
+	private int[] sparseCounts;
+	private int sparseSize;
+	private long total;
+
+	/**
+	 * Cuenta los caracteres de un tramo del mensaje
+	 * @param message el mensaje
+	 * @param from posición inicial (incluida)
+	 * @param to posición final (excluida)
+	 */
+	public void add(String message, int from, int to) {
+		int[] low = this.low;
+		for (int i = from; i < to; i++) {
+			char c = message.charAt(i);
+			if (c < 256) {
+				low[c]++;
+			} else {
+				addHigh(c, 1);
+			}
+		}
+		total += to - from;
+	}
+
+	/**
+	 * Cuenta una aparición de un símbolo
+	 * @param c el símbolo
+	 */
+	public void add(char c) {
+		if (c < 256) {
+			low[c]++;
+		} else {
+			addHigh(c, 1);
+		}
+		total++;
+	}
+
+	/**
+	 * Suma los conteos de otro histograma
+	 * @param other el histograma a sumar
+	 */
+	public void merge(SymbolHistogram other) {
+		for (int c = 0; c < 256; c++) {
+			low[c] += other.low[c];
+		}
+		if (other.dense != null) {
+			for (int c = 256; c < other.dense.length; c++) {
+				if (other.dense[c] > 0) {
+					addHigh((char) c, other.dense[c]);
+				}
+			}
+		} else if (other.sparseKeys != null) {
+			for (int slot = 0; slot < other.sparseKeys.length; slot++) {
+				if (other.sparseKeys[slot] != 0) {
+					addHigh((char) (other.sparseKeys[slot] - 1), other.sparseCounts[slot]);
+				}
+			}
+		}
+		total += other.total;
+	}
+
+	private void addHigh(char c, int count) {
+		if (dense != null) {
+			dense[c] += count;
+			return;
+		}
+		if (sparseKeys == null) {
+			sparseKeys = new int[64];
+			sparseCounts = new int[64];
+		}
+
+		// Claves guardadas como símbolo + 1 para que 0 sea una celda vacía
+		int mask = sparseKeys.length - 1;
+		int slot = (c * 0x9E3779B1) >>> 16 & mask;
+		while (sparseKeys[slot] != 0 && sparseKeys[slot] != c + 1) {
+			slot = (slot + 1) & mask;
+		}
+		if (sparseKeys[slot] != 0) {
+			sparseCounts[slot] += count;
+			return;
+		}
+		sparseKeys[slot] = c + 1;
+		sparseCounts[slot] = count;
+		sparseSize++;
+
+		if (sparseSize > DENSE_THRESHOLD) {
+			toDense();
+		} else if (sparseSize * 2 > sparseKeys.length) {
+			growSparse();
+		}
+	}
+
+	private void growSparse() {
+		int[] oldKeys = sparseKeys;
+		int[] oldCounts = sparseCounts;
+		sparseKeys = new int[oldKeys.length * 2];
+		sparseCounts = new int[oldKeys.length * 2];
+		sparseSize = 0;
+		for (int slot = 0; slot < oldKeys.length; slot++) {
+			if (oldKeys[slot] != 0) {
+				addHigh((char) (oldKeys[slot] - 1), oldCounts[slot]);
+			}
+		}
+	}
+
+	private void toDense() {
+		dense = new int[65536];
+		for (int slot = 0; slot < sparseKeys.length; slot++) {
+			if (sparseKeys[slot] != 0) {
+				dense[sparseKeys[slot] - 1] += sparseCounts[slot];
+			}
+		}
+		sparseKeys = null;
+		sparseCounts = null;
+		sparseSize = 0;
+	}
+
+	/**
+	 * @param c el símbolo
+	 * @return cuántas veces aparece
+	 */
+	public int getCount(char c) {
+		if (c < 256) {
+			return low[c];
+		}
+		if (dense != null) {
+			return dense[c];
+		}
+		if (sparseKeys == null) {
+			return 0;
+		}
+		int mask = sparseKeys.length - 1;
+		int slot = (c * 0x9E3779B1) >>> 16 & mask;
+		while (sparseKeys[slot] != 0) {
+			if (sparseKeys[slot] == c + 1) {
+				return sparseCounts[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return 0;
+	}
+
+	/**
+	 * @return la cantidad total de símbolos contados
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return los símbolos presentes, en orden ascendente
+	 */
+	public char[] getSymbols() {
+		char[] symbols = new char[256];
+		int count = 0;
+		for (int c = 0; c < 256; c++) {
+			if (low[c] > 0) {
+				symbols[count++] = (char) c;
+			}
+		}
+		if (dense != null) {
+			for (int c = 256; c < dense.length; c++) {
+				if (dense[c] > 0) {
+					symbols = append(symbols, count++, (char) c);
+				}
+			}
+		} else if (sparseKeys != null) {
+			int start = count;
+			for (int slot = 0; slot < sparseKeys.length; slot++) {
+				if (sparseKeys[slot] != 0) {
+					symbols = append(symbols, count++, (char) (sparseKeys[slot] - 1));
+				}
+			}
+			Arrays.sort(symbols, start, count);
+		}
+		return Arrays.copyOf(symbols, count);
+	}
+
+	private static char[] append(char[] symbols, int position, char c) {
+		if (position == symbols.length) {
+			symbols = Arrays.copyOf(symbols, symbols.length * 2);
+		}
+		symbols[position] = c;
+		return symbols;
+	}
+
+	/**
+	 * @param symbols los símbolos a consultar
+	 * @return la frecuencia de cada símbolo, en el mismo orden
+	 */
+	public long[] getCounts(char[] symbols) {
+		long[] counts = new long[symbols.length];
+		for (int i = 0; i < symbols.length; i++) {
+			counts[i] = getCount(symbols[i]);
+		}
+		return counts;
+	}
+
+	/**
+	 * @return la entropía de orden 0 del histograma, en bits por símbolo
+	 */
+	public double getEntropy() {
+		double entropy = 0.0;
+		for (char c : getSymbols()) {
+			double p = (double) getCount(c) / total;
+			entropy -= p * (Math.log(p) / Math.log(2));
+		}
+		return entropy;
+	}
+
+	/**
+	 * @return las frecuencias como mapa, en el formato que usa el árbol de Huffman
+	 */
+	public Map<Character, Integer> toMap() {
+		char[] symbols = getSymbols();
+		Map<Character, Integer> frequencies = new HashMap<>(symbols.length * 2);
+		for (char c : symbols) {
+			frequencies.put(c, getCount(c));
+		}
+		return frequencies;
+	}
+}
@@ -0,0 +1,352 @@
+package modelo;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Codificador tANS (ANS con tablas, como FSE)
+ *
+ * A diferencia de Huffman no asigna un número entero de bits a cada
+ * símbolo: el estado, un número en [L, 2L) con L = 2^tableLog, acumula
+ * fracciones de bit entre símbolos. Las frecuencias del histograma se
+ * normalizan para que sumen L y cada símbolo ocupa tantas casillas de la
+ * tabla como su conteo normalizado; así un símbolo de probabilidad p cuesta
+ * casi exactamente -log2(p) bits.
+ *
+ * ANS es una pila: se codifica del último símbolo al primero y los bits se
+ * guardan en orden inverso, de modo que el decodificador lee todo hacia
+ * adelante. Ambos ciclos internos son solo consultas en tabla, sin ramas.
+ *
+ * Formato (en bits): 32 de cantidad de símbolos, 5 de tableLog, 16 de
+ * cantidad de símbolos distintos, y por símbolo 16 bits del carácter y
+ * tableLog bits de su conteo normalizado menos uno; luego el estado final
+ * en tableLog bits y los bits de cada símbolo.
+ */
+public class TansCodec {
+
+	private static final int DEFAULT_TABLE_LOG = 12;
+	private static final int MIN_TABLE_LOG = 5;
+	private static final int MAX_TABLE_LOG = 16;
+
+	/**
+	 * Resultado de la codificación tANS
+	 */
+	public static class TansResult {
+		private final byte[] encoded;
+		private final long bitLength;
+		private final long headerBits;
+		private final int symbolCount;
+		private final int tableLog;
+		private final double entropy;
+
+		TansResult(byte[] encoded, long bitLength, long headerBits, int symbolCount, int tableLog, double entropy) {
+			this.encoded = encoded;
+			this.bitLength = bitLength;
+			this.headerBits = headerBits;
+			this.symbolCount = symbolCount;
+			this.tableLog = tableLog;
+			this.entropy = entropy;
+		}
+
+		/**
+		 * @return el mensaje codificado con su tabla, listo para decode
+		 */
+		public byte[] getEncoded() {
+			return encoded;
+		}
+
+		/**
+		 * @return la cantidad exacta de bits, incluida la tabla
+		 */
+		public long getBitLength() {
+			return bitLength;
+		}
+
+		/**
+		 * @return los bits ocupados por la tabla de conteos
+		 */
+		public long getHeaderBits() {
+			return headerBits;
+		}
+
+		/**
+		 * @return el logaritmo del tamaño de la tabla de estados
+		 */
+		public int getTableLog() {
+			return tableLog;
+		}
+
+		/**
+		 * @return la entropía H(S) del mensaje, en bits por símbolo
+		 */
+		public double getEntropy() {
+			return entropy;
+		}
+
+		/**
+		 * @return los bits por símbolo, sin contar la tabla
+		 */
+		public double getAverageLength() {
+			return (double) (bitLength - headerBits) / symbolCount;
+		}
+
+		/**
+		 * @return la eficiencia H(S) / L, en porcentaje
+		 */
+		public double getEfficiency() {
+			double averageLength = getAverageLength();
+			return averageLength > 0 ? entropy / averageLength * 100 : 100.0;
+		}
+	}
+
+	/**
+	 * Codifica un mensaje con tANS
+	 * @param message el mensaje
+	 * @return el resultado con los bytes y las métricas
+	 * @throws IllegalArgumentException si el mensaje está vacío
+	 */
+	public static TansResult encode(String message) {
+		if (message == null || message.isEmpty()) {
+			throw new IllegalArgumentException("El mensaje no puede estar vacío");
+		}
+		int n = message.length();
+		SymbolHistogram histogram = FrequencyAnalyzer.histogram(message);
+		char[] symbols = histogram.getSymbols();
+		int tableLog = chooseTableLog(n, symbols.length);
+		int[] normalized = normalize(histogram.getCounts(symbols), n, tableLog);
+
+		// Tabla de codificación: estado siguiente por símbolo, ordenado por casilla
+		int size = 1 << tableLog;
+		int[] spread = spread(normalized, tableLog);
+		int[] start = new int[symbols.length];
+		for (int s = 1; s < symbols.length; s++) {
+			start[s] = start[s - 1] + normalized[s - 1];
+		}
+		int[] next = start.clone();
+		int[] stateTable = new int[size];
+		for (int slot = 0; slot < size; slot++) {
+			stateTable[next[spread[slot]]++] = size + slot;
+		}
+
+		// Por carácter: cuántos bits emite cada estado y dónde empieza su tramo de la tabla
+		int[] deltaBits = new int[65536];
+		int[] deltaState = new int[65536];
+		for (int s = 0; s < symbols.length; s++) {
+			int count = normalized[s];
+			int maxBits = tableLog - (31 - Integer.numberOfLeadingZeros(count - 1));
+			deltaBits[symbols[s]] = (maxBits << 16) - (count << maxBits);
+			deltaState[symbols[s]] = start[s] - count;
+		}
+
+		// Se codifica al revés; cada grupo de bits se antepone a los anteriores
+		ReverseBitBuffer payload = new ReverseBitBuffer(n / 16 + 16);
+		int state = size;
+		for (int i = n - 1; i >= 0; i--) {
+			char c = message.charAt(i);
+			int bits = (state + deltaBits[c]) >> 16;
+			payload.prepend(state & ((1 << bits) - 1), bits);
+			state = stateTable[deltaState[c] + (state >>> bits)];
+		}
+
+		BitWriter writer = new BitWriter((int) (payload.getBitLength() / 8) + 16 + symbols.length * 4);
+		writer.write(n, 32);
+		writer.write(tableLog, 5);
+		writer.write(symbols.length - 1, 16);
+		for (int s = 0; s < symbols.length; s++) {
+			writer.write(symbols[s], 16);
+			writer.write(normalized[s] - 1, tableLog);
+		}
+		long headerBits = writer.getBitLength();
+		writer.write(state - size, tableLog);
+		payload.writeTo(writer);
+		return new TansResult(writer.toByteArray(), writer.getBitLength(), headerBits, n, tableLog,
+			histogram.getEntropy());
+	}
+
+	/**
+	 * Decodifica un mensaje generado por encode
+	 * @param data los bytes codificados
+	 * @return el mensaje original
+	 * @throws IllegalArgumentException si los datos están corruptos
+	 */
+	public static String decode(byte[] data) {
+		BitReader reader = new BitReader(data);
+		int n = (int) reader.peek(32);
+		reader.skip(32);
+		int tableLog = (int) reader.peek(5);
+		reader.skip(5);
+		int symbolCount = (int) reader.peek(16) + 1;
+		reader.skip(16);
+		if (n <= 0 || tableLog < MIN_TABLE_LOG || tableLog > MAX_TABLE_LOG) {
+			throw new IllegalArgumentException("Datos corruptos: encabezado inválido");
+		}
+		int size = 1 << tableLog;
+		char[] symbols = new char[symbolCount];
+		int[] normalized = new int[symbolCount];
+		long sum = 0;
+		for (int s = 0; s < symbolCount; s++) {
+			symbols[s] = (char) reader.peek(16);
+			reader.skip(16);
+			normalized[s] = (int) reader.peek(tableLog) + 1;
+			reader.skip(tableLog);
+			sum += normalized[s];
+		}
+		if (sum != size) {
+			throw new IllegalArgumentException("Datos corruptos: los conteos no suman " + size);
+		}
+
+		// Tabla de decodificación: símbolo, bits a leer y base del estado siguiente por casilla
+		int[] spread = spread(normalized, tableLog);
+		int[] next = normalized.clone();
+		char[] symbolAt = new char[size];
+		int[] bitsAt = new int[size];
+		int[] baseAt = new int[size];
+		for (int slot = 0; slot < size; slot++) {
+			int s = spread[slot];
+			int x = next[s]++;
+			int bits = tableLog - (31 - Integer.numberOfLeadingZeros(x));
+			symbolAt[slot] = symbols[s];
+			bitsAt[slot] = bits;
+			baseAt[slot] = (x << bits) - size;
+		}
+
+		char[] output = new char[n];
+		int state = (int) reader.peek(tableLog);
+		reader.skip(tableLog);
+		for (int i = 0; i < n; i++) {
+			output[i] = symbolAt[state];
+			int bits = bitsAt[state];
+			// Con bits = 0 el desplazamiento de 16 deja el valor en cero
+			int value = (int) (reader.peek(MAX_TABLE_LOG) >>> (MAX_TABLE_LOG - bits));
+			reader.skip(bits);
+			state = baseAt[state] + value;
+		}
+		if (reader.getBitsRead() > (long) data.length * 8) {
+			throw new IllegalArgumentException("Datos corruptos: faltan bits");
+		}
+		return new String(output);
+	}
+
+	/**
+	 * Elige el tamaño de la tabla: por defecto 2^12 casillas, menos para
+	 * mensajes cortos y más si hay muchos símbolos distintos
+	 */
+	private static int chooseTableLog(int n, int symbolCount) {
+		int tableLog = Math.min(DEFAULT_TABLE_LOG, 32 - Integer.numberOfLeadingZeros(n));
+		tableLog = Math.max(tableLog, 32 - Integer.numberOfLeadingZeros(symbolCount - 1) + 1);
+		return Math.max(MIN_TABLE_LOG, Math.min(MAX_TABLE_LOG, tableLog));
+	}
+
+	/**
+	 * Escala los conteos para que sumen 2^tableLog, con al menos 1 por símbolo.
+	 * Tras redondear, el sobrante se reparte de a una unidad donde cambia
+	 * menos el costo total, sum(conteo * log(normalizado)).
+	 */
+	private static int[] normalize(long[] counts, long total, int tableLog) {
+		int size = 1 << tableLog;
+		int[] normalized = new int[counts.length];
+		int sum = 0;
+		for (int s = 0; s < counts.length; s++) {
+			normalized[s] = (int) Math.max(1, Math.round((double) counts[s] * size / total));
+			sum += normalized[s];
+		}
+
+		if (sum < size) {
+			// Sumar donde más baja el costo
+			PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) -> Double.compare(
+				counts[b] * Math.log1p(1.0 / normalized[b]), counts[a] * Math.log1p(1.0 / normalized[a])));
+			for (int s = 0; s < counts.length; s++) {
+				queue.add(s);
+			}
+			while (sum < size) {
+				int s = queue.poll();
+				normalized[s]++;
+				sum++;
+				queue.add(s);
+			}
+		} else if (sum > size) {
+			// Restar donde menos sube el costo, sin bajar de 1
+			PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) -> Double.compare(
+				-counts[a] * Math.log1p(-1.0 / normalized[a]), -counts[b] * Math.log1p(-1.0 / normalized[b])));
+			for (int s = 0; s < counts.length; s++) {
+				if (normalized[s] > 1) {
+					queue.add(s);
+				}
+			}
+			while (sum > size) {
+				int s = queue.poll();
+				normalized[s]--;
+				sum--;
+				if (normalized[s] > 1) {
+					queue.add(s);
+				}
+			}
+		}
+		return normalized;
+	}
+
+	/**
+	 * Reparte las casillas de cada símbolo por la tabla con un paso impar,
+	 * que recorre todas las casillas, para mezclar los símbolos
+	 * @return el índice de símbolo de cada casilla
+	 */
+	private static int[] spread(int[] normalized, int tableLog) {
+		int size = 1 << tableLog;
+		int mask = size - 1;
+		int step = (size >>> 1) + (size >>> 3) + 3;
+		int[] spread = new int[size];
+		int position = 0;
+		for (int s = 0; s < normalized.length; s++) {
+			for (int i = 0; i < normalized[s]; i++) {
+				spread[position] = s;
+				position = (position + step) & mask;
+			}
+		}
+		return spread;
+	}
+
+	/**
+	 * Pila de bits: cada grupo nuevo queda delante de los anteriores. Las
+	 * palabras completas se guardan desde el final del arreglo hacia el inicio.
+	 */
+	private static class ReverseBitBuffer {
+		private int[] words;
+		private int first;
+		private long pending;
+		private int pendingBits;
+
+		ReverseBitBuffer(int expectedWords) {
+			words = new int[expectedWords];
+			first = expectedWords;
+		}
+
+		void prepend(int value, int length) {
+			pending |= (long) value << pendingBits;
+			pendingBits += length;
+			if (pendingBits >= 32) {
+				if (first == 0) {
+					int[] grown = new int[words.length * 2];
+					System.arraycopy(words, 0, grown, words.length, words.length);
+					first = words.length;
+					words = grown;
+				}
+				words[--first] = (int) pending;
+				pending >>>= 32;
+				pendingBits -= 32;
+			}
+		}
+
+		long getBitLength() {
+			return (long) (words.length - first) * 32 + pendingBits;
+		}
+
+		void writeTo(BitWriter writer) {
+			if (pendingBits > 0) {
+				writer.write(pending, pendingBits);
+			}
+			for (int i = first; i < words.length; i++) {
+				writer.write(words[i] & 0xFFFFFFFFL, 32);
+			}
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package view;
+
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Insets;
+import java.awt.Toolkit;
+
+/**
+ * Visor paginado del mensaje codificado
+ *
+ * Lee los bits directamente del arreglo empaquetado y solo arma el texto de
+ * la página visible, en binario o en hexadecimal, así que el tamaño del
+ * mensaje no influye en la memoria ni en el tiempo de mostrarlo. Las
+ * páginas empiezan en un byte completo.
+ */
+public class BitstreamViewer extends JPanel {
+
+	private static final long serialVersionUID = 1L;
+	private static final int PAGE_BITS = 8192;
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	private JTextArea textAreaBits;
+	private JComboBox<String> comboFormat;
+	private JButton btnPrevious;
+	private JButton btnNext;
+	private JLabel lblPosition;
+	private JTextField textFieldOffset;
+	private JButton btnGo;
+
+	private byte[] bits;
+	private long bitLength;
+	private long pageStart;
+
+	public BitstreamViewer() {
+		setLayout(null);
+
+		JLabel lblEncoded = new JLabel("Mensaje Codificado:");
+		lblEncoded.setFont(new Font("Tahoma", Font.BOLD, 12));
+		lblEncoded.setBounds(0, 3, 130, 20);
+		add(lblEncoded);
+
+		// Formato de la página
+		comboFormat = new JComboBox<>(new String[] {"Binario", "Hex"});
+		comboFormat.setFont(new Font("Tahoma", Font.PLAIN, 11));
+		comboFormat.setBounds(130, 3, 75, 20);
+		comboFormat.addActionListener(e -> render());
+		add(comboFormat);
+
+		// Navegación entre páginas
+		btnPrevious = new JButton("<");
+		btnPrevious.setFont(new Font("Tahoma", Font.BOLD, 11));
+		btnPrevious.setBounds(210, 3, 45, 20);
+		btnPrevious.addActionListener(e -> showPage(pageStart - PAGE_BITS));
+		add(btnPrevious);
+
+		lblPosition = new JLabel();
+		lblPosition.setFont(new Font("Tahoma", Font.PLAIN, 11));
+		lblPosition.setHorizontalAlignment(JLabel.CENTER);
+		lblPosition.setBounds(255, 3, 200, 20);
+		add(lblPosition);
+
+		btnNext = new JButton(">");
+		btnNext.setFont(new Font("Tahoma", Font.BOLD, 11));
+		btnNext.setBounds(455, 3, 45, 20);
+		btnNext.addActionListener(e -> showPage(pageStart + PAGE_BITS));
+		add(btnNext);
+
+		// Salto a un bit
+		JLabel lblOffset = new JLabel("Ir a bit:");
+		lblOffset.setFont(new Font("Tahoma", Font.PLAIN, 11));
+		lblOffset.setBounds(510, 3, 45, 20);
+		add(lblOffset);
+
+		textFieldOffset = new JTextField();
+		textFieldOffset.setFont(new Font("Tahoma", Font.PLAIN, 11));
+		textFieldOffset.setBounds(555, 3, 50, 20);
+		textFieldOffset.addActionListener(e -> jumpToOffset());
+		add(textFieldOffset);
+
+		btnGo = new JButton("Ir");
+		btnGo.setFont(new Font("Tahoma", Font.BOLD, 11));
+		btnGo.setMargin(new Insets(0, 0, 0, 0));
+		btnGo.setBounds(609, 3, 35, 20);
+		btnGo.addActionListener(e -> jumpToOffset());
+		add(btnGo);
+
+		// Área de texto con la página visible
+		textAreaBits = new JTextArea();
+		textAreaBits.setFont(new Font("Courier New", Font.PLAIN, 12));
+		textAreaBits.setLineWrap(true);
+		textAreaBits.setWrapStyleWord(false);
+		textAreaBits.setEditable(false);
+		textAreaBits.setBackground(new Color(245, 245, 245));
+
+		JScrollPane scrollPane = new JScrollPane(textAreaBits);
+		scrollPane.setBounds(0, 28, 644, 60);
+		add(scrollPane);
+
+		clear();
+	}
+
+	/**
+	 * Muestra un mensaje codificado desde su primera página
+	 * @param bits el mensaje empaquetado, del bit más significativo al menos significativo
+	 * @param bitLength la cantidad exacta de bits
+	 */
+	public void setBits(byte[] bits, long bitLength) {
+		this.bits = bits;
+		this.bitLength = bitLength;
+		showPage(0);
+	}
+
+	/**
+	 * Vacía el visor
+	 */
+	public void clear() {
+		setBits(new byte[0], 0);
+	}
+
+	/**
+	 * Muestra la página que empieza en el byte que contiene al bit indicado
+	 */
+	private void showPage(long start) {
+		long lastPage = bitLength == 0 ? 0 : (bitLength - 1) / PAGE_BITS * PAGE_BITS;
+		pageStart = Math.max(0, Math.min(start, lastPage)) & ~7L;
+		render();
+	}
+
+	private void jumpToOffset() {
+		try {
+			showPage(Long.parseLong(textFieldOffset.getText().trim()));
+		} catch (NumberFormatException ex) {
+			Toolkit.getDefaultToolkit().beep();
+		}
+	}
+
+	/**
+	 * Arma el texto de la página actual
+	 */
+	private void render() {
+		long pageEnd = Math.min(bitLength, pageStart + PAGE_BITS);
+		StringBuilder text = new StringBuilder(PAGE_BITS);
+		if (comboFormat.getSelectedIndex() == 0) {
+			for (long i = pageStart; i < pageEnd; i++) {
+				int bit = bits[(int) (i >>> 3)] >>> (7 - (int) (i & 7)) & 1;
+				text.append(bit == 0 ? '0' : '1');
+			}
+		} else {
+			// El último byte se completa con ceros, como en el mensaje empaquetado
+			for (long i = pageStart; i < pageEnd; i += 8) {
+				int value = bits[(int) (i >>> 3)] & 0xFF;
+				text.append(HEX_DIGITS[value >>> 4]).append(HEX_DIGITS[value & 0xF]).append(' ');
+			}
+		}
+		textAreaBits.setText(text.toString());
+		textAreaBits.setCaretPosition(0);
+
+		lblPosition.setText(bitLength == 0 ? "Sin datos"
+			: String.format("bit %,d de %,d", pageStart, bitLength));
+		btnPrevious.setEnabled(pageStart > 0);
+		btnNext.setEnabled(pageEnd < bitLength);
+	}
+}
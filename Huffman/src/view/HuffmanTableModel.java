@@ -0,0 +1,71 @@
+package view;
+
+import javax.swing.table.AbstractTableModel;
+
+import modelo.HuffmanResult;
+
+/**
+ * Modelo de tabla que lee las filas directamente de un HuffmanResult
+ *
+ * No copia los datos: cada celda se arma cuando la tabla la pinta, así que
+ * solo se formatean las filas visibles. Cambiar el resultado dispara un
+ * único evento para toda la tabla.
+ */
+public class HuffmanTableModel extends AbstractTableModel {
+
+	private static final long serialVersionUID = 1L;
+	private static final String[] COLUMN_NAMES = {"Símbolo", "Frecuencia", "Probabilidad", "Código Binario"};
+
+	private HuffmanResult result;
+
+	/**
+	 * Reemplaza el resultado que se muestra
+	 * @param result el resultado, o null para vaciar la tabla
+	 */
+	public void setResult(HuffmanResult result) {
+		this.result = result;
+		fireTableDataChanged();
+	}
+
+	/**
+	 * @return el resultado que se muestra, o null si la tabla está vacía
+	 */
+	public HuffmanResult getResult() {
+		return result;
+	}
+
+	@Override
+	public int getRowCount() {
+		return result == null ? 0 : result.getSymbolCount();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return COLUMN_NAMES.length;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return COLUMN_NAMES[column];
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column) {
+		return column == 1 ? Integer.class : String.class;
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		switch (column) {
+			case 0:
+				char symbol = result.getSymbol(row);
+				return symbol == ' ' ? "(Espacio)" : String.valueOf(symbol);
+			case 1:
+				return result.getFrequency(row);
+			case 2:
+				return String.format("%.4f", result.getProbability(row));
+			default:
+				return result.getCode(row);
+		}
+	}
+}
@@ -19,6 +19,8 @@ public class InputPanel extends JPanel {
 	private JTextField textFieldMessage;
 	private JButton btnEncode;
 	private JButton btnExport;
+	private JButton btnCompressFile;
+	private JButton btnDecompressFile;
 	
 	public InputPanel() {
 		setLayout(null);
@@ -40,17 +42,27 @@ public class InputPanel extends JPanel {
 		btnEncode.setFont(new Font("Tahoma", Font.BOLD, 14));
 		btnEncode.setBackground(new Color(100, 149, 237));
 		btnEncode.setForeground(Color.WHITE);
-		btnEncode.setBounds(200, 70, 140, 35);
+		btnEncode.setBounds(20, 70, 140, 35);
 		add(btnEncode);
 		
 		btnExport = new JButton("Exportar");
 		btnExport.setFont(new Font("Tahoma", Font.BOLD, 14));
 		btnExport.setBackground(new Color(46, 139, 87));
 		btnExport.setForeground(Color.WHITE);
-		btnExport.setBounds(350, 70, 140, 35);
+		btnExport.setBounds(170, 70, 140, 35);
 		btnExport.setEnabled(false);
 		add(btnExport);
 		
+		btnCompressFile = new JButton("Comprimir Archivo");
+		btnCompressFile.setFont(new Font("Tahoma", Font.BOLD, 12));
+		btnCompressFile.setBounds(340, 70, 155, 35);
+		add(btnCompressFile);
+		
+		btnDecompressFile = new JButton("Descomprimir Archivo");
+		btnDecompressFile.setFont(new Font("Tahoma", Font.BOLD, 12));
+		btnDecompressFile.setBounds(505, 70, 155, 35);
+		add(btnDecompressFile);
+		
 		// Permitir presionar Enter en el campo de texto para codificar
 		textFieldMessage.addKeyListener(new KeyAdapter() {
 			@Override
@@ -93,6 +105,35 @@ public class InputPanel extends JPanel {
 		return btnExport;
 	}
 	
+	/**
+	 * Obtiene el botón de comprimir archivo para agregar listeners
+	 * @return el botón de comprimir archivo
+	 */
+	public JButton getCompressFileButton() {
+		return btnCompressFile;
+	}
+	
+	/**
+	 * Obtiene el botón de descomprimir archivo para agregar listeners
+	 * @return el botón de descomprimir archivo
+	 */
+	public JButton getDecompressFileButton() {
+		return btnDecompressFile;
+	}
+	
+	/**
+	 * Mientras se codifica o se procesa un archivo, el botón de codificar
+	 * pasa a cancelar y se bloquean las demás acciones
+	 * @param encoding true al empezar el trabajo, false al terminar
+	 */
+	public void setEncoding(boolean encoding) {
+		btnEncode.setText(encoding ? "Cancelar" : "Codificar");
+		btnEncode.setEnabled(true);
+		textFieldMessage.setEditable(!encoding);
+		btnCompressFile.setEnabled(!encoding);
+		btnDecompressFile.setEnabled(!encoding);
+	}
+	
 	/**
 	 * Habilita el botón de exportar cuando hay resultados
 	 */
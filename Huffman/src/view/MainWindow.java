@@ -4,16 +4,25 @@ import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.border.EmptyBorder;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
+import modelo.ContextHuffmanCodec;
 import modelo.FileExporter;
 import modelo.HuffmanEncoder;
+import modelo.HuffmanFileCodec;
 import modelo.HuffmanResult;
+import modelo.TansCodec;
 
 import java.awt.event.ActionListener;
 import java.awt.event.ActionEvent;
 import java.io.File;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Ventana principal del codificador de Huffman
@@ -25,6 +34,8 @@ public class MainWindow extends JFrame {
 	private InputPanel inputPanel;
 	private ResultPanel resultPanel;
 	private MetricsPanel metricsPanel;
+	private JProgressBar progressBar;
+	private BackgroundWorker<?> activeWorker; // Trabajo en curso, o null
 	private HuffmanResult currentResult; // Guardar el resultado actual para exportar
 	private String currentMessage; // Guardar el mensaje actual
 
@@ -34,7 +45,7 @@ public class MainWindow extends JFrame {
 	public MainWindow() {
 		
 		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		setBounds(100, 100, 720, 700);
+		setBounds(100, 100, 720, 745);
 		setLocationRelativeTo(null);
 		setTitle("Codificador de Huffman");
 		setResizable(false);
@@ -54,6 +65,13 @@ public class MainWindow extends JFrame {
 		metricsPanel = new MetricsPanel();
 		contentPane.add(metricsPanel);
 		
+		// Barra de avance de la codificación en segundo plano
+		progressBar = new JProgressBar(0, 100);
+		progressBar.setBounds(10, 668, 684, 20);
+		progressBar.setStringPainted(true);
+		progressBar.setVisible(false);
+		contentPane.add(progressBar);
+		
 		// Configurar el listener del botón de codificación
 		setupListeners();
 	}
@@ -65,7 +83,15 @@ public class MainWindow extends JFrame {
 		inputPanel.getEncodeButton().addActionListener(new ActionListener() {
 			@Override
 			public void actionPerformed(ActionEvent e) {
-				encodeMessage();
+				// Durante una codificación el mismo botón la cancela; la interfaz
+				// sigue bloqueada hasta que el trabajo realmente se detenga
+				if (activeWorker != null) {
+					activeWorker.cancel(false);
+					inputPanel.getEncodeButton().setEnabled(false);
+					progressBar.setString("Cancelando...");
+				} else {
+					encodeMessage();
+				}
 			}
 		});
 		
@@ -75,10 +101,24 @@ public class MainWindow extends JFrame {
 				exportResults();
 			}
 		});
+		
+		inputPanel.getCompressFileButton().addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				compressFile();
+			}
+		});
+		
+		inputPanel.getDecompressFileButton().addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				decompressFile();
+			}
+		});
 	}
 	
 	/**
-	 * Método para codificar el mensaje usando Huffman
+	 * Método para codificar el mensaje usando Huffman, en segundo plano
 	 */
 	private void encodeMessage() {
 		String message = inputPanel.getMessage();
@@ -87,41 +127,167 @@ public class MainWindow extends JFrame {
 		resultPanel.clearResults();
 		metricsPanel.clearAll();
 		inputPanel.disableExport();
+		currentResult = null;
 		
 		// Validar que el mensaje no esté vacío
 		if (message.isEmpty()) {
 			return;
 		}
 		
-		try {
-			// Codificar el mensaje usando el algoritmo de Huffman
-			HuffmanResult result = HuffmanEncoder.encode(message);
+		start(new EncodeWorker(message));
+	}
+	
+	/**
+	 * Bloquea la interfaz y lanza el trabajo mostrando su avance
+	 */
+	private void start(BackgroundWorker<?> worker) {
+		inputPanel.setEncoding(true);
+		progressBar.setValue(0);
+		progressBar.setString(null);
+		progressBar.setVisible(true);
+		activeWorker = worker;
+		worker.addPropertyChangeListener(event -> {
+			if ("progress".equals(event.getPropertyName())) {
+				progressBar.setValue((Integer) event.getNewValue());
+			}
+		});
+		worker.execute();
+	}
+	
+	/**
+	 * Desbloquea la interfaz cuando el trabajo en curso termina de verdad
+	 */
+	private void release(BackgroundWorker<?> worker) {
+		if (activeWorker != worker) {
+			return;
+		}
+		activeWorker = null;
+		inputPanel.setEncoding(false);
+		progressBar.setVisible(false);
+	}
+	
+	/**
+	 * Trabajo en segundo plano que mantiene la interfaz bloqueada hasta que
+	 * doInBackground vuelve. Al cancelar, SwingWorker llama a done() enseguida
+	 * aunque el hilo siga trabajando hasta el próximo chequeo.
+	 */
+	private abstract class BackgroundWorker<T> extends SwingWorker<T, Void> {
+		
+		// Lo reclama quien libere la interfaz si se cancela antes de empezar
+		private final AtomicBoolean started = new AtomicBoolean();
+		
+		/**
+		 * El trabajo propiamente dicho, fuera del hilo de eventos
+		 */
+		protected abstract T work() throws Exception;
+		
+		/**
+		 * Muestra el resultado en el hilo de eventos; no se llama si se canceló
+		 */
+		protected abstract void finished();
+		
+		/**
+		 * Listener de avance para los codificadores
+		 * @return false si se pidió cancelar
+		 */
+		protected boolean update(int percent) {
+			setProgress(Math.min(percent, 99));
+			return !isCancelled();
+		}
+		
+		@Override
+		protected final T doInBackground() throws Exception {
+			if (!started.compareAndSet(false, true)) {
+				return null;
+			}
+			try {
+				return work();
+			} finally {
+				// Se encola antes que done(), así la interfaz ya está libre al mostrar el resultado
+				SwingUtilities.invokeLater(() -> release(this));
+			}
+		}
+		
+		@Override
+		protected final void done() {
+			if (started.compareAndSet(false, true)) {
+				// Cancelado antes de empezar: nadie más libera la interfaz
+				release(this);
+				return;
+			}
+			if (!isCancelled()) {
+				finished();
+			}
+		}
+	}
+	
+	/**
+	 * Codifica con Huffman, con tANS y con Huffman por contexto fuera del hilo
+	 * de eventos, informando el avance de Huffman. Cancelarla corta la
+	 * codificación en el próximo tramo.
+	 */
+	private class EncodeWorker extends BackgroundWorker<HuffmanResult> {
+		
+		private final String message;
+		private TansCodec.TansResult tansResult;
+		
+		EncodeWorker(String message) {
+			this.message = message;
+		}
+		
+		@Override
+		protected HuffmanResult work() {
+			HuffmanResult result = HuffmanEncoder.encode(message, 0, this::update);
 			
-			// Mostrar los resultados en la tabla
-			for (int i = 0; i < result.getSymbolCount(); i++) {
-				resultPanel.addResult(
-					String.valueOf(result.getSymbol(i)),
-					result.getFrequency(i),
-					result.getProbability(i),
-					result.getCode(i)
-				);
+			// Comparar con tANS y con el orden 1 sobre el mismo mensaje, salvo que ya se haya cancelado
+			if (isCancelled()) {
+				return result;
 			}
+			tansResult = TansCodec.encode(message);
+			if (isCancelled()) {
+				return result;
+			}
+			result.setContextResult(ContextHuffmanCodec.encode(message));
+			return result;
+		}
+		
+		@Override
+		protected void finished() {
+			showEncoding(this);
+		}
+	}
+	
+	/**
+	 * Muestra los resultados de una codificación terminada
+	 */
+	private void showEncoding(EncodeWorker worker) {
+		try {
+			HuffmanResult result = worker.get();
+			
+			// Mostrar los resultados en la tabla con un solo evento
+			resultPanel.setResult(result);
 			
 			// Mostrar las métricas y el mensaje codificado
-			metricsPanel.setEncodedMessage(result.getEncodedMessage());
+			metricsPanel.setEncodedMessage(result.getEncodedBits(), result.getEncodedBitLength());
 			metricsPanel.setEntropy(result.getEntropy());
 			metricsPanel.setAverageLength(result.getAverageLength());
 			metricsPanel.setEfficiency(result.getEfficiency());
+			metricsPanel.setTansAverageLength(worker.tansResult.getAverageLength());
+			metricsPanel.setTansEfficiency(worker.tansResult.getEfficiency());
+			metricsPanel.setContextMetrics(result.getConditionalEntropy(), result.getContextAverageLength(),
+				result.getContextEfficiency());
 			inputPanel.enableExport();
 			
 			// Guardar el resultado y mensaje actual para exportar
 			currentResult = result;
-			currentMessage = message;
+			currentMessage = worker.message;
 			
-		} catch (Exception ex) {
+		} catch (InterruptedException | CancellationException ex) {
+			// La codificación se canceló: no hay nada que mostrar
+		} catch (ExecutionException ex) {
 			// Manejar errores
-			System.err.println("Error al codificar el mensaje: " + ex.getMessage());
-			ex.printStackTrace();
+			System.err.println("Error al codificar el mensaje: " + ex.getCause().getMessage());
+			ex.getCause().printStackTrace();
 		}
 	}
 	
@@ -141,27 +307,38 @@ public class MainWindow extends JFrame {
 		JFileChooser fileChooser = new JFileChooser();
 		fileChooser.setDialogTitle("Guardar resultados de Huffman");
 		
-		// Establecer filtro de archivos
-		FileNameExtensionFilter filter = new FileNameExtensionFilter("Archivos de texto (*.txt)", "txt");
-		fileChooser.setFileFilter(filter);
+		// El formato por defecto es el .huff binario; el reporte de texto es opcional
+		FileNameExtensionFilter huffFilter = new FileNameExtensionFilter("Archivos Huffman (*.huff)", "huff");
+		FileNameExtensionFilter textFilter = new FileNameExtensionFilter("Reporte de texto (*.txt)", "txt");
+		fileChooser.addChoosableFileFilter(huffFilter);
+		fileChooser.addChoosableFileFilter(textFilter);
+		fileChooser.setFileFilter(huffFilter);
 		
 		// Sugerir un nombre de archivo
-		fileChooser.setSelectedFile(new File(FileExporter.getSuggestedFileName()));
+		fileChooser.setSelectedFile(new File(FileExporter.getSuggestedFileName(HuffmanFileCodec.EXTENSION)));
 		
 		// Mostrar el diálogo
 		int userSelection = fileChooser.showSaveDialog(this);
 		
 		if (userSelection == JFileChooser.APPROVE_OPTION) {
 			File fileToSave = fileChooser.getSelectedFile();
+			String name = fileToSave.getName().toLowerCase();
+			boolean textReport = name.endsWith(FileExporter.getFileExtension())
+				|| (fileChooser.getFileFilter() == textFilter && !name.endsWith(HuffmanFileCodec.EXTENSION));
 			
-			// Asegurarse de que el archivo tenga la extensión .txt
-			if (!fileToSave.getName().toLowerCase().endsWith(".txt")) {
-				fileToSave = new File(fileToSave.getAbsolutePath() + ".txt");
+			// Asegurarse de que el archivo tenga la extensión del formato elegido
+			String extension = textReport ? FileExporter.getFileExtension() : HuffmanFileCodec.EXTENSION;
+			if (!name.endsWith(extension)) {
+				fileToSave = new File(fileToSave.getAbsolutePath() + extension);
 			}
 			
 			try {
 				// Exportar los resultados
-				FileExporter.exportToFile(currentResult, fileToSave.getAbsolutePath(), currentMessage);
+				if (textReport) {
+					FileExporter.exportToFile(currentResult, fileToSave.getAbsolutePath(), currentMessage);
+				} else {
+					HuffmanFileCodec.save(currentResult, currentMessage, fileToSave);
+				}
 				
 				// Mostrar mensaje de éxito
 				JOptionPane.showMessageDialog(this, 
@@ -179,4 +356,131 @@ public class MainWindow extends JFrame {
 			}
 		}
 	}
+	
+	/**
+	 * Comprime un archivo byte a byte con Huffman, en segundo plano
+	 */
+	private void compressFile() {
+		JFileChooser openChooser = new JFileChooser();
+		openChooser.setDialogTitle("Seleccionar archivo a comprimir");
+		if (openChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File input = openChooser.getSelectedFile();
+		
+		JFileChooser saveChooser = new JFileChooser();
+		saveChooser.setDialogTitle("Guardar archivo comprimido");
+		saveChooser.setFileFilter(new FileNameExtensionFilter("Archivos Huffman (*.huff)", "huff"));
+		saveChooser.setSelectedFile(new File(input.getAbsolutePath() + HuffmanFileCodec.EXTENSION));
+		if (saveChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File output = saveChooser.getSelectedFile();
+		if (!output.getName().toLowerCase().endsWith(HuffmanFileCodec.EXTENSION)) {
+			output = new File(output.getAbsolutePath() + HuffmanFileCodec.EXTENSION);
+		}
+		
+		File target = output;
+		start(new BackgroundWorker<HuffmanFileCodec.FileResult>() {
+			@Override
+			protected HuffmanFileCodec.FileResult work() throws Exception {
+				try {
+					return HuffmanFileCodec.compress(input, target, this::update);
+				} catch (CancellationException ex) {
+					// No dejar un .huff a medio escribir
+					target.delete();
+					throw ex;
+				}
+			}
+			
+			@Override
+			protected void finished() {
+				try {
+					HuffmanFileCodec.FileResult result = get();
+					
+					// Las métricas del archivo reemplazan las del mensaje anterior
+					resultPanel.clearResults();
+					metricsPanel.clearAll();
+					inputPanel.disableExport();
+					currentResult = null;
+					metricsPanel.setEntropy(result.getEntropy());
+					metricsPanel.setAverageLength(result.getAverageLength());
+					metricsPanel.setEfficiency(result.getEfficiency());
+					
+					JOptionPane.showMessageDialog(MainWindow.this, 
+						"Archivo comprimido exitosamente en:\n" + target.getAbsolutePath() + "\n\n" + result.getSummary(), 
+						"Éxito", 
+						JOptionPane.INFORMATION_MESSAGE);
+					
+				} catch (InterruptedException | CancellationException ex) {
+					// Se canceló: no hay nada que mostrar
+				} catch (ExecutionException ex) {
+					JOptionPane.showMessageDialog(MainWindow.this, 
+						"Error al comprimir el archivo:\n" + ex.getCause().getMessage(), 
+						"Error", 
+						JOptionPane.ERROR_MESSAGE);
+					ex.getCause().printStackTrace();
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Descomprime un archivo .huff, en segundo plano
+	 */
+	private void decompressFile() {
+		JFileChooser openChooser = new JFileChooser();
+		openChooser.setDialogTitle("Seleccionar archivo comprimido");
+		openChooser.setFileFilter(new FileNameExtensionFilter("Archivos Huffman (*.huff)", "huff"));
+		if (openChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File input = openChooser.getSelectedFile();
+		
+		// Sugerir el nombre original quitando la extensión .huff
+		String suggested = input.getAbsolutePath();
+		if (suggested.toLowerCase().endsWith(HuffmanFileCodec.EXTENSION)) {
+			suggested = suggested.substring(0, suggested.length() - HuffmanFileCodec.EXTENSION.length());
+		}
+		JFileChooser saveChooser = new JFileChooser();
+		saveChooser.setDialogTitle("Guardar archivo descomprimido");
+		saveChooser.setSelectedFile(new File(suggested));
+		if (saveChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File output = saveChooser.getSelectedFile();
+		
+		start(new BackgroundWorker<Void>() {
+			@Override
+			protected Void work() throws Exception {
+				try {
+					HuffmanFileCodec.decompress(input, output, this::update);
+					return null;
+				} catch (CancellationException ex) {
+					output.delete();
+					throw ex;
+				}
+			}
+			
+			@Override
+			protected void finished() {
+				try {
+					get();
+					JOptionPane.showMessageDialog(MainWindow.this, 
+						"Archivo descomprimido exitosamente en:\n" + output.getAbsolutePath(), 
+						"Éxito", 
+						JOptionPane.INFORMATION_MESSAGE);
+					
+				} catch (InterruptedException | CancellationException ex) {
+					// Se canceló: no hay nada que mostrar
+				} catch (ExecutionException ex) {
+					JOptionPane.showMessageDialog(MainWindow.this, 
+						"Error al descomprimir el archivo:\n" + ex.getCause().getMessage(), 
+						"Error", 
+						JOptionPane.ERROR_MESSAGE);
+					ex.getCause().printStackTrace();
+				}
+			}
+		});
+	}
 }
\ No newline at end of file
@@ -2,11 +2,8 @@ package view;
 
 import javax.swing.JPanel;
 import javax.swing.JLabel;
-import javax.swing.JTextArea;
-import javax.swing.JScrollPane;
 import javax.swing.border.TitledBorder;
 import java.awt.Font;
-import java.awt.Color;
 
 /**
  * Panel para mostrar el mensaje codificado y las métricas de la codificación
@@ -14,38 +11,30 @@ import java.awt.Color;
 public class MetricsPanel extends JPanel {
 	
 	private static final long serialVersionUID = 1L;
-	private JTextArea textAreaEncodedMessage;
+	private BitstreamViewer bitstreamViewer;
 	private JLabel lblEntropyValue;
 	private JLabel lblAverageLengthValue;
 	private JLabel lblEfficiencyValue;
+	private JLabel lblTansAverageLengthValue;
+	private JLabel lblTansEfficiencyValue;
+	private JLabel lblConditionalEntropyValue;
+	private JLabel lblContextAverageLengthValue;
+	private JLabel lblContextEfficiencyValue;
 	
 	public MetricsPanel() {
 		setLayout(null);
-		setBounds(10, 440, 684, 200);
+		setBounds(10, 440, 684, 220);
 		setBorder(new TitledBorder(null, "Mensaje Codificado y Métricas", TitledBorder.LEADING, TitledBorder.TOP, null, null));
 		
-		// Etiqueta para mensaje codificado
-		JLabel lblEncoded = new JLabel("Mensaje Codificado:");
-		lblEncoded.setFont(new Font("Tahoma", Font.BOLD, 12));
-		lblEncoded.setBounds(20, 25, 150, 20);
-		add(lblEncoded);
-		
-		// Área de texto para el mensaje codificado
-		textAreaEncodedMessage = new JTextArea();
-		textAreaEncodedMessage.setFont(new Font("Courier New", Font.PLAIN, 12));
-		textAreaEncodedMessage.setLineWrap(true);
-		textAreaEncodedMessage.setWrapStyleWord(false);
-		textAreaEncodedMessage.setEditable(false);
-		textAreaEncodedMessage.setBackground(new Color(245, 245, 245));
-		
-		JScrollPane scrollPane = new JScrollPane(textAreaEncodedMessage);
-		scrollPane.setBounds(20, 50, 644, 60);
-		add(scrollPane);
+		// Visor paginado del mensaje codificado
+		bitstreamViewer = new BitstreamViewer();
+		bitstreamViewer.setBounds(20, 22, 644, 88);
+		add(bitstreamViewer);
 		
 		// Panel de métricas
 		JPanel metricsSubPanel = new JPanel();
 		metricsSubPanel.setLayout(null);
-		metricsSubPanel.setBounds(20, 120, 644, 70);
+		metricsSubPanel.setBounds(20, 120, 644, 90);
 		metricsSubPanel.setBorder(new TitledBorder(null, "Métricas de Codificación", TitledBorder.LEADING, TitledBorder.TOP, null, null));
 		add(metricsSubPanel);
 		
@@ -81,14 +70,67 @@ public class MetricsPanel extends JPanel {
 		lblEfficiencyValue.setFont(new Font("Tahoma", Font.PLAIN, 11));
 		lblEfficiencyValue.setBounds(580, 25, 60, 20);
 		metricsSubPanel.add(lblEfficiencyValue);
+		
+		// Largo medio y eficiencia con tANS, debajo de los de Huffman
+		JLabel lblTansAverageLength = new JLabel("Largo tANS:");
+		lblTansAverageLength.setFont(new Font("Tahoma", Font.BOLD, 11));
+		lblTansAverageLength.setBounds(240, 45, 120, 20);
+		metricsSubPanel.add(lblTansAverageLength);
+		
+		lblTansAverageLengthValue = new JLabel("0.0000 bits");
+		lblTansAverageLengthValue.setFont(new Font("Tahoma", Font.PLAIN, 11));
+		lblTansAverageLengthValue.setBounds(360, 45, 100, 20);
+		metricsSubPanel.add(lblTansAverageLengthValue);
+		
+		JLabel lblTansEfficiency = new JLabel("Eficiencia tANS:");
+		lblTansEfficiency.setFont(new Font("Tahoma", Font.BOLD, 11));
+		lblTansEfficiency.setBounds(480, 45, 100, 20);
+		metricsSubPanel.add(lblTansEfficiency);
+		
+		lblTansEfficiencyValue = new JLabel("0.00%");
+		lblTansEfficiencyValue.setFont(new Font("Tahoma", Font.PLAIN, 11));
+		lblTansEfficiencyValue.setBounds(580, 45, 60, 20);
+		metricsSubPanel.add(lblTansEfficiencyValue);
+		
+		// Huffman de orden 1: tablas según el símbolo anterior
+		JLabel lblConditionalEntropy = new JLabel("H(S|anterior):");
+		lblConditionalEntropy.setFont(new Font("Tahoma", Font.BOLD, 11));
+		lblConditionalEntropy.setBounds(20, 45, 100, 20);
+		metricsSubPanel.add(lblConditionalEntropy);
+		
+		lblConditionalEntropyValue = new JLabel("0.0000 bits");
+		lblConditionalEntropyValue.setFont(new Font("Tahoma", Font.PLAIN, 11));
+		lblConditionalEntropyValue.setBounds(120, 45, 100, 20);
+		metricsSubPanel.add(lblConditionalEntropyValue);
+		
+		JLabel lblContextAverageLength = new JLabel("Largo por contexto:");
+		lblContextAverageLength.setFont(new Font("Tahoma", Font.BOLD, 11));
+		lblContextAverageLength.setBounds(240, 65, 120, 20);
+		metricsSubPanel.add(lblContextAverageLength);
+		
+		lblContextAverageLengthValue = new JLabel("0.0000 bits");
+		lblContextAverageLengthValue.setFont(new Font("Tahoma", Font.PLAIN, 11));
+		lblContextAverageLengthValue.setBounds(360, 65, 100, 20);
+		metricsSubPanel.add(lblContextAverageLengthValue);
+		
+		JLabel lblContextEfficiency = new JLabel("Eficiencia contexto:");
+		lblContextEfficiency.setFont(new Font("Tahoma", Font.BOLD, 11));
+		lblContextEfficiency.setBounds(480, 65, 100, 20);
+		metricsSubPanel.add(lblContextEfficiency);
+		
+		lblContextEfficiencyValue = new JLabel("0.00%");
+		lblContextEfficiencyValue.setFont(new Font("Tahoma", Font.PLAIN, 11));
+		lblContextEfficiencyValue.setBounds(580, 65, 60, 20);
+		metricsSubPanel.add(lblContextEfficiencyValue);
 	}
 	
 	/**
-	 * Establece el mensaje codificado
-	 * @param encodedMessage el mensaje en binario
+	 * Establece el mensaje codificado; solo se arma el texto de la página visible
+	 * @param encodedBits el mensaje empaquetado
+	 * @param bitLength la cantidad exacta de bits
 	 */
-	public void setEncodedMessage(String encodedMessage) {
-		textAreaEncodedMessage.setText(encodedMessage);
+	public void setEncodedMessage(byte[] encodedBits, long bitLength) {
+		bitstreamViewer.setBits(encodedBits, bitLength);
 	}
 	
 	/**
@@ -115,14 +157,47 @@ public class MetricsPanel extends JPanel {
 		lblEfficiencyValue.setText(String.format("%.2f%%", efficiency));
 	}
 	
+	/**
+	 * Establece el largo medio obtenido con tANS
+	 * @param averageLength valor del largo medio
+	 */
+	public void setTansAverageLength(double averageLength) {
+		lblTansAverageLengthValue.setText(String.format("%.4f bits", averageLength));
+	}
+	
+	/**
+	 * Establece la eficiencia obtenida con tANS
+	 * @param efficiency valor de la eficiencia en porcentaje
+	 */
+	public void setTansEfficiency(double efficiency) {
+		lblTansEfficiencyValue.setText(String.format("%.2f%%", efficiency));
+	}
+	
+	/**
+	 * Establece las métricas del Huffman de orden 1
+	 * @param conditionalEntropy la entropía condicional H(S | símbolo anterior)
+	 * @param averageLength el largo medio con tablas por contexto
+	 * @param efficiency la eficiencia frente a la entropía condicional, en porcentaje
+	 */
+	public void setContextMetrics(double conditionalEntropy, double averageLength, double efficiency) {
+		lblConditionalEntropyValue.setText(String.format("%.4f bits", conditionalEntropy));
+		lblContextAverageLengthValue.setText(String.format("%.4f bits", averageLength));
+		lblContextEfficiencyValue.setText(String.format("%.2f%%", efficiency));
+	}
+	
 	/**
 	 * Limpia todos los valores
 	 */
 	public void clearAll() {
-		textAreaEncodedMessage.setText("");
+		bitstreamViewer.clear();
 		lblEntropyValue.setText("0.0000 bits");
 		lblAverageLengthValue.setText("0.0000 bits");
 		lblEfficiencyValue.setText("0.00%");
+		lblTansAverageLengthValue.setText("0.0000 bits");
+		lblTansEfficiencyValue.setText("0.00%");
+		lblConditionalEntropyValue.setText("0.0000 bits");
+		lblContextAverageLengthValue.setText("0.0000 bits");
+		lblContextEfficiencyValue.setText("0.00%");
 	}
 }
 
@@ -3,10 +3,11 @@ package view;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.border.TitledBorder;
 import java.awt.Font;
 
+import modelo.HuffmanResult;
+
 /**
  * Panel para mostrar los resultados de la codificación
  */
@@ -14,23 +15,15 @@ public class ResultPanel extends JPanel {
 	
 	private static final long serialVersionUID = 1L;
 	private JTable table;
-	private DefaultTableModel tableModel;
+	private HuffmanTableModel tableModel;
 	
 	public ResultPanel() {
 		setLayout(null);
 		setBounds(10, 140, 684, 290);
 		setBorder(new TitledBorder(null, "Códigos de Huffman", TitledBorder.LEADING, TitledBorder.TOP, null, null));
 		
-		// Crear el modelo de la tabla
-		String[] columnNames = {"Símbolo", "Frecuencia", "Probabilidad", "Código Binario"};
-		tableModel = new DefaultTableModel(columnNames, 0) {
-			private static final long serialVersionUID = 1L;
-			
-			@Override
-			public boolean isCellEditable(int row, int column) {
-				return false; // Hacer la tabla no editable
-			}
-		};
+		// Crear el modelo de la tabla, que lee las filas del resultado
+		tableModel = new HuffmanTableModel();
 		
 		// Crear la tabla
 		table = new JTable(tableModel);
@@ -51,30 +44,25 @@ public class ResultPanel extends JPanel {
 	}
 	
 	/**
-	 * Agrega una fila a la tabla de resultados
-	 * @param symbol el símbolo
-	 * @param frequency la frecuencia del símbolo
-	 * @param probability la probabilidad del símbolo
-	 * @param code el código binario
+	 * Muestra los códigos de un resultado, con un solo evento para toda la tabla
+	 * @param result el resultado de la codificación
 	 */
-	public void addResult(String symbol, int frequency, double probability, String code) {
-		String symbolStr = (symbol.equals(" ")) ? "(Espacio)" : symbol;
-		Object[] row = {symbolStr, frequency, String.format("%.4f", probability), code};
-		tableModel.addRow(row);
+	public void setResult(HuffmanResult result) {
+		tableModel.setResult(result);
 	}
 	
 	/**
 	 * Limpia todos los resultados de la tabla
 	 */
 	public void clearResults() {
-		tableModel.setRowCount(0);
+		tableModel.setResult(null);
 	}
 	
 	/**
 	 * Obtiene el modelo de la tabla para manipulación avanzada
 	 * @return el modelo de la tabla
 	 */
-	public DefaultTableModel getTableModel() {
+	public HuffmanTableModel getTableModel() {
 		return tableModel;
 	}
 }
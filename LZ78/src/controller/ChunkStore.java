@@ -0,0 +1,507 @@
+package controller;
+
+import model.ContentDefinedChunker;
+import model.ContentHash;
+import model.LZ78StreamDecoder;
+import model.LZ78StreamEncoder;
+import model.OffHeapDictionary;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Almacén de bloques deduplicados delante de LZ78.
+ *
+ * Cada archivo se divide con {@link ContentDefinedChunker}; los bloques que
+ * el almacén no tiene se comprimen con LZ78 (o se guardan sin codificar si no
+ * se reducen) y se agregan a "chunks.dat". Un índice hash en disco,
+ * "chunks.idx", mapea el hash de 128 bits de cada bloque a su posición. El
+ * archivo queda representado por una receta (.lz78r) con la lista de hashes,
+ * así que versiones parecidas de un documento solo agregan los bloques que
+ * cambiaron y los bloques repetidos no se vuelven a comprimir.
+ */
+public class ChunkStore implements AutoCloseable {
+    public static final String RECIPE_EXTENSION = ".lz78r";
+    private static final String RECIPE_MAGIC_NUMBER = "LZ78R";
+    private static final String DATA_FILE = "chunks.dat";
+    private static final String INDEX_FILE = "chunks.idx";
+    private static final long HASH_SEED = 0x4C5A3738L;
+    private static final int RECORD_HEADER_BYTES = Long.BYTES * 2 + 1 + Integer.BYTES * 2;
+    private static final int PAIR_BYTES = Integer.BYTES + Character.BYTES;
+
+    private final File directory;
+    private final ContentDefinedChunker chunker;
+    private final FileChannel data;
+    private final HashIndex index;
+    private final OffHeapDictionary dictionary;
+    private final char[] chars;
+    private final ByteArrayOutputStream encoded;
+
+    /**
+     * Resultado de guardar un archivo en el almacén
+     */
+    public static class StoreResult {
+        private final long originalSize;
+        private final int chunkCount;
+        private final int newChunkCount;
+        private final long newBytes;
+        private final long storedBytes;
+        private final long elapsedMillis;
+
+        StoreResult(long originalSize, int chunkCount, int newChunkCount,
+                    long newBytes, long storedBytes, long elapsedMillis) {
+            this.originalSize = originalSize;
+            this.chunkCount = chunkCount;
+            this.newChunkCount = newChunkCount;
+            this.newBytes = newBytes;
+            this.storedBytes = storedBytes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getOriginalSize() {
+            return originalSize;
+        }
+
+        public int getChunkCount() {
+            return chunkCount;
+        }
+
+        public int getNewChunkCount() {
+            return newChunkCount;
+        }
+
+        /**
+         * @return Bytes originales de los bloques que no estaban en el almacén
+         */
+        public long getNewBytes() {
+            return newBytes;
+        }
+
+        /**
+         * @return Bytes agregados a chunks.dat (ya comprimidos)
+         */
+        public long getStoredBytes() {
+            return storedBytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * @return Porcentaje del archivo que ya estaba en el almacén
+         */
+        public double getDuplicatePercentage() {
+            return originalSize == 0 ? 0 : 100.0 * (originalSize - newBytes) / originalSize;
+        }
+
+        public String getSummary() {
+            return String.format("Bloques: %d (%d nuevos)%nDuplicado: %.2f%%%n"
+                    + "Bytes nuevos: %d -> %d almacenados%nTiempo: %d ms",
+                chunkCount, newChunkCount, getDuplicatePercentage(), newBytes, storedBytes, elapsedMillis);
+        }
+    }
+
+    /**
+     * Abre (o crea) un almacén en el directorio indicado
+     * @param directory Directorio del almacén
+     * @throws IOException Si no se puede crear o el índice está corrupto
+     */
+    public ChunkStore(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio del almacén: " + directory);
+        }
+        this.directory = directory;
+        this.chunker = new ContentDefinedChunker();
+        this.data = FileChannel.open(new File(directory, DATA_FILE).toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.index = new HashIndex(new File(directory, INDEX_FILE));
+        this.dictionary = new OffHeapDictionary();
+        this.chars = new char[chunker.getMaxSize()];
+        this.encoded = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Divide un archivo en bloques, guarda los que faltan y escribe su receta
+     * @param input Archivo a guardar
+     * @param recipe Archivo de receta a crear
+     * @param originalExtension Extensión original a guardar en la receta
+     * @return Estadísticas de deduplicación
+     * @throws IOException Si hay error al leer o escribir
+     */
+    public synchronized StoreResult store(File input, File recipe, String originalExtension) throws IOException {
+        long startTime = System.currentTimeMillis();
+        int maxSize = chunker.getMaxSize();
+        byte[] buffer = new byte[maxSize * 4];
+        int position = 0;
+        int limit = 0;
+        boolean endOfInput = false;
+
+        CRC32 crc = new CRC32();
+        ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+        DataOutputStream entries = new DataOutputStream(entryBytes);
+        long originalSize = 0;
+        int chunkCount = 0;
+        int newChunkCount = 0;
+        long newBytes = 0;
+        long storedBytes = 0;
+
+        try (InputStream in = new FileInputStream(input)) {
+            while (true) {
+                // Mantener al menos un bloque máximo disponible
+                if (!endOfInput && limit - position < maxSize) {
+                    System.arraycopy(buffer, position, buffer, 0, limit - position);
+                    limit -= position;
+                    position = 0;
+                    while (limit < buffer.length) {
+                        int read = in.read(buffer, limit, buffer.length - limit);
+                        if (read == -1) {
+                            endOfInput = true;
+                            break;
+                        }
+                        limit += read;
+                    }
+                }
+                if (position == limit) {
+                    break;
+                }
+
+                int length = chunker.nextChunkLength(buffer, position, limit - position);
+                long[] hash = ContentHash.hash128(buffer, position, length, HASH_SEED);
+                crc.update(buffer, position, length);
+                if (index.find(hash[0], hash[1]) < 0) {
+                    storedBytes += appendChunk(hash, buffer, position, length);
+                    newChunkCount++;
+                    newBytes += length;
+                }
+
+                entries.writeLong(hash[0]);
+                entries.writeLong(hash[1]);
+                entries.writeInt(length);
+                chunkCount++;
+                originalSize += length;
+                position += length;
+            }
+        }
+        data.force(false);
+        index.force();
+
+        try (DataOutputStream dos = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(recipe)))) {
+            dos.writeUTF(RECIPE_MAGIC_NUMBER);
+            dos.writeUTF(originalExtension != null ? originalExtension : "");
+            dos.writeLong(originalSize);
+            dos.writeInt((int) crc.getValue());
+            dos.writeInt(chunkCount);
+            entryBytes.writeTo(dos);
+        }
+
+        return new StoreResult(originalSize, chunkCount, newChunkCount, newBytes, storedBytes,
+            System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Comprime un bloque y lo agrega al final de chunks.dat
+     * @return Bytes agregados
+     */
+    private long appendChunk(long[] hash, byte[] buffer, int offset, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer[offset + i] & 0xFF);
+        }
+
+        encoded.reset();
+        DataOutputStream pairs = new DataOutputStream(encoded);
+        dictionary.clear();
+        LZ78StreamEncoder encoder = new LZ78StreamEncoder(dictionary);
+        LZ78StreamEncoder.PairSink sink = (pairIndex, character) -> {
+            pairs.writeInt(pairIndex);
+            pairs.writeChar(character);
+        };
+        encoder.encode(chars, 0, length, sink);
+        encoder.finish(sink);
+
+        boolean stored = encoder.getPairCount() * PAIR_BYTES >= length;
+        int dataLength = stored ? length : encoded.size();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + dataLength);
+        record.putLong(hash[0]).putLong(hash[1]);
+        record.put((byte) (stored ? 1 : 0));
+        record.putInt(length);
+        record.putInt(dataLength);
+        if (stored) {
+            record.put(buffer, offset, length);
+        } else {
+            record.put(encoded.toByteArray());
+        }
+        record.flip();
+
+        long recordOffset = data.size();
+        writeFully(record, recordOffset);
+        index.put(hash[0], hash[1], recordOffset);
+        return record.limit();
+    }
+
+    /**
+     * Reconstruye un archivo a partir de su receta
+     * @param recipe Receta creada por {@link #store}
+     * @param output Archivo de salida
+     * @return Extensión original guardada en la receta
+     * @throws IOException Si falta un bloque o los datos no coinciden
+     */
+    public synchronized String restore(File recipe, File output) throws IOException {
+        try (DataInputStream dis = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(recipe)));
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+            if (!RECIPE_MAGIC_NUMBER.equals(dis.readUTF())) {
+                throw new IOException("Archivo incompatible. No es una receta de bloques");
+            }
+            String originalExtension = dis.readUTF();
+            long originalSize = dis.readLong();
+            int expectedCrc = dis.readInt();
+            int chunkCount = dis.readInt();
+
+            CRC32 crc = new CRC32();
+            long written = 0;
+            for (int i = 0; i < chunkCount; i++) {
+                long h1 = dis.readLong();
+                long h2 = dis.readLong();
+                int length = dis.readInt();
+                byte[] chunk = readChunk(h1, h2, length);
+                out.write(chunk);
+                crc.update(chunk);
+                written += chunk.length;
+            }
+
+            if (written != originalSize || (int) crc.getValue() != expectedCrc) {
+                throw new IOException("Suma de verificación incorrecta al reconstruir el archivo");
+            }
+            return originalExtension;
+        } catch (EOFException e) {
+            throw new IOException("Receta corrupta: datos incompletos");
+        }
+    }
+
+    /**
+     * Lee y descomprime un bloque, verificando su hash
+     */
+    private byte[] readChunk(long h1, long h2, int length) throws IOException {
+        long offset = index.find(h1, h2);
+        if (offset < 0) {
+            throw new IOException(String.format("Bloque %016x%016x no encontrado en el almacén", h1, h2));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        readFully(header, offset);
+        header.flip();
+        if (header.getLong() != h1 || header.getLong() != h2) {
+            throw new IOException("Almacén corrupto: el índice apunta a otro bloque");
+        }
+        boolean stored = header.get() != 0;
+        int originalLength = header.getInt();
+        int dataLength = header.getInt();
+        if (originalLength != length || dataLength < 0) {
+            throw new IOException("Almacén corrupto: tamaño de bloque inválido");
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(dataLength);
+        readFully(body, offset + RECORD_HEADER_BYTES);
+        byte[] chunk;
+        if (stored) {
+            chunk = body.array();
+        } else {
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream(length);
+            Writer writer = new OutputStreamWriter(decoded, StandardCharsets.ISO_8859_1);
+            DataInputStream pairs = new DataInputStream(new ByteArrayInputStream(body.array()));
+            dictionary.clear();
+            LZ78StreamDecoder decoder = new LZ78StreamDecoder(dictionary);
+            try {
+                for (int i = 0; i < dataLength / PAIR_BYTES; i++) {
+                    decoder.decode(pairs.readInt(), pairs.readChar(), writer);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Almacén corrupto: " + e.getMessage());
+            }
+            writer.flush();
+            chunk = decoded.toByteArray();
+        }
+
+        long[] hash = ContentHash.hash128(chunk, 0, chunk.length, HASH_SEED);
+        if (chunk.length != length || hash[0] != h1 || hash[1] != h2) {
+            throw new IOException("Almacén corrupto: el bloque no coincide con su hash");
+        }
+        return chunk;
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += data.write(buffer, position);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = data.read(buffer, position);
+            if (read == -1) {
+                throw new IOException("Almacén corrupto: bloque incompleto");
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * @return Número de bloques únicos guardados
+     */
+    public synchronized long getChunkCount() {
+        return index.count;
+    }
+
+    /**
+     * @return Tamaño de chunks.dat en bytes
+     */
+    public synchronized long getDataBytes() throws IOException {
+        return data.size();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        data.force(false);
+        index.force();
+        data.close();
+        index.close();
+        dictionary.close();
+    }
+
+    /**
+     * Tabla hash de direccionamiento abierto mapeada en memoria.
+     * Encabezado: int mágico, int reservado, long número de entradas.
+     * Cada posición: long h1, long h2, long (posición del bloque + 1, 0 = libre).
+     */
+    private static class HashIndex {
+        private static final int MAGIC = 0x4C5A3749;
+        private static final int HEADER_BYTES = 16;
+        private static final int SLOT_BYTES = Long.BYTES * 3;
+        private static final long INITIAL_CAPACITY = 1 << 14;
+
+        private final File file;
+        private FileChannel channel;
+        private MappedByteBuffer buffer;
+        private long capacity;
+        private long count;
+
+        HashIndex(File file) throws IOException {
+            this.file = file;
+            boolean exists = file.exists() && file.length() > 0;
+            if (exists) {
+                long slots = (file.length() - HEADER_BYTES) / SLOT_BYTES;
+                if (file.length() != HEADER_BYTES + slots * SLOT_BYTES || Long.bitCount(slots) != 1) {
+                    throw new IOException("Índice de bloques corrupto: tamaño inválido");
+                }
+                map(file, slots);
+                if (buffer.getInt(0) != MAGIC) {
+                    close();
+                    throw new IOException("Índice de bloques corrupto: número mágico inválido");
+                }
+                count = buffer.getLong(8);
+            } else {
+                map(file, INITIAL_CAPACITY);
+                buffer.putInt(0, MAGIC);
+                buffer.putLong(8, 0);
+            }
+        }
+
+        private void map(File target, long slots) throws IOException {
+            channel = FileChannel.open(target.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                Math.toIntExact(HEADER_BYTES + slots * SLOT_BYTES));
+            capacity = slots;
+        }
+
+        /**
+         * @return Posición del bloque en chunks.dat, o -1 si no está
+         */
+        long find(long h1, long h2) {
+            long mask = capacity - 1;
+            long slot = h1 & mask;
+            while (true) {
+                int at = (int) (HEADER_BYTES + slot * SLOT_BYTES);
+                long stored = buffer.getLong(at + 16);
+                if (stored == 0) {
+                    return -1;
+                }
+                if (buffer.getLong(at) == h1 && buffer.getLong(at + 8) == h2) {
+                    return stored - 1;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        void put(long h1, long h2, long offset) throws IOException {
+            // Mantener el factor de carga por debajo de 1/2
+            if ((count + 1) * 2 > capacity) {
+                grow();
+            }
+            insert(h1, h2, offset + 1);
+            count++;
+            buffer.putLong(8, count);
+        }
+
+        private void insert(long h1, long h2, long stored) {
+            long mask = capacity - 1;
+            long slot = h1 & mask;
+            while (true) {
+                int at = (int) (HEADER_BYTES + slot * SLOT_BYTES);
+                if (buffer.getLong(at + 16) == 0) {
+                    buffer.putLong(at, h1);
+                    buffer.putLong(at + 8, h2);
+                    buffer.putLong(at + 16, stored);
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        /**
+         * Reconstruye la tabla con el doble de capacidad en un temporal y lo renombra
+         */
+        private void grow() throws IOException {
+            MappedByteBuffer old = buffer;
+            long oldCapacity = capacity;
+            FileChannel oldChannel = channel;
+
+            File temp = new File(file.getPath() + ".tmp");
+            Files.deleteIfExists(temp.toPath());
+            map(temp, oldCapacity * 2);
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(8, count);
+            for (long slot = 0; slot < oldCapacity; slot++) {
+                int at = (int) (HEADER_BYTES + slot * SLOT_BYTES);
+                long stored = old.getLong(at + 16);
+                if (stored != 0) {
+                    insert(old.getLong(at), old.getLong(at + 8), stored);
+                }
+            }
+            buffer.force();
+            oldChannel.close();
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
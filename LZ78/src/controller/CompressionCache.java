@@ -0,0 +1,177 @@
+package controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * Caché en disco de archivos .lz78 ya comprimidos, indexada por hash de contenido.
+ *
+ * Cada entrada se guarda como un archivo "<hash>.lz78" dentro del directorio
+ * de la caché. Un índice en memoria mantiene el orden de uso (LRU) y el tamaño
+ * total; al superar el límite se eliminan las entradas usadas hace más tiempo.
+ */
+public class CompressionCache {
+    private static final String ENTRY_EXTENSION = ".lz78";
+
+    private final File directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> index;
+    private long totalBytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Abre (o crea) una caché en el directorio indicado
+     * @param directory Directorio donde guardar las entradas
+     * @param maxBytes Tamaño máximo total en bytes
+     * @throws IOException Si el directorio no se puede crear
+     */
+    public CompressionCache(File directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser positivo");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio de caché: " + directory);
+        }
+
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.index = new LinkedHashMap<>(16, 0.75f, true);
+        rebuildIndex();
+    }
+
+    /**
+     * Reconstruye el índice a partir de los archivos existentes,
+     * del menos al más recientemente usado
+     */
+    private void rebuildIndex() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(ENTRY_EXTENSION));
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            String name = file.getName();
+            String key = name.substring(0, name.length() - ENTRY_EXTENSION.length());
+            index.put(key, file.length());
+            totalBytes += file.length();
+        }
+        evict();
+    }
+
+    /**
+     * Busca una entrada en la caché
+     * @param key Hash del contenido
+     * @return Bytes del archivo .lz78, o null si no está
+     * @throws IOException Si hay error al leer
+     */
+    public synchronized byte[] get(String key) throws IOException {
+        // get (y no containsKey) para que el LinkedHashMap registre el acceso
+        Long size = index.get(key);
+        if (size == null) {
+            misses++;
+            return null;
+        }
+
+        File file = entryFile(key);
+        if (!file.exists()) {
+            // La entrada se borró por fuera de la caché
+            index.remove(key);
+            totalBytes -= size;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        file.setLastModified(System.currentTimeMillis());
+        return Files.readAllBytes(file.toPath());
+    }
+
+    /**
+     * Guarda una entrada, eliminando las menos usadas si se supera el límite
+     * @param key Hash del contenido
+     * @param data Bytes del archivo .lz78
+     * @throws IOException Si hay error al escribir
+     */
+    public synchronized void put(String key, byte[] data) throws IOException {
+        if (data.length > maxBytes) {
+            return;
+        }
+
+        // Escribir en un temporal y renombrar para no dejar entradas a medias
+        File temp = File.createTempFile(key, ".tmp", directory);
+        try {
+            Files.write(temp.toPath(), data);
+            Files.move(temp.toPath(), entryFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            temp.delete();
+        }
+
+        Long previous = index.put(key, (long) data.length);
+        if (previous != null) {
+            totalBytes -= previous;
+        }
+        totalBytes += data.length;
+        evict();
+    }
+
+    /**
+     * Elimina las entradas menos usadas hasta quedar dentro del límite
+     */
+    private void evict() throws IOException {
+        Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            Files.deleteIfExists(entryFile(eldest.getKey()).toPath());
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Elimina todas las entradas y reinicia los contadores
+     * @throws IOException Si hay error al borrar
+     */
+    public synchronized void clear() throws IOException {
+        for (String key : index.keySet()) {
+            Files.deleteIfExists(entryFile(key).toPath());
+        }
+        index.clear();
+        totalBytes = 0;
+        hits = 0;
+        misses = 0;
+    }
+
+    private File entryFile(String key) {
+        return new File(directory, key + ENTRY_EXTENSION);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized int getEntryCount() {
+        return index.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("CompressionCache{entries=%d, bytes=%d/%d, hits=%d, misses=%d}",
+            index.size(), totalBytes, maxBytes, hits, misses);
+    }
+}
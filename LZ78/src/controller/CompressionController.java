@@ -2,6 +2,9 @@ package controller;
 
 import model.*;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
@@ -12,12 +15,22 @@ import java.util.List;
 public class CompressionController {
     private LZ78Compressor compressor;
     private LZ78Decompressor decompressor;
+    private CompressibilityEstimator estimator;
+    private PresetDictionary presetDictionary;
+    private CompressionCache cache;
+    private ChunkStore chunkStore;
+    private ContentSniffer sniffer;
     private static final String LZ78_EXTENSION = ".lz78";
     private static final String LZ78_MAGIC_NUMBER = "LZ78";
+    private static final String LZ78_PRESET_MAGIC_NUMBER = "LZ78P";
+    private static final String LZ78_STORED_MAGIC_NUMBER = "LZ78S";
+    static final String LZ78_FRAMED_MAGIC_NUMBER = "LZ78F";
 
     public CompressionController() {
         this.compressor = new LZ78Compressor();
         this.decompressor = new LZ78Decompressor();
+        this.estimator = new CompressibilityEstimator(compressor, 16 * 1024, 8);
+        this.sniffer = new ContentSniffer(estimator);
     }
 
     /**
@@ -105,7 +118,20 @@ public class CompressionController {
         if (!compressor.validateText(text)) {
             throw new IllegalArgumentException("El texto es inválido o está vacío");
         }
-        return compressor.compress(text);
+        return compressor.compress(text, presetDictionary);
+    }
+
+    /**
+     * Estima rápidamente la compresibilidad de un texto sin comprimirlo completo
+     * @param text Texto a analizar
+     * @return Estimación con banda de confianza
+     * @throws IllegalArgumentException Si el texto es inválido
+     */
+    public CompressibilityEstimator.Estimate estimateCompressibility(String text) {
+        if (!compressor.validateText(text)) {
+            throw new IllegalArgumentException("El texto es inválido o está vacío");
+        }
+        return estimator.estimate(text);
     }
 
     /**
@@ -120,38 +146,662 @@ public class CompressionController {
             outputPath += LZ78_EXTENSION;
         }
 
+        if (result.isStored()) {
+            saveStoredFile(result.getSourcePath(), outputPath, originalExtension);
+            return;
+        }
+
         try (DataOutputStream dos = new DataOutputStream(
                 new BufferedOutputStream(new FileOutputStream(outputPath)))) {
-            
-            // Escribir número mágico
-            dos.writeUTF(LZ78_MAGIC_NUMBER);
-            
-            // Escribir extensión original (nueva)
+            writeCompressedData(dos, result, originalExtension);
+        }
+    }
+
+    /**
+     * Detecta si un archivo no se puede comprimir (formato ya comprimido o
+     * entropía alta) y debe guardarse en modo almacenado
+     * @param filePath Ruta del archivo
+     * @return Motivo para almacenarlo, o null si conviene comprimirlo
+     * @throws IOException Si hay error al leer
+     */
+    public String detectIncompressible(String filePath) throws IOException {
+        return sniffer.detectIncompressible(new File(filePath));
+    }
+
+    /**
+     * Crea el resultado de un archivo en modo almacenado, sin leer su contenido
+     * @param filePath Ruta del archivo original
+     * @param reason Motivo por el que se almacena
+     * @return Resultado marcado como almacenado
+     */
+    public CompressionResult createStoredResult(String filePath, String reason) {
+        File file = new File(filePath);
+        CompressionResult result = new CompressionResult();
+        result.setStored(true);
+        result.setStoredReason(reason);
+        result.setSourcePath(file.getAbsolutePath());
+        result.setOriginalSize(file.length());
+        result.setCompressedSize(file.length());
+        return result;
+    }
+
+    /**
+     * Guarda un archivo en modo almacenado: encabezado seguido de los bytes
+     * originales, copiados con FileChannel.transferTo sin pasar por el heap
+     */
+    private void saveStoredFile(String sourcePath, String outputPath, String originalExtension) throws IOException {
+        try (FileInputStream fis = new FileInputStream(sourcePath);
+             FileOutputStream fos = new FileOutputStream(outputPath)) {
+            FileChannel source = fis.getChannel();
+            long size = source.size();
+
+            DataOutputStream dos = new DataOutputStream(fos);
+            dos.writeUTF(LZ78_STORED_MAGIC_NUMBER);
             dos.writeUTF(originalExtension != null ? originalExtension : "");
-            
-            // Escribir tamaño original
-            dos.writeLong(result.getOriginalSize());
-            
-            // Escribir número de pares
-            List<CompressionResult.EncodedPair> encodedData = result.getEncodedData();
-            dos.writeInt(encodedData.size());
-            
-            // Escribir cada par
-            for (CompressionResult.EncodedPair pair : encodedData) {
-                dos.writeInt(pair.getIndex());
-                dos.writeChar(pair.getCharacter());
-            }
-            
+            dos.writeLong(size);
             dos.flush();
+
+            transferFully(source, 0, size, fos.getChannel());
         }
     }
 
     /**
-     * Carga un archivo comprimido .lz78 con extensión original
+     * Verifica si un archivo .lz78 está en modo almacenado
      * @param filePath Ruta del archivo
-     * @return Array con [0]=extensión original, [1]=datos codificados
+     * @return true si el contenido está almacenado sin codificar
+     * @throws IOException Si hay error al leer
+     */
+    public boolean isStoredFile(String filePath) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new FileInputStream(filePath))) {
+            return LZ78_STORED_MAGIC_NUMBER.equals(dis.readUTF());
+        } catch (EOFException | UTFDataFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Lee el encabezado de un archivo en modo almacenado
+     * @param filePath Ruta del archivo .lz78
+     * @return Array con [0]=extensión original, [1]=tamaño original (Long)
      * @throws IOException Si hay error al leer o el formato es incorrecto
      */
+    public Object[] loadStoredFileInfo(String filePath) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(filePath, "r")) {
+            if (!LZ78_STORED_MAGIC_NUMBER.equals(raf.readUTF())) {
+                throw new IOException("El archivo no está en modo almacenado");
+            }
+            String originalExtension = raf.readUTF();
+            long size = raf.readLong();
+            if (size != raf.length() - raf.getFilePointer()) {
+                throw new IOException("Archivo corrupto: tamaño almacenado inválido");
+            }
+            return new Object[]{originalExtension, size};
+        } catch (EOFException e) {
+            throw new IOException("Archivo corrupto: fin de archivo inesperado");
+        }
+    }
+
+    /**
+     * Extrae un archivo en modo almacenado copiando los bytes con
+     * FileChannel.transferTo, sin decodificar
+     * @param filePath Ruta del archivo .lz78
+     * @param outputPath Ruta donde guardar el archivo original
+     * @throws IOException Si hay error al leer, escribir o el formato es incorrecto
+     */
+    public void extractStoredFile(String filePath, String outputPath) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(filePath, "r");
+             FileOutputStream fos = new FileOutputStream(outputPath)) {
+            if (!LZ78_STORED_MAGIC_NUMBER.equals(raf.readUTF())) {
+                throw new IOException("El archivo no está en modo almacenado");
+            }
+            raf.readUTF();
+            long size = raf.readLong();
+            long offset = raf.getFilePointer();
+            if (size != raf.length() - offset) {
+                throw new IOException("Archivo corrupto: tamaño almacenado inválido");
+            }
+            transferFully(raf.getChannel(), offset, size, fos.getChannel());
+        } catch (EOFException e) {
+            throw new IOException("Archivo corrupto: fin de archivo inesperado");
+        }
+    }
+
+    /**
+     * Copia un rango de un canal a otro; transferTo puede copiar menos
+     * bytes de los pedidos, por lo que se repite hasta terminar
+     */
+    private void transferFully(FileChannel source, long position, long count, WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long n = source.transferTo(position + transferred, count - transferred, target);
+            if (n <= 0) {
+                throw new IOException("No se pudo copiar el contenido almacenado");
+            }
+            transferred += n;
+        }
+    }
+
+    /**
+     * Escribe el resultado de la compresión en formato .lz78
+     * @param dos Flujo de salida
+     * @param result Resultado de la compresión
+     * @param originalExtension Extensión original del archivo
+     * @throws IOException Si hay error al escribir
+     */
+    private void writeCompressedData(DataOutputStream dos, CompressionResult result, String originalExtension) throws IOException {
+        PresetDictionary preset = result.getPresetDictionary();
+        
+        // Escribir número mágico
+        dos.writeUTF(preset != null ? LZ78_PRESET_MAGIC_NUMBER : LZ78_MAGIC_NUMBER);
+        
+        // Escribir extensión original (nueva)
+        dos.writeUTF(originalExtension != null ? originalExtension : "");
+        
+        // Referencia al diccionario predefinido por id y checksum
+        if (preset != null) {
+            dos.writeUTF(preset.getId());
+            dos.writeLong(preset.getChecksum());
+        }
+        
+        // Escribir tamaño original
+        dos.writeLong(result.getOriginalSize());
+        
+        // Escribir número de pares
+        List<CompressionResult.EncodedPair> encodedData = result.getEncodedData();
+        dos.writeInt(encodedData.size());
+        
+        // Escribir cada par
+        for (CompressionResult.EncodedPair pair : encodedData) {
+            dos.writeInt(pair.getIndex());
+            dos.writeChar(pair.getCharacter());
+        }
+        
+        dos.flush();
+    }
+
+    /**
+     * Comprime un texto y retorna directamente los bytes del archivo .lz78.
+     * Si la caché está activa y el contenido ya se comprimió antes, se
+     * retornan los bytes guardados sin volver a comprimir.
+     * @param text Texto a comprimir
+     * @param originalExtension Extensión original del archivo (ej: ".txt", ".docx")
+     * @return Bytes del archivo .lz78
+     * @throws IOException Si hay error al leer o escribir la caché
+     * @throws IllegalArgumentException Si el texto es inválido
+     */
+    public byte[] compressToBytes(String text, String originalExtension) throws IOException {
+        String key = null;
+        if (cache != null) {
+            key = cacheKey(text, originalExtension);
+            byte[] cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        CompressionResult result = compressText(text);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(bytes)) {
+            writeCompressedData(dos, result, originalExtension);
+        }
+        byte[] data = bytes.toByteArray();
+
+        if (cache != null) {
+            cache.put(key, data);
+        }
+        return data;
+    }
+
+    /**
+     * Guarda bytes .lz78 ya generados (por ejemplo, obtenidos de la caché)
+     * @param data Bytes del archivo .lz78
+     * @param outputPath Ruta donde guardar
+     * @throws IOException Si hay error al escribir
+     */
+    public void saveCompressedBytes(byte[] data, String outputPath) throws IOException {
+        if (!outputPath.toLowerCase().endsWith(LZ78_EXTENSION)) {
+            outputPath += LZ78_EXTENSION;
+        }
+        try (FileOutputStream fos = new FileOutputStream(outputPath)) {
+            fos.write(data);
+        }
+    }
+
+    /**
+     * Calcula la clave de caché: hash del contenido con una semilla que
+     * depende de la extensión y del diccionario predefinido, ya que ambos
+     * forman parte del archivo .lz78 generado
+     */
+    private String cacheKey(String text, String originalExtension) {
+        String variant = (originalExtension != null ? originalExtension : "") + "|" +
+            (presetDictionary != null ? presetDictionary.getId() + ":" + presetDictionary.getChecksum() : "");
+        long seed = ContentHash.hash128(variant, 0)[0];
+        return ContentHash.hash128Hex(text, seed);
+    }
+
+    /**
+     * Activa la caché de resultados en disco
+     * @param directoryPath Directorio de la caché
+     * @param maxBytes Tamaño máximo total en bytes
+     * @throws IOException Si el directorio no se puede crear
+     */
+    public void enableCache(String directoryPath, long maxBytes) throws IOException {
+        this.cache = new CompressionCache(new File(directoryPath), maxBytes);
+    }
+
+    /**
+     * Desactiva la caché de resultados (las entradas en disco se conservan)
+     */
+    public void disableCache() {
+        this.cache = null;
+    }
+
+    /**
+     * Obtiene la caché de resultados (null si está desactivada)
+     */
+    public CompressionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Abre el almacén de bloques deduplicados (lo crea si no existe)
+     * @param directoryPath Directorio del almacén
+     * @throws IOException Si el directorio o el índice no se pueden abrir
+     */
+    public void openChunkStore(String directoryPath) throws IOException {
+        closeChunkStore();
+        this.chunkStore = new ChunkStore(new File(directoryPath));
+    }
+
+    /**
+     * Cierra el almacén de bloques (los datos en disco se conservan)
+     */
+    public void closeChunkStore() throws IOException {
+        if (chunkStore != null) {
+            chunkStore.close();
+            chunkStore = null;
+        }
+    }
+
+    /**
+     * Obtiene el almacén de bloques (null si está cerrado)
+     */
+    public ChunkStore getChunkStore() {
+        return chunkStore;
+    }
+
+    /**
+     * Guarda un archivo en el almacén de bloques y escribe su receta
+     * @param inputPath Archivo a guardar
+     * @param recipePath Ruta de la receta (.lz78r)
+     * @return Estadísticas de deduplicación
+     * @throws IOException Si el almacén está cerrado o hay error al leer o escribir
+     */
+    public ChunkStore.StoreResult storeDeduplicated(String inputPath, String recipePath) throws IOException {
+        if (chunkStore == null) {
+            throw new IOException("El almacén de bloques no está abierto");
+        }
+        File file = new File(inputPath);
+        if (!file.exists()) {
+            throw new IOException("El archivo no existe");
+        }
+        if (!recipePath.toLowerCase().endsWith(ChunkStore.RECIPE_EXTENSION)) {
+            recipePath += ChunkStore.RECIPE_EXTENSION;
+        }
+        return chunkStore.store(file, new File(recipePath), getExtension(file.getName()));
+    }
+
+    /**
+     * Reconstruye un archivo a partir de su receta
+     * @param recipePath Ruta de la receta (.lz78r)
+     * @param outputPath Archivo de salida
+     * @return Extensión original del archivo
+     * @throws IOException Si el almacén está cerrado, falta un bloque o hay error al escribir
+     */
+    public String restoreDeduplicated(String recipePath, String outputPath) throws IOException {
+        if (chunkStore == null) {
+            throw new IOException("El almacén de bloques no está abierto");
+        }
+        return chunkStore.restore(new File(recipePath), new File(outputPath));
+    }
+
+    /**
+     * Comprime un archivo por flujo, sin cargarlo en memoria, con el
+     * diccionario fuera del heap. Genera el mismo formato .lz78 que
+     * saveCompressedFile, por lo que sirve para archivos de varios GB.
+     * Si el contenido no se puede comprimir se guarda en modo almacenado.
+     * @param inputPath Ruta del archivo a comprimir
+     * @param outputPath Ruta donde guardar el .lz78
+     * @param mappedScratch true para respaldar el diccionario en un archivo
+     *        temporal mapeado en memoria en lugar de memoria directa
+     * @return Resultado con tamaños y número de pares
+     * @throws IOException Si hay error al leer o escribir
+     */
+    public CompressionResult compressFileStreaming(String inputPath, String outputPath,
+                                                   boolean mappedScratch) throws IOException {
+        File file = new File(inputPath);
+        if (!file.exists()) {
+            throw new IOException("El archivo no existe");
+        }
+        if (file.length() == 0) {
+            throw new IOException("El archivo está vacío");
+        }
+        if (!outputPath.toLowerCase().endsWith(LZ78_EXTENSION)) {
+            outputPath += LZ78_EXTENSION;
+        }
+
+        String originalExtension = getExtension(file.getName());
+
+        // El contenido que no se puede comprimir se copia en modo almacenado
+        String storedReason = detectIncompressible(inputPath);
+        if (storedReason != null) {
+            saveStoredFile(inputPath, outputPath, originalExtension);
+            return createStoredResult(inputPath, storedReason);
+        }
+
+        long sizePosition;
+        CompressionResult result;
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(
+                 new FileInputStream(file), charsetFor(originalExtension)));
+             DataOutputStream dos = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(outputPath)));
+             OffHeapDictionary dictionary = createScratchDictionary(mappedScratch)) {
+
+            dos.writeUTF(LZ78_MAGIC_NUMBER);
+            dos.writeUTF(originalExtension);
+
+            // El tamaño y el número de pares se completan al final
+            sizePosition = dos.size();
+            dos.writeLong(0);
+            dos.writeInt(0);
+
+            result = compressor.compressStream(reader, (index, character) -> {
+                dos.writeInt(index);
+                dos.writeChar(character);
+            }, dictionary);
+        }
+
+        if (result.getPairCount() > Integer.MAX_VALUE) {
+            throw new IOException("El archivo genera demasiados pares para el formato .lz78");
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(outputPath, "rw")) {
+            raf.seek(sizePosition);
+            raf.writeLong(result.getOriginalSize());
+            raf.writeInt((int) result.getPairCount());
+        }
+        return result;
+    }
+
+    /**
+     * Descomprime un archivo .lz78 por flujo, sin cargarlo en memoria, con el
+     * diccionario fuera del heap
+     * @param inputPath Ruta del archivo .lz78
+     * @param outputPath Ruta donde guardar el archivo descomprimido
+     * @param mappedScratch true para respaldar el diccionario en un archivo
+     *        temporal mapeado en memoria en lugar de memoria directa
+     * @return Resultado con tamaños y número de pares
+     * @throws IOException Si hay error al leer, escribir o el formato es incorrecto
+     */
+    public CompressionResult decompressFileStreaming(String inputPath, String outputPath,
+                                                     boolean mappedScratch) throws IOException {
+        if (!isValidLZ78File(inputPath) || !new File(inputPath).exists()) {
+            throw new IOException("Formato de archivo incorrecto. Se esperaba extensión .lz78");
+        }
+
+        if (isStoredFile(inputPath)) {
+            extractStoredFile(inputPath, outputPath);
+            CompressionResult result = createStoredResult(outputPath, "archivo en modo almacenado");
+            result.setCompressedSize(new File(inputPath).length());
+            return result;
+        }
+
+        try (DataInputStream dis = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(inputPath)))) {
+            String magicNumber = dis.readUTF();
+            if (LZ78_PRESET_MAGIC_NUMBER.equals(magicNumber)) {
+                throw new IOException("Los archivos con diccionario predefinido se descomprimen en memoria");
+            }
+            if (LZ78Archive.ARCHIVE_MAGIC_NUMBER.equals(magicNumber)) {
+                throw new IOException("El archivo contiene múltiples entradas; use la extracción de archivos");
+            }
+            if (LZ78_FRAMED_MAGIC_NUMBER.equals(magicNumber)) {
+                return decompressFramed(dis, outputPath, mappedScratch);
+            }
+            if (!LZ78_MAGIC_NUMBER.equals(magicNumber)) {
+                throw new IOException("Archivo incompatible. No es un archivo LZ78 válido");
+            }
+            String originalExtension = dis.readUTF();
+            dis.readLong();
+            int pairCount = dis.readInt();
+            if (pairCount <= 0) {
+                throw new IOException("Archivo corrupto: número de pares inválido");
+            }
+
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                     new FileOutputStream(outputPath), charsetFor(originalExtension)));
+                 OffHeapDictionary dictionary = createScratchDictionary(mappedScratch)) {
+                return decompressor.decompressStream(dis, pairCount, writer, dictionary);
+            }
+        } catch (EOFException e) {
+            throw new IOException("Archivo corrupto: fin de archivo inesperado");
+        }
+    }
+
+    /**
+     * Descomprime el contenido de un archivo por tramas, continuando el
+     * mismo diccionario de una trama a la siguiente
+     */
+    private CompressionResult decompressFramed(DataInputStream dis, String outputPath,
+                                               boolean mappedScratch) throws IOException {
+        dis.readUTF();
+        Charset charset = Charset.forName(dis.readUTF());
+
+        long pairTotal = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                 new FileOutputStream(outputPath), charset));
+             OffHeapDictionary dictionary = createScratchDictionary(mappedScratch)) {
+            LZ78StreamDecoder decoder = new LZ78StreamDecoder(dictionary);
+            int pairCount;
+            while ((pairCount = readFramePairCount(dis)) != -1) {
+                dis.readInt();
+                for (int i = 0; i < pairCount; i++) {
+                    int index = dis.readInt();
+                    char character = dis.readChar();
+                    decoder.decode(index, character, writer);
+                }
+                pairTotal += pairCount;
+            }
+            if (pairTotal == 0) {
+                throw new IOException("Archivo corrupto: número de pares inválido");
+            }
+
+            CompressionResult result = new CompressionResult();
+            result.setOriginalSize(decoder.getOutputChars());
+            result.setPairCount(pairTotal);
+            result.setCompressedSize(new File(outputPath).length());
+            return result;
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
+    /**
+     * Lee el número de pares de la siguiente trama
+     * @return Número de pares, o -1 si se llegó al final del archivo
+     */
+    private int readFramePairCount(DataInputStream dis) throws IOException {
+        int first = dis.read();
+        if (first == -1) {
+            return -1;
+        }
+        int pairCount = (first << 24) | (dis.readUnsignedByte() << 16)
+            | (dis.readUnsignedByte() << 8) | dis.readUnsignedByte();
+        if (pairCount < 0) {
+            throw new IOException("Archivo corrupto: número de pares inválido");
+        }
+        return pairCount;
+    }
+
+    /**
+     * Comprime un archivo con lectura, compresión y escritura en hilos
+     * separados conectados por colas acotadas. Las tramas se escriben a
+     * medida que se comprimen, así que la salida empieza a generarse antes
+     * de terminar de leer la entrada.
+     * @param inputPath Ruta del archivo a comprimir
+     * @param outputPath Ruta donde guardar el .lz78 (formato por tramas)
+     * @return Resultado con tamaños y número de pares
+     * @throws IOException Si hay error al leer o escribir
+     */
+    public CompressionResult compressFilePipelined(String inputPath, String outputPath) throws IOException {
+        File file = new File(inputPath);
+        if (!file.exists()) {
+            throw new IOException("El archivo no existe");
+        }
+        if (file.length() == 0) {
+            throw new IOException("El archivo está vacío");
+        }
+        if (!outputPath.toLowerCase().endsWith(LZ78_EXTENSION)) {
+            outputPath += LZ78_EXTENSION;
+        }
+
+        String originalExtension = getExtension(file.getName());
+        String storedReason = detectIncompressible(inputPath);
+        if (storedReason != null) {
+            saveStoredFile(inputPath, outputPath, originalExtension);
+            return createStoredResult(inputPath, storedReason);
+        }
+
+        Charset charset = charsetFor(originalExtension);
+        CompressionResult result = new CompressionResult();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), charset);
+             DataOutputStream dos = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(outputPath)));
+             OffHeapDictionary dictionary = new OffHeapDictionary()) {
+
+            writeFramedHeader(dos, originalExtension, charset);
+            LZ78StreamEncoder encoder = new LZ78StreamEncoder(dictionary);
+            new CompressionPipeline().run(reader, dos, encoder);
+
+            result.setOriginalSize(encoder.getInputChars());
+            result.setPairCount(encoder.getPairCount());
+        }
+
+        // dos.size() satura en Integer.MAX_VALUE: el tamaño se toma del archivo ya cerrado
+        result.setCompressedSize(new File(outputPath).length());
+        return result;
+    }
+
+    /**
+     * Escribe el encabezado del formato por tramas
+     */
+    static void writeFramedHeader(DataOutputStream dos, String originalExtension, Charset charset) throws IOException {
+        dos.writeUTF(LZ78_FRAMED_MAGIC_NUMBER);
+        dos.writeUTF(originalExtension != null ? originalExtension : "");
+        dos.writeUTF(charset.name());
+        dos.flush();
+    }
+
+    /**
+     * Comprime en modo anexar: solo codifica los bytes agregados al archivo
+     * desde la ejecución anterior, continuando el diccionario guardado junto
+     * al .lz78. El resultado se descomprime como cualquier archivo por tramas.
+     * @param inputPath Archivo que crece (por ejemplo, un log)
+     * @param outputPath Ruta del .lz78
+     * @return Resultado acumulado de todo el archivo
+     * @throws IOException Si hay error al leer o escribir
+     */
+    public CompressionResult compressFileAppend(String inputPath, String outputPath) throws IOException {
+        if (!outputPath.toLowerCase().endsWith(LZ78_EXTENSION)) {
+            outputPath += LZ78_EXTENSION;
+        }
+        String originalExtension = getExtension(new File(inputPath).getName());
+        return new LZ78AppendWriter(new File(outputPath))
+            .append(new File(inputPath), originalExtension, charsetFor(originalExtension));
+    }
+
+    /**
+     * Crea un .lz78 con múltiples entradas a partir de un directorio o archivo
+     * @param inputPath Directorio (se incluyen sus subdirectorios) o archivo
+     * @param outputPath Ruta del archivo de salida
+     * @return Entradas del directorio central
+     * @throws IOException Si hay error al leer o escribir
+     */
+    public List<LZ78Archive.Entry> createArchive(String inputPath, String outputPath) throws IOException {
+        if (!outputPath.toLowerCase().endsWith(LZ78_EXTENSION)) {
+            outputPath += LZ78_EXTENSION;
+        }
+        return LZ78Archive.create(new File(inputPath), new File(outputPath));
+    }
+
+    /**
+     * Lista las entradas de un .lz78 con múltiples entradas sin descomprimirlas
+     */
+    public List<LZ78Archive.Entry> listArchive(String archivePath) throws IOException {
+        try (LZ78Archive archive = LZ78Archive.open(new File(archivePath))) {
+            return archive.getEntries();
+        }
+    }
+
+    /**
+     * Extrae una sola entrada de un .lz78 con múltiples entradas
+     */
+    public void extractArchiveEntry(String archivePath, String entryName, String outputPath) throws IOException {
+        try (LZ78Archive archive = LZ78Archive.open(new File(archivePath))) {
+            archive.extract(entryName, new File(outputPath));
+        }
+    }
+
+    /**
+     * Extrae todas las entradas en paralelo, un hilo por procesador
+     */
+    public void extractArchive(String archivePath, String outputDirectory) throws IOException {
+        try (LZ78Archive archive = LZ78Archive.open(new File(archivePath))) {
+            archive.extractAll(new File(outputDirectory), Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Crea un diccionario fuera del heap, en memoria directa o en un
+     * archivo temporal mapeado que se elimina al cerrarlo
+     */
+    private OffHeapDictionary createScratchDictionary(boolean mappedScratch) throws IOException {
+        if (!mappedScratch) {
+            return new OffHeapDictionary();
+        }
+        File base = File.createTempFile("lz78-dict", "");
+        base.delete();
+        return new OffHeapDictionary(base, false);
+    }
+
+    /**
+     * Juego de caracteres con el que se leen y escriben los archivos por flujo:
+     * UTF-8 para texto (igual que loadTextFile) y ISO-8859-1 para binarios,
+     * que convierte cada byte en un carácter 0-255 (igual que loadBinaryFile)
+     */
+    private Charset charsetFor(String extension) {
+        return ".txt".equalsIgnoreCase(extension) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Obtiene la extensión de un archivo con punto (ej: ".txt"), o "" si no tiene
+     */
+    private String getExtension(String fileName) {
+        int lastDot = fileName.lastIndexOf('.');
+        if (lastDot > 0 && lastDot < fileName.length() - 1) {
+            return fileName.substring(lastDot);
+        }
+        return "";
+    }
+
+    /**
+     * Carga un archivo comprimido .lz78 con extensión original
+     * @param filePath Ruta del archivo
+     * @return Array con [0]=extensión original, [1]=datos codificados,
+     *         [2]=diccionario predefinido requerido (null si no usa)
+     * @throws IOException Si hay error al leer, el formato es incorrecto
+     *         o no está cargado el diccionario predefinido requerido
+     */
     public Object[] loadCompressedFileWithExtension(String filePath) throws IOException {
         File file = new File(filePath);
         
@@ -169,19 +819,56 @@ public class CompressionController {
 
         List<CompressionResult.EncodedPair> encodedData = new ArrayList<>();
         String originalExtension = "";
+        PresetDictionary requiredPreset = null;
 
         try (DataInputStream dis = new DataInputStream(
                 new BufferedInputStream(new FileInputStream(file)))) {
             
             // Leer y verificar número mágico
             String magicNumber = dis.readUTF();
-            if (!LZ78_MAGIC_NUMBER.equals(magicNumber)) {
+            if (LZ78_STORED_MAGIC_NUMBER.equals(magicNumber)) {
+                throw new IOException("El archivo está en modo almacenado y no contiene pares codificados");
+            }
+            if (LZ78Archive.ARCHIVE_MAGIC_NUMBER.equals(magicNumber)) {
+                throw new IOException("El archivo contiene múltiples entradas; use la extracción de archivos");
+            }
+            if (LZ78_FRAMED_MAGIC_NUMBER.equals(magicNumber)) {
+                // Formato por tramas: extensión, juego de caracteres y tramas hasta el final
+                originalExtension = dis.readUTF();
+                dis.readUTF();
+                int pairCount;
+                while ((pairCount = readFramePairCount(dis)) != -1) {
+                    dis.readInt();
+                    for (int i = 0; i < pairCount; i++) {
+                        int index = dis.readInt();
+                        char character = dis.readChar();
+                        encodedData.add(new CompressionResult.EncodedPair(index, character));
+                    }
+                }
+                if (encodedData.isEmpty()) {
+                    throw new IOException("Archivo corrupto: número de pares inválido");
+                }
+                return new Object[]{originalExtension, encodedData, null};
+            }
+            boolean usesPreset = LZ78_PRESET_MAGIC_NUMBER.equals(magicNumber);
+            if (!LZ78_MAGIC_NUMBER.equals(magicNumber) && !usesPreset) {
                 throw new IOException("Archivo incompatible. No es un archivo LZ78 válido");
             }
             
             // Leer extensión original
             originalExtension = dis.readUTF();
             
+            // Verificar que el diccionario predefinido cargado sea el mismo
+            if (usesPreset) {
+                String presetId = dis.readUTF();
+                long presetChecksum = dis.readLong();
+                if (presetDictionary == null || !presetDictionary.matches(presetId, presetChecksum)) {
+                    throw new IOException(String.format(
+                        "El archivo requiere el diccionario predefinido '%s' (crc %08x)", presetId, presetChecksum));
+                }
+                requiredPreset = presetDictionary;
+            }
+            
             // Leer tamaño original (solo para información)
             dis.readLong();
             
@@ -202,7 +889,7 @@ public class CompressionController {
             throw new IOException("Archivo corrupto: fin de archivo inesperado");
         }
 
-        return new Object[]{originalExtension, encodedData};
+        return new Object[]{originalExtension, encodedData, requiredPreset};
     }
 
     /**
@@ -226,6 +913,65 @@ public class CompressionController {
         return decompressor.decompress(encodedData);
     }
 
+    /**
+     * Descomprime datos codificados con un diccionario predefinido
+     * @param encodedData Datos a descomprimir
+     * @param preset Diccionario predefinido requerido por el archivo (null si no usa)
+     * @return Resultado de la descompresión
+     */
+    public CompressionResult decompressData(List<CompressionResult.EncodedPair> encodedData, PresetDictionary preset) {
+        return decompressor.decompress(encodedData, preset);
+    }
+
+    /**
+     * Entrena un diccionario predefinido a partir de archivos de ejemplo y lo guarda
+     * @param samplePaths Rutas de los archivos del corpus
+     * @param id Identificador del diccionario
+     * @param maxEntries Número máximo de entradas
+     * @param outputPath Ruta donde guardar el archivo .lz78d
+     * @return Diccionario entrenado
+     * @throws IOException Si hay error al leer o escribir
+     */
+    public PresetDictionary trainPresetDictionary(List<String> samplePaths, String id, int maxEntries,
+                                                  String outputPath) throws IOException {
+        List<String> corpus = new ArrayList<>();
+        for (String path : samplePaths) {
+            corpus.add(path.toLowerCase().endsWith(".txt") ? loadTextFile(path) : loadBinaryFile(path));
+        }
+
+        PresetDictionary preset = PresetDictionary.train(id, corpus, maxEntries);
+        if (!outputPath.toLowerCase().endsWith(PresetDictionary.FILE_EXTENSION)) {
+            outputPath += PresetDictionary.FILE_EXTENSION;
+        }
+        preset.save(outputPath);
+        return preset;
+    }
+
+    /**
+     * Carga un diccionario predefinido y lo usa en las siguientes compresiones
+     * @param filePath Ruta del archivo .lz78d
+     * @return Diccionario cargado
+     * @throws IOException Si el archivo no es válido
+     */
+    public PresetDictionary loadPresetDictionary(String filePath) throws IOException {
+        presetDictionary = PresetDictionary.load(filePath);
+        return presetDictionary;
+    }
+
+    /**
+     * Establece el diccionario predefinido (null para comprimir desde cero)
+     */
+    public void setPresetDictionary(PresetDictionary presetDictionary) {
+        this.presetDictionary = presetDictionary;
+    }
+
+    /**
+     * Obtiene el diccionario predefinido actual
+     */
+    public PresetDictionary getPresetDictionary() {
+        return presetDictionary;
+    }
+
     /**
      * Guarda el texto descomprimido en un archivo
      * @param text Texto a guardar
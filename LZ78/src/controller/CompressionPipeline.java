@@ -0,0 +1,259 @@
+package controller;
+
+import model.LZ78StreamEncoder;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compresión LZ78 en tres etapas concurrentes: lectura, compresión y escritura.
+ *
+ * Un hilo lector llena bloques de caracteres, el hilo que llama a
+ * {@link #run} los comprime y un hilo escritor guarda cada bloque codificado
+ * como una trama apenas está lista. Las etapas se comunican con colas
+ * acotadas y reutilizan un número fijo de buffers, por lo que una etapa lenta
+ * frena a las demás (back-pressure) y la memoria usada no depende del tamaño
+ * de la entrada.
+ *
+ * Cada trama se escribe como: int número de pares | int caracteres cubiertos |
+ * pares (int índice, char carácter).
+ */
+public class CompressionPipeline {
+    private static final int DEFAULT_CHUNK_CHARS = 64 * 1024;
+    private static final int DEFAULT_QUEUE_CAPACITY = 4;
+
+    private final int chunkChars;
+    private final int queueCapacity;
+
+    /**
+     * Bloque de caracteres leídos
+     */
+    private static class Chunk {
+        final char[] data;
+        int length;
+
+        Chunk(int capacity) {
+            this.data = new char[capacity];
+        }
+    }
+
+    /**
+     * Trama de pares codificados
+     */
+    private static class Frame {
+        final int[] indices;
+        final char[] characters;
+        int pairCount;
+        int charCount;
+
+        Frame(int capacity) {
+            // Un bloque de n caracteres produce como máximo n + 1 pares (con el final)
+            this.indices = new int[capacity + 1];
+            this.characters = new char[capacity + 1];
+        }
+    }
+
+    private static final Chunk END_OF_INPUT = new Chunk(0);
+    private static final Frame END_OF_FRAMES = new Frame(0);
+
+    public CompressionPipeline() {
+        this(DEFAULT_CHUNK_CHARS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param chunkChars Caracteres por bloque
+     * @param queueCapacity Bloques en vuelo entre etapas
+     */
+    public CompressionPipeline(int chunkChars, int queueCapacity) {
+        if (chunkChars <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque y de cola deben ser positivos");
+        }
+        this.chunkChars = chunkChars;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Comprime toda la entrada escribiendo tramas en la salida
+     * @param in Texto de entrada
+     * @param out Salida posicionada después del encabezado
+     * @param encoder Codificador (nuevo o restaurado de una ejecución previa)
+     * @throws IOException Si alguna etapa falla
+     */
+    public void run(Reader in, DataOutputStream out, LZ78StreamEncoder encoder) throws IOException {
+        run(in, out, encoder, 0, true);
+    }
+
+    /**
+     * Comprime toda la entrada, opcionalmente sin emitir la frase pendiente
+     * para poder continuar la codificación en otra ejecución
+     * @param in Texto de entrada
+     * @param out Salida posicionada después del encabezado o de la última trama
+     * @param encoder Codificador (nuevo o restaurado de una ejecución previa)
+     * @param pendingChars Caracteres leídos antes que aún no cubre ninguna trama
+     * @param finish true para emitir la frase pendiente al final
+     * @return Caracteres que no cubre ninguna trama escrita (0 si finish es true)
+     * @throws IOException Si alguna etapa falla
+     */
+    public long run(Reader in, DataOutputStream out, LZ78StreamEncoder encoder,
+                    long pendingChars, boolean finish) throws IOException {
+        BlockingQueue<Chunk> freeChunks = new ArrayBlockingQueue<>(queueCapacity + 1);
+        BlockingQueue<Chunk> readChunks = new ArrayBlockingQueue<>(queueCapacity + 1);
+        BlockingQueue<Frame> freeFrames = new ArrayBlockingQueue<>(queueCapacity + 1);
+        BlockingQueue<Frame> encodedFrames = new ArrayBlockingQueue<>(queueCapacity + 1);
+        for (int i = 0; i < queueCapacity; i++) {
+            freeChunks.add(new Chunk(chunkChars));
+            freeFrames.add(new Frame(chunkChars));
+        }
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread compressorThread = Thread.currentThread();
+
+        Thread reader = new Thread(() -> {
+            try {
+                while (true) {
+                    Chunk chunk = freeChunks.take();
+                    chunk.length = readFully(in, chunk.data);
+                    if (chunk.length == 0) {
+                        readChunks.put(END_OF_INPUT);
+                        return;
+                    }
+                    readChunks.put(chunk);
+                }
+            } catch (Throwable t) {
+                fail(failure, t, compressorThread);
+            }
+        }, "lz78-reader");
+
+        Thread writer = new Thread(() -> {
+            try {
+                while (true) {
+                    Frame frame = encodedFrames.take();
+                    if (frame == END_OF_FRAMES) {
+                        out.flush();
+                        return;
+                    }
+                    writeFrame(out, frame);
+                    freeFrames.put(frame);
+                }
+            } catch (Throwable t) {
+                fail(failure, t, compressorThread);
+            }
+        }, "lz78-writer");
+
+        reader.setDaemon(true);
+        writer.setDaemon(true);
+        reader.start();
+        writer.start();
+
+        try {
+            while (true) {
+                Chunk chunk = readChunks.take();
+                Frame frame = freeFrames.take();
+                frame.pairCount = 0;
+
+                if (chunk == END_OF_INPUT) {
+                    if (finish) {
+                        encoder.finish((index, character) -> add(frame, index, character));
+                    }
+                } else {
+                    encoder.encode(chunk.data, 0, chunk.length,
+                        (index, character) -> add(frame, index, character));
+                    pendingChars += chunk.length;
+                    freeChunks.put(chunk);
+                }
+
+                // Un bloque puede quedar completo dentro de la frase actual
+                if (frame.pairCount > 0) {
+                    frame.charCount = Math.toIntExact(pendingChars);
+                    pendingChars = 0;
+                    encodedFrames.put(frame);
+                } else {
+                    freeFrames.put(frame);
+                }
+
+                if (chunk == END_OF_INPUT) {
+                    encodedFrames.put(END_OF_FRAMES);
+                    break;
+                }
+            }
+            writer.join();
+        } catch (InterruptedException e) {
+            reader.interrupt();
+            writer.interrupt();
+            Throwable cause = failure.get();
+            if (cause == null) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Compresión interrumpida", e);
+            }
+        } catch (IOException | RuntimeException e) {
+            fail(failure, e, null);
+            reader.interrupt();
+            writer.interrupt();
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause != null) {
+            throw new IOException("Error en la compresión por etapas", cause);
+        }
+        return pendingChars;
+    }
+
+    private static void add(Frame frame, int index, char character) {
+        frame.indices[frame.pairCount] = index;
+        frame.characters[frame.pairCount] = character;
+        frame.pairCount++;
+    }
+
+    /**
+     * Escribe una trama: número de pares, caracteres cubiertos y los pares
+     */
+    static void writeFrame(DataOutputStream out, int pairCount, int charCount,
+                           int[] indices, char[] characters) throws IOException {
+        out.writeInt(pairCount);
+        out.writeInt(charCount);
+        for (int i = 0; i < pairCount; i++) {
+            out.writeInt(indices[i]);
+            out.writeChar(characters[i]);
+        }
+    }
+
+    private static void writeFrame(DataOutputStream out, Frame frame) throws IOException {
+        writeFrame(out, frame.pairCount, frame.charCount, frame.indices, frame.characters);
+        // Enviar cada trama apenas se completa
+        out.flush();
+    }
+
+    /**
+     * Lee hasta llenar el buffer o llegar al final de la entrada
+     */
+    private static int readFully(Reader in, char[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = in.read(buffer, total, buffer.length - total);
+            if (read == -1) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Registra el primer error y despierta a la etapa de compresión
+     */
+    private static void fail(AtomicReference<Throwable> failure, Throwable t, Thread compressorThread) {
+        if (failure.compareAndSet(null, t) && compressorThread != null) {
+            compressorThread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package controller;
+
+import model.CompressionResult;
+import model.LZ78StreamEncoder;
+import model.OffHeapDictionary;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Compresión LZ78 en modo anexar para archivos que crecen (por ejemplo, logs).
+ *
+ * Junto al .lz78 (formato por tramas) se guardan el diccionario, en archivos
+ * mapeados persistentes, y un archivo de estado con los bytes ya consumidos,
+ * la frase en curso y la longitud del archivo sin su última trama. Esa última
+ * trama solo contiene el par que cierra la frase pendiente: en cada ejecución
+ * se descarta, se codifican únicamente los bytes nuevos continuando la frase
+ * y se vuelve a cerrar. El resultado es el mismo que comprimir todo de una vez
+ * y el costo de cada ejecución depende solo de los datos agregados.
+ */
+public class LZ78AppendWriter {
+    private static final int STATE_MAGIC = 0x4C5A3753;
+    private static final String STATE_SUFFIX = ".state";
+    private static final String DICTIONARY_SUFFIX = ".dict";
+    private static final int HEAD_BYTES = 4096;
+
+    private final File archive;
+    private final File stateFile;
+    private final File dictionaryBase;
+
+    /**
+     * Estado guardado al final de cada ejecución
+     */
+    private static class State {
+        String charsetName;
+        long sourceOffset;
+        long committedLength;
+        int currentPhrase;
+        int dictionarySize;
+        long pendingChars;
+        long inputChars;
+        long pairCount;
+        long headLength;
+        long headChecksum;
+    }
+
+    public LZ78AppendWriter(File archive) {
+        this.archive = archive;
+        this.stateFile = new File(archive.getPath() + STATE_SUFFIX);
+        this.dictionaryBase = new File(archive.getPath() + DICTIONARY_SUFFIX);
+    }
+
+    /**
+     * Comprime los bytes agregados al archivo desde la ejecución anterior.
+     * Si no hay estado válido (primera ejecución, archivo rotado o estado
+     * inconsistente) se comprime el archivo completo desde cero.
+     * @param source Archivo que crece
+     * @param extension Extensión original a guardar en el encabezado
+     * @param charset Juego de caracteres del archivo
+     * @return Resultado acumulado de todo el archivo
+     * @throws IOException Si hay error al leer o escribir
+     */
+    public CompressionResult append(File source, String extension, Charset charset) throws IOException {
+        if (!source.exists()) {
+            throw new IOException("El archivo no existe");
+        }
+
+        try (FileChannel input = FileChannel.open(source.toPath())) {
+            State state = loadState();
+            OffHeapDictionary dictionary = null;
+            if (state != null && canResume(state, input, charset)) {
+                dictionary = openDictionary(state);
+            }
+            if (dictionary == null) {
+                state = startArchive(extension, charset);
+                dictionary = new OffHeapDictionary(dictionaryBase, true);
+            }
+
+            try (OffHeapDictionary dict = dictionary;
+                 FileChannel output = FileChannel.open(archive.toPath(), StandardOpenOption.WRITE)) {
+                long end = completeLength(input, state.sourceOffset, input.size(), charset);
+
+                // Descartar la trama que cerraba la frase pendiente
+                output.truncate(state.committedLength);
+                output.position(state.committedLength);
+                DataOutputStream dos = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(output)));
+
+                LZ78StreamEncoder encoder = new LZ78StreamEncoder(dict, state.currentPhrase);
+                Reader reader = new InputStreamReader(new LZ78Archive.RangeInputStream(
+                    input, state.sourceOffset, end - state.sourceOffset), charset);
+                long pending = new CompressionPipeline().run(reader, dos, encoder, state.pendingChars, false);
+                dos.flush();
+
+                state.committedLength = output.position();
+                state.currentPhrase = encoder.getCurrentPhrase();
+                state.pendingChars = pending;
+                state.sourceOffset = end;
+                state.headLength = Math.min(HEAD_BYTES, end);
+                state.headChecksum = checksum(input, state.headLength);
+                state.dictionarySize = dict.size();
+                state.inputChars += encoder.getInputChars();
+                state.pairCount += encoder.getPairCount();
+
+                // Cerrar la frase pendiente para que el archivo se pueda descomprimir
+                if (state.currentPhrase != 0) {
+                    CompressionPipeline.writeFrame(dos, 1, Math.toIntExact(pending),
+                        new int[]{dict.getParent(state.currentPhrase)},
+                        new char[]{dict.getCharacter(state.currentPhrase)});
+                    dos.flush();
+                }
+                output.force(false);
+                dict.force();
+                saveState(state);
+
+                CompressionResult result = new CompressionResult();
+                result.setOriginalSize(state.inputChars);
+                result.setPairCount(state.pairCount + (state.currentPhrase != 0 ? 1 : 0));
+                result.setCompressedSize(output.size());
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Verifica que el estado corresponda al archivo y al .lz78 actuales.
+     * Un archivo más corto o con otro comienzo indica que el log rotó.
+     */
+    private boolean canResume(State state, FileChannel input, Charset charset) throws IOException {
+        return charset.name().equals(state.charsetName)
+            && input.size() >= state.sourceOffset
+            && archive.length() >= state.committedLength
+            && checksum(input, state.headLength) == state.headChecksum;
+    }
+
+    /**
+     * Abre el diccionario guardado si coincide con el estado
+     * @return Diccionario, o null si falta o avanzó sin que se guardara el estado
+     */
+    private OffHeapDictionary openDictionary(State state) throws IOException {
+        OffHeapDictionary dictionary;
+        try {
+            dictionary = OffHeapDictionary.open(dictionaryBase);
+        } catch (IOException e) {
+            return null;
+        }
+        if (dictionary.size() != state.dictionarySize) {
+            dictionary.close();
+            return null;
+        }
+        return dictionary;
+    }
+
+    /**
+     * CRC32 de los primeros bytes del archivo
+     */
+    private static long checksum(FileChannel input, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] bytes = new byte[(int) length];
+        new DataInputStream(new LZ78Archive.RangeInputStream(input, 0, length)).readFully(bytes);
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Crea el .lz78 con solo el encabezado y un estado inicial
+     */
+    private State startArchive(String extension, Charset charset) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(archive)))) {
+            CompressionController.writeFramedHeader(dos, extension, charset);
+            State state = new State();
+            state.charsetName = charset.name();
+            state.committedLength = dos.size();
+            return state;
+        }
+    }
+
+    /**
+     * Limita el final al último carácter completo, para no cortar una
+     * secuencia UTF-8 que todavía se está escribiendo
+     */
+    private static long completeLength(FileChannel input, long start, long end, Charset charset) throws IOException {
+        if (!StandardCharsets.UTF_8.equals(charset) || end <= start) {
+            return end;
+        }
+
+        int tail = (int) Math.min(4, end - start);
+        byte[] bytes = new byte[tail];
+        DataInputStream in = new DataInputStream(new LZ78Archive.RangeInputStream(input, end - tail, tail));
+        in.readFully(bytes);
+
+        for (int i = tail - 1; i >= 0; i--) {
+            int b = bytes[i] & 0xFF;
+            if ((b & 0xC0) == 0x80) {
+                continue;
+            }
+            int needed = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+            return tail - i >= needed ? end : end - tail + i;
+        }
+        return end;
+    }
+
+    private State loadState() throws IOException {
+        if (!stateFile.exists() || !archive.exists()) {
+            return null;
+        }
+        try (DataInputStream dis = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(stateFile)))) {
+            if (dis.readInt() != STATE_MAGIC) {
+                return null;
+            }
+            State state = new State();
+            state.charsetName = dis.readUTF();
+            state.sourceOffset = dis.readLong();
+            state.committedLength = dis.readLong();
+            state.currentPhrase = dis.readInt();
+            state.dictionarySize = dis.readInt();
+            state.pendingChars = dis.readLong();
+            state.inputChars = dis.readLong();
+            state.pairCount = dis.readLong();
+            state.headLength = dis.readLong();
+            state.headChecksum = dis.readLong();
+            return state;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Guarda el estado en un temporal y lo renombra para no dejarlo a medias
+     */
+    private void saveState(State state) throws IOException {
+        File temp = new File(stateFile.getPath() + ".tmp");
+        try (DataOutputStream dos = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(temp)))) {
+            dos.writeInt(STATE_MAGIC);
+            dos.writeUTF(state.charsetName);
+            dos.writeLong(state.sourceOffset);
+            dos.writeLong(state.committedLength);
+            dos.writeInt(state.currentPhrase);
+            dos.writeInt(state.dictionarySize);
+            dos.writeLong(state.pendingChars);
+            dos.writeLong(state.inputChars);
+            dos.writeLong(state.pairCount);
+            dos.writeLong(state.headLength);
+            dos.writeLong(state.headChecksum);
+        }
+        Files.move(temp.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Elimina el estado y el diccionario; la próxima ejecución comprime desde cero
+     */
+    public void reset() throws IOException {
+        Files.deleteIfExists(stateFile.toPath());
+        Files.deleteIfExists(new File(dictionaryBase.getPath() + ".nodes").toPath());
+        Files.deleteIfExists(new File(dictionaryBase.getPath() + ".index").toPath());
+    }
+
+    public File getArchive() {
+        return archive;
+    }
+}
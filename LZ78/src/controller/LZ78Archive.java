@@ -0,0 +1,428 @@
+package controller;
+
+import model.LZ78Decompressor;
+import model.LZ78StreamEncoder;
+import model.OffHeapDictionary;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Archivo .lz78 con múltiples entradas y un directorio central al final.
+ *
+ * Estructura: encabezado "LZ78A" | datos de cada entrada | directorio |
+ * cola (long posición del directorio, int número de entradas, int mágico).
+ * La cola tiene tamaño fijo, así que el directorio se ubica leyendo el final
+ * del archivo y cualquier entrada se lista o extrae sin recorrer las demás.
+ *
+ * Cada entrada se comprime por separado (pares int índice, char carácter)
+ * tratando cada byte como un carácter, de modo que la extracción reproduce
+ * los bytes exactos. Si comprimir no reduce el tamaño, la entrada se guarda
+ * sin codificar.
+ */
+public class LZ78Archive implements AutoCloseable {
+    static final String ARCHIVE_MAGIC_NUMBER = "LZ78A";
+    private static final int TRAILER_MAGIC = 0x4C5A3741;
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES * 2;
+    private static final int PAIR_BYTES = Integer.BYTES + Character.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Registro del directorio central
+     */
+    public static class Entry {
+        private final String name;
+        private final boolean stored;
+        private final long offset;
+        private final long compressedSize;
+        private final long originalSize;
+        private final long pairCount;
+        private final int checksum;
+
+        Entry(String name, boolean stored, long offset, long compressedSize,
+              long originalSize, long pairCount, int checksum) {
+            this.name = name;
+            this.stored = stored;
+            this.offset = offset;
+            this.compressedSize = compressedSize;
+            this.originalSize = originalSize;
+            this.pairCount = pairCount;
+            this.checksum = checksum;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isStored() {
+            return stored;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        public long getOriginalSize() {
+            return originalSize;
+        }
+
+        public long getPairCount() {
+            return pairCount;
+        }
+
+        public int getChecksum() {
+            return checksum;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%d -> %d bytes%s)", name, originalSize, compressedSize,
+                stored ? ", almacenado" : "");
+        }
+    }
+
+    private final File file;
+    private final FileChannel channel;
+    private final Map<String, Entry> entries;
+
+    private LZ78Archive(File file, FileChannel channel, Map<String, Entry> entries) {
+        this.file = file;
+        this.channel = channel;
+        this.entries = entries;
+    }
+
+    /**
+     * Crea un archivo con todos los archivos de un directorio (o con un solo archivo)
+     * @param source Directorio o archivo a incluir
+     * @param output Archivo de salida
+     * @return Entradas escritas, en el orden del directorio central
+     * @throws IOException Si hay error al leer o escribir
+     */
+    public static List<Entry> create(File source, File output) throws IOException {
+        if (!source.exists()) {
+            throw new IOException("El archivo no existe");
+        }
+
+        Path root = source.toPath();
+        Path outputPath = output.toPath().toAbsolutePath().normalize();
+        List<Path> files;
+        if (source.isDirectory()) {
+            // Omitir el propio archivo de salida si queda dentro del directorio
+            try (Stream<Path> walk = Files.walk(root)) {
+                files = walk.filter(Files::isRegularFile)
+                    .filter(path -> !path.toAbsolutePath().normalize().equals(outputPath))
+                    .sorted().collect(Collectors.toList());
+            }
+        } else {
+            files = Collections.singletonList(root);
+            root = root.toAbsolutePath().getParent();
+        }
+        if (files.isEmpty()) {
+            throw new IOException("El directorio no contiene archivos");
+        }
+
+        List<Entry> written = new ArrayList<>(files.size());
+        try (FileOutputStream fos = new FileOutputStream(output);
+             DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(fos, BUFFER_SIZE));
+             OffHeapDictionary dictionary = new OffHeapDictionary()) {
+
+            dos.writeUTF(ARCHIVE_MAGIC_NUMBER);
+            long position = dos.size();
+            char[] buffer = new char[BUFFER_SIZE];
+
+            for (Path path : files) {
+                String name = root.toAbsolutePath().relativize(path.toAbsolutePath()).toString()
+                    .replace(File.separatorChar, '/');
+                Entry entry = writeEntry(path.toFile(), name, position, fos, dos, dictionary, buffer);
+                written.add(entry);
+                position += entry.compressedSize;
+            }
+
+            // Directorio central y cola
+            long directoryOffset = position;
+            dos.writeInt(written.size());
+            for (Entry entry : written) {
+                dos.writeUTF(entry.name);
+                dos.writeBoolean(entry.stored);
+                dos.writeLong(entry.offset);
+                dos.writeLong(entry.compressedSize);
+                dos.writeLong(entry.originalSize);
+                dos.writeLong(entry.pairCount);
+                dos.writeInt(entry.checksum);
+            }
+            dos.writeLong(directoryOffset);
+            dos.writeInt(written.size());
+            dos.writeInt(TRAILER_MAGIC);
+        }
+        return written;
+    }
+
+    /**
+     * Comprime un archivo como entrada; si no se reduce, lo guarda sin codificar
+     */
+    private static Entry writeEntry(File file, String name, long offset, FileOutputStream fos,
+                                    DataOutputStream dos, OffHeapDictionary dictionary,
+                                    char[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        dictionary.clear();
+        LZ78StreamEncoder encoder = new LZ78StreamEncoder(dictionary);
+        LZ78StreamEncoder.PairSink sink = (index, character) -> {
+            dos.writeInt(index);
+            dos.writeChar(character);
+        };
+
+        try (Reader reader = new InputStreamReader(new BufferedInputStream(
+                 new CheckedInputStream(new FileInputStream(file), crc), BUFFER_SIZE),
+                 StandardCharsets.ISO_8859_1)) {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                encoder.encode(buffer, 0, read, sink);
+            }
+            encoder.finish(sink);
+        }
+
+        long originalSize = encoder.getInputChars();
+        long compressedSize = encoder.getPairCount() * PAIR_BYTES;
+        if (originalSize > 0 && compressedSize < originalSize) {
+            return new Entry(name, false, offset, compressedSize, originalSize,
+                encoder.getPairCount(), (int) crc.getValue());
+        }
+
+        // Descartar los pares escritos y copiar los bytes originales
+        dos.flush();
+        fos.getChannel().truncate(offset);
+        try (InputStream in = new FileInputStream(file)) {
+            long copied = in.transferTo(dos);
+            if (copied != originalSize) {
+                throw new IOException("El archivo cambió durante la compresión: " + name);
+            }
+        }
+        return new Entry(name, true, offset, originalSize, originalSize, 0, (int) crc.getValue());
+    }
+
+    /**
+     * Abre un archivo leyendo solo su directorio central
+     * @param file Archivo .lz78 con múltiples entradas
+     * @return Archivo abierto (debe cerrarse)
+     * @throws IOException Si no es un archivo válido
+     */
+    public static LZ78Archive open(File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath());
+        try {
+            long length = channel.size();
+            DataInputStream header = new DataInputStream(new RangeInputStream(channel, 0, Math.min(length, 16)));
+            if (length < TRAILER_BYTES || !ARCHIVE_MAGIC_NUMBER.equals(header.readUTF())) {
+                throw new IOException("Archivo incompatible. No es un archivo LZ78 con múltiples entradas");
+            }
+
+            DataInputStream trailer = new DataInputStream(
+                new RangeInputStream(channel, length - TRAILER_BYTES, TRAILER_BYTES));
+            long directoryOffset = trailer.readLong();
+            int count = trailer.readInt();
+            if (trailer.readInt() != TRAILER_MAGIC || directoryOffset < 0
+                || directoryOffset > length - TRAILER_BYTES || count < 0) {
+                throw new IOException("Archivo corrupto: directorio central inválido");
+            }
+
+            DataInputStream directory = new DataInputStream(new BufferedInputStream(
+                new RangeInputStream(channel, directoryOffset, length - TRAILER_BYTES - directoryOffset)));
+            if (directory.readInt() != count) {
+                throw new IOException("Archivo corrupto: número de entradas inválido");
+            }
+            Map<String, Entry> entries = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                Entry entry = new Entry(directory.readUTF(), directory.readBoolean(), directory.readLong(),
+                    directory.readLong(), directory.readLong(), directory.readLong(), directory.readInt());
+                if (entry.offset < 0 || entry.compressedSize < 0
+                    || entry.offset + entry.compressedSize > directoryOffset) {
+                    throw new IOException("Archivo corrupto: entrada fuera de rango: " + entry.name);
+                }
+                entries.put(entry.name, entry);
+            }
+            return new LZ78Archive(file, channel, entries);
+        } catch (EOFException e) {
+            channel.close();
+            throw new IOException("Archivo corrupto: directorio central incompleto");
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return Entradas en el orden del directorio central
+     */
+    public List<Entry> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * @return Entrada con ese nombre, o null si no existe
+     */
+    public Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    /**
+     * Extrae una sola entrada
+     * @param name Nombre de la entrada
+     * @param target Archivo de destino
+     * @throws IOException Si la entrada no existe, está corrupta o hay error al escribir
+     */
+    public void extract(String name, File target) throws IOException {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            throw new IOException("La entrada no existe: " + name);
+        }
+        try (OffHeapDictionary dictionary = new OffHeapDictionary()) {
+            extract(entry, target, dictionary);
+        }
+    }
+
+    /**
+     * Extrae todas las entradas en paralelo
+     * @param directory Directorio de destino
+     * @param threads Número de hilos
+     * @throws IOException Si alguna entrada falla
+     */
+    public void extractAll(File directory, int threads) throws IOException {
+        List<Entry> list = getEntries();
+        Path base = directory.toPath().toAbsolutePath().normalize();
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.max(1, Math.min(threads, list.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+
+        try {
+            // Cada hilo toma la siguiente entrada libre y reutiliza su diccionario
+            List<Future<Void>> futures = new ArrayList<>(workers);
+            for (int t = 0; t < workers; t++) {
+                futures.add(pool.submit(() -> {
+                    try (OffHeapDictionary dictionary = new OffHeapDictionary()) {
+                        int i;
+                        while ((i = next.getAndIncrement()) < list.size()) {
+                            Entry entry = list.get(i);
+                            extract(entry, resolve(base, entry.name), dictionary);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Error al extraer: " + cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Extracción interrumpida", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void extract(Entry entry, File target, OffHeapDictionary dictionary) throws IOException {
+        File parent = target.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("No se pudo crear el directorio: " + parent);
+        }
+
+        CRC32 crc = new CRC32();
+        try (OutputStream out = new CheckedOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(target), BUFFER_SIZE), crc)) {
+            InputStream data = new RangeInputStream(channel, entry.offset, entry.compressedSize);
+            if (entry.stored) {
+                data.transferTo(out);
+            } else {
+                dictionary.clear();
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.ISO_8859_1);
+                new LZ78Decompressor().decompressStream(new DataInputStream(
+                    new BufferedInputStream(data, BUFFER_SIZE)), entry.pairCount, writer, dictionary);
+            }
+        } catch (EOFException | IllegalArgumentException e) {
+            target.delete();
+            throw new IOException("Archivo corrupto: entrada " + entry.name + " inválida");
+        }
+
+        if ((int) crc.getValue() != entry.checksum) {
+            target.delete();
+            throw new IOException("Suma de verificación incorrecta en la entrada " + entry.name);
+        }
+    }
+
+    /**
+     * Resuelve el nombre de una entrada dentro del directorio de destino,
+     * rechazando nombres que salgan de él
+     */
+    private static File resolve(Path base, String name) throws IOException {
+        Path target = base.resolve(name).normalize();
+        if (!target.startsWith(base) || target.equals(base)) {
+            throw new IOException("Nombre de entrada inválido: " + name);
+        }
+        return target.toFile();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Lee un rango del archivo con lecturas posicionales, de modo que varios
+     * hilos pueden leer entradas distintas del mismo canal a la vez
+     */
+    static class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        RangeInputStream(FileChannel channel, long offset, long length) {
+            this.channel = channel;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int n = (int) Math.min(len, end - position);
+            int read = channel.read(ByteBuffer.wrap(b, off, n), position);
+            if (read == -1) {
+                return -1;
+            }
+            position += read;
+            return read;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package model;
+
+/**
+ * Estima rápidamente la compresibilidad de un contenido antes de ejecutar
+ * la compresión LZ78 completa.
+ *
+ * Comprime solo algunas ventanas muestreadas a lo largo del contenido y
+ * calcula la entropía de orden 0 de esas mismas muestras. El resultado es
+ * una fracción estimada (tamaño comprimido / tamaño original) con una banda
+ * de confianza aproximada del 95%.
+ *
+ * Una ventana comprime peor que el contenido completo, porque su diccionario
+ * es más chico. Cuando las ventanas quedan por encima de la cota de orden 0
+ * (H0 / 8 bits por símbolo), la estimación se acerca a esa cota: el exceso
+ * de LZ78 decrece como 1 / log n, así que se escala por
+ * log(ventana) / log(total).
+ */
+public class CompressibilityEstimator {
+    private static final int DEFAULT_WINDOW_SIZE = 16 * 1024;
+    private static final int DEFAULT_WINDOW_COUNT = 8;
+    private static final double Z_95 = 1.96;
+
+    private final LZ78Compressor compressor;
+    private final int windowSize;
+    private final int windowCount;
+
+    /**
+     * Resultado de una estimación de compresibilidad
+     */
+    public static class Estimate {
+        private final double estimatedFraction;
+        private final double lowerFraction;
+        private final double upperFraction;
+        private final double entropy;
+        private final int sampledChars;
+        private final long totalChars;
+        private final long elapsedMillis;
+
+        public Estimate(double estimatedFraction, double lowerFraction, double upperFraction,
+                        double entropy, int sampledChars, long totalChars, long elapsedMillis) {
+            this.estimatedFraction = estimatedFraction;
+            this.lowerFraction = lowerFraction;
+            this.upperFraction = upperFraction;
+            this.entropy = entropy;
+            this.sampledChars = sampledChars;
+            this.totalChars = totalChars;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Fracción estimada tamaño comprimido / tamaño original
+         */
+        public double getEstimatedFraction() {
+            return estimatedFraction;
+        }
+
+        public double getLowerFraction() {
+            return lowerFraction;
+        }
+
+        public double getUpperFraction() {
+            return upperFraction;
+        }
+
+        /**
+         * Entropía de orden 0 de las muestras, en bits por símbolo; su octava
+         * parte es la cota hacia la que se ajusta la fracción estimada
+         */
+        public double getEntropy() {
+            return entropy;
+        }
+
+        public int getSampledChars() {
+            return sampledChars;
+        }
+
+        public long getTotalChars() {
+            return totalChars;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * Porcentaje de reducción estimado (negativo si el archivo se expande)
+         */
+        public double getEstimatedPercentage() {
+            return (1.0 - estimatedFraction) * 100.0;
+        }
+
+        /**
+         * Indica si vale la pena ejecutar la compresión completa
+         * @return true si se espera que el archivo se reduzca
+         */
+        public boolean isWorthCompressing() {
+            return estimatedFraction < 1.0;
+        }
+
+        /**
+         * Retorna la estimación como String formateado
+         */
+        public String getSummary() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("ESTIMACIÓN DE COMPRESIBILIDAD\n");
+            sb.append("=============================\n\n");
+            sb.append(String.format("Reducción estimada:   %.2f%%\n", getEstimatedPercentage()));
+            sb.append(String.format("Banda (95%%):          %.2f%% .. %.2f%%\n",
+                (1.0 - upperFraction) * 100.0, (1.0 - lowerFraction) * 100.0));
+            sb.append(String.format("Entropía orden 0:     %.4f bits/símbolo (cota %.2f%%)\n",
+                entropy, (1.0 - entropy / 8.0) * 100.0));
+            sb.append(String.format("Muestra analizada:    %,d de %,d símbolos\n", sampledChars, totalChars));
+            sb.append(String.format("Tiempo:               %d ms\n", elapsedMillis));
+            if (!isWorthCompressing()) {
+                sb.append("\nNOTA: Es probable que LZ78 expanda este archivo.\n");
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Estimate{fraction=%.4f, band=[%.4f, %.4f], entropy=%.4f}",
+                estimatedFraction, lowerFraction, upperFraction, entropy);
+        }
+    }
+
+    public CompressibilityEstimator() {
+        this(new LZ78Compressor(), DEFAULT_WINDOW_SIZE, DEFAULT_WINDOW_COUNT);
+    }
+
+    /**
+     * @param compressor Compresor usado sobre las ventanas muestreadas
+     * @param windowSize Tamaño de cada ventana en símbolos
+     * @param windowCount Número de ventanas a muestrear
+     */
+    public CompressibilityEstimator(LZ78Compressor compressor, int windowSize, int windowCount) {
+        if (windowSize <= 0 || windowCount <= 0) {
+            throw new IllegalArgumentException("El tamaño y número de ventanas deben ser positivos");
+        }
+        this.compressor = compressor;
+        this.windowSize = windowSize;
+        this.windowCount = windowCount;
+    }
+
+    /**
+     * Estima la compresibilidad de un texto
+     * @param text Texto a analizar
+     * @return Estimación con banda de confianza
+     * @throws IllegalArgumentException si el texto está vacío
+     */
+    public Estimate estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            throw new IllegalArgumentException("El texto no puede estar vacío");
+        }
+
+        long start = System.nanoTime();
+        int length = text.length();
+        int[] histogram = new int[Character.MAX_VALUE + 1];
+
+        // Si el texto cabe en la muestra, se comprime completo
+        int windows = length <= (long) windowSize * windowCount ? 1 : windowCount;
+        int window = windows == 1 ? length : windowSize;
+
+        double[] fractions = new double[windows];
+        int sampled = 0;
+        for (int w = 0; w < windows; w++) {
+            // Ventanas repartidas uniformemente, incluyendo inicio y final
+            int offset = windows == 1 ? 0 : (int) ((long) w * (length - window) / (windows - 1));
+            String sample = text.substring(offset, offset + window);
+
+            for (int i = 0; i < sample.length(); i++) {
+                histogram[sample.charAt(i)]++;
+            }
+            sampled += sample.length();
+
+            fractions[w] = compressedFraction(sample);
+        }
+
+        // Media y desviación estándar de las fracciones de cada ventana
+        double mean = 0.0;
+        for (double f : fractions) {
+            mean += f;
+        }
+        mean /= windows;
+
+        double margin = 0.0;
+        if (windows > 1) {
+            double variance = 0.0;
+            for (double f : fractions) {
+                variance += (f - mean) * (f - mean);
+            }
+            variance /= (windows - 1);
+            margin = Z_95 * Math.sqrt(variance / windows);
+        }
+
+        double entropy = entropy(histogram, sampled);
+
+        // Acercar a la cota de orden 0 lo que el contenido completo ganaría por su diccionario mayor
+        double bound = entropy / 8.0;
+        double estimate = mean;
+        if (windows > 1 && mean > bound) {
+            double scale = Math.log(window) / Math.log(length);
+            estimate = bound + (mean - bound) * scale;
+            margin *= scale;
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        return new Estimate(estimate, Math.max(0.0, estimate - margin), estimate + margin,
+            entropy, sampled, length, elapsed);
+    }
+
+    /**
+     * Comprime una ventana y retorna la fracción de bits resultante
+     * (sin el encabezado del formato, que no escala con el tamaño)
+     */
+    private double compressedFraction(String sample) {
+        CompressionResult result = compressor.compress(sample);
+        int pairs = result.getEncodedData().size();
+        int maxIndex = result.getDictionary().size();
+
+        int bitsForIndex = maxIndex > 0 ? (int) Math.ceil(Math.log(maxIndex + 1) / Math.log(2)) : 1;
+        if (bitsForIndex < 1) bitsForIndex = 1;
+
+        long totalBits = (long) pairs * (bitsForIndex + 8);
+        return (double) totalBits / ((long) sample.length() * 8);
+    }
+
+    /**
+     * Calcula la entropía de orden 0: H(S) = -Σ(p(i) * log2(p(i)))
+     */
+    private double entropy(int[] histogram, int total) {
+        double entropy = 0.0;
+        for (int count : histogram) {
+            if (count > 0) {
+                double p = (double) count / total;
+                entropy -= p * (Math.log(p) / Math.log(2));
+            }
+        }
+        return entropy;
+    }
+}
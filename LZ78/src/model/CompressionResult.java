@@ -8,10 +8,15 @@ import java.util.List;
 public class CompressionResult {
     private List<EncodedPair> encodedData;
     private Dictionary dictionary;
+    private PresetDictionary presetDictionary;
     private long originalSize;
+    private long pairCount;
     private long compressedSize;
     private String originalText;
     private String decompressedText;
+    private boolean stored;
+    private String storedReason;
+    private String sourcePath;
 
     /**
      * Representa un par (índice, carácter) en la codificación LZ78
@@ -63,6 +68,26 @@ public class CompressionResult {
         this.dictionary = dictionary;
     }
 
+    public PresetDictionary getPresetDictionary() {
+        return presetDictionary;
+    }
+
+    public void setPresetDictionary(PresetDictionary presetDictionary) {
+        this.presetDictionary = presetDictionary;
+    }
+
+    /**
+     * Número de pares codificados (también disponible cuando los pares
+     * no se guardan en memoria, como en la compresión por flujo)
+     */
+    public long getPairCount() {
+        return encodedData != null ? encodedData.size() : pairCount;
+    }
+
+    public void setPairCount(long pairCount) {
+        this.pairCount = pairCount;
+    }
+
     public long getOriginalSize() {
         return originalSize;
     }
@@ -95,6 +120,36 @@ public class CompressionResult {
         this.decompressedText = decompressedText;
     }
 
+    /**
+     * Indica si el archivo se guarda en modo almacenado (sin codificar)
+     */
+    public boolean isStored() {
+        return stored;
+    }
+
+    public void setStored(boolean stored) {
+        this.stored = stored;
+    }
+
+    public String getStoredReason() {
+        return storedReason;
+    }
+
+    public void setStoredReason(String storedReason) {
+        this.storedReason = storedReason;
+    }
+
+    /**
+     * Ruta del archivo original (usada en modo almacenado para copiarlo sin cargarlo)
+     */
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
     /**
      * Calcula el porcentaje de compresión
      */
@@ -125,6 +180,12 @@ public class CompressionResult {
         sb.append(String.format("Tamaño original:      %,d bytes\n", originalSize));
         sb.append(String.format("Tamaño comprimido:    %,d bytes\n", compressedSize));
         
+        if (stored) {
+            sb.append("\nMODO ALMACENADO: el contenido se copia sin codificar\n");
+            sb.append("Motivo: ").append(storedReason).append("\n");
+            return sb.toString();
+        }
+        
         double percentage = getCompressionPercentage();
         if (percentage > 0) {
             sb.append(String.format("Reducción de tamaño:  %.2f%%\n", percentage));
@@ -136,7 +197,11 @@ public class CompressionResult {
         }
         
         sb.append(String.format("\nEntradas diccionario: %d\n", dictionary != null ? dictionary.size() : 0));
-        sb.append(String.format("Pares codificados:    %d\n", encodedData != null ? encodedData.size() : 0));
+        if (presetDictionary != null) {
+            sb.append(String.format("Diccionario predef.:  %s (%d entradas)\n",
+                presetDictionary.getId(), presetDictionary.size()));
+        }
+        sb.append(String.format("Pares codificados:    %d\n", getPairCount()));
         
         return sb.toString();
     }
@@ -0,0 +1,101 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Divide datos en bloques cuyos límites dependen del contenido (FastCDC).
+ *
+ * Un hash rodante tipo Gear recorre los bytes y se corta donde sus bits
+ * superiores valen cero. Como el límite depende solo de los últimos bytes
+ * vistos, insertar o borrar datos en un punto del archivo cambia únicamente
+ * los bloques cercanos y el resto se vuelve a encontrar idéntico.
+ *
+ * Antes del tamaño promedio se exige una máscara más estricta y después
+ * una más permisiva, lo que concentra los tamaños alrededor del promedio.
+ */
+public class ContentDefinedChunker {
+    private static final long[] GEAR = new long[256];
+
+    static {
+        // Tabla fija: los mismos datos deben cortarse igual en cualquier ejecución
+        SplittableRandom random = new SplittableRandom(0x4C5A3738L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final int minSize;
+    private final int averageSize;
+    private final int maxSize;
+    private final long strictMask;
+    private final long looseMask;
+
+    /**
+     * Bloques de 2 KB a 64 KB con promedio de 8 KB
+     */
+    public ContentDefinedChunker() {
+        this(2 * 1024, 8 * 1024, 64 * 1024);
+    }
+
+    /**
+     * @param minSize Tamaño mínimo de bloque
+     * @param averageSize Tamaño promedio (potencia de 2)
+     * @param maxSize Tamaño máximo de bloque
+     */
+    public ContentDefinedChunker(int minSize, int averageSize, int maxSize) {
+        if (minSize <= 0 || minSize > averageSize || averageSize > maxSize
+            || Integer.bitCount(averageSize) != 1) {
+            throw new IllegalArgumentException("Tamaños de bloque inválidos");
+        }
+        this.minSize = minSize;
+        this.averageSize = averageSize;
+        this.maxSize = maxSize;
+
+        int bits = Integer.numberOfTrailingZeros(averageSize);
+        this.strictMask = -1L << (64 - (bits + 2));
+        this.looseMask = -1L << (64 - Math.max(1, bits - 2));
+    }
+
+    /**
+     * Busca el final del siguiente bloque
+     * @param data Datos disponibles
+     * @param offset Inicio del bloque
+     * @param length Bytes disponibles desde offset (al menos maxSize, salvo al final de la entrada)
+     * @return Longitud del bloque
+     */
+    public int nextChunkLength(byte[] data, int offset, int length) {
+        if (length <= minSize) {
+            return length;
+        }
+
+        int normal = Math.min(length, averageSize);
+        int end = Math.min(length, maxSize);
+        long hash = 0;
+        int i = minSize;
+        for (; i < normal; i++) {
+            hash = (hash << 1) + GEAR[data[offset + i] & 0xFF];
+            if ((hash & strictMask) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < end; i++) {
+            hash = (hash << 1) + GEAR[data[offset + i] & 0xFF];
+            if ((hash & looseMask) == 0) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getAverageSize() {
+        return averageSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
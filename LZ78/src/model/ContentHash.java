@@ -0,0 +1,191 @@
+package model;
+
+/**
+ * Hash de contenido de 128 bits (MurmurHash3 x64_128) calculado directamente
+ * sobre los caracteres, sin copiar el texto a un arreglo de bytes.
+ *
+ * Cada carácter aporta sus 16 bits en orden little-endian, por lo que el
+ * resultado equivale a aplicar MurmurHash3 sobre el texto codificado en UTF-16LE.
+ */
+public final class ContentHash {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private ContentHash() {
+    }
+
+    /**
+     * Calcula el hash de 128 bits de un texto
+     * @param text Texto a procesar
+     * @param seed Semilla
+     * @return Arreglo con las dos mitades del hash {h1, h2}
+     */
+    public static long[] hash128(CharSequence text, long seed) {
+        int length = text.length();
+        long h1 = seed;
+        long h2 = seed;
+
+        // Bloques de 16 bytes = 8 caracteres
+        int blocks = length / 8;
+        for (int b = 0; b < blocks; b++) {
+            int i = b * 8;
+            long k1 = charsToLong(text, i);
+            long k2 = charsToLong(text, i + 4);
+
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        // Cola: hasta 7 caracteres restantes
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 8;
+        int remaining = length - tail;
+        for (int j = remaining - 1; j >= 0; j--) {
+            long c = text.charAt(tail + j);
+            if (j >= 4) {
+                k2 |= c << (16 * (j - 4));
+            } else {
+                k1 |= c << (16 * j);
+            }
+        }
+        if (remaining > 4) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+        }
+        if (remaining > 0) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+        }
+
+        // Finalización
+        long byteLength = (long) length * 2;
+        h1 ^= byteLength;
+        h2 ^= byteLength;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+
+        return new long[]{h1, h2};
+    }
+
+    /**
+     * Calcula el hash de 128 bits de un rango de bytes (MurmurHash3 x64_128 estándar)
+     * @param data Bytes a procesar
+     * @param offset Posición inicial
+     * @param length Cantidad de bytes
+     * @param seed Semilla
+     * @return Arreglo con las dos mitades del hash {h1, h2}
+     */
+    public static long[] hash128(byte[] data, int offset, int length, long seed) {
+        long h1 = seed;
+        long h2 = seed;
+
+        int blocks = length / 16;
+        for (int b = 0; b < blocks; b++) {
+            int i = offset + b * 16;
+            long k1 = bytesToLong(data, i, 8);
+            long k2 = bytesToLong(data, i + 8, 8);
+
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        // Cola: hasta 15 bytes restantes
+        int tail = offset + blocks * 16;
+        int remaining = length - blocks * 16;
+        if (remaining > 8) {
+            long k2 = bytesToLong(data, tail + 8, remaining - 8);
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+        }
+        if (remaining > 0) {
+            long k1 = bytesToLong(data, tail, Math.min(remaining, 8));
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+
+        return new long[]{h1, h2};
+    }
+
+    /**
+     * Calcula el hash de 128 bits y lo retorna como 32 dígitos hexadecimales
+     */
+    public static String hash128Hex(CharSequence text, long seed) {
+        long[] hash = hash128(text, seed);
+        return String.format("%016x%016x", hash[0], hash[1]);
+    }
+
+    private static long charsToLong(CharSequence text, int i) {
+        return (long) text.charAt(i)
+            | ((long) text.charAt(i + 1) << 16)
+            | ((long) text.charAt(i + 2) << 32)
+            | ((long) text.charAt(i + 3) << 48);
+    }
+
+    /**
+     * Lee hasta 8 bytes en orden little-endian
+     */
+    private static long bytesToLong(byte[] data, int i, int count) {
+        long value = 0;
+        for (int j = count - 1; j >= 0; j--) {
+            value = (value << 8) | (data[i + j] & 0xFFL);
+        }
+        return value;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,137 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Detecta contenido que LZ78 no puede comprimir: formatos ya comprimidos
+ * (por sus bytes mágicos) y datos de alta entropía.
+ *
+ * Estos archivos se guardan en modo almacenado, copiando los bytes sin
+ * codificar, para no gastar CPU ni expandir el resultado.
+ */
+public class ContentSniffer {
+    private static final int SAMPLE_WINDOW = 16 * 1024;
+    private static final int SAMPLE_WINDOWS = 8;
+    private static final double MAX_ENTROPY = 7.5;
+
+    /**
+     * Firma de un formato ya comprimido
+     */
+    private static class Signature {
+        final String format;
+        final int offset;
+        final byte[] magic;
+
+        Signature(String format, int offset, int... magic) {
+            this.format = format;
+            this.offset = offset;
+            this.magic = new byte[magic.length];
+            for (int i = 0; i < magic.length; i++) {
+                this.magic[i] = (byte) magic[i];
+            }
+        }
+
+        boolean matches(byte[] header, int length) {
+            if (offset + magic.length > length) {
+                return false;
+            }
+            for (int i = 0; i < magic.length; i++) {
+                if (header[offset + i] != magic[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final Signature[] SIGNATURES = {
+        new Signature("PNG", 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A),
+        new Signature("JPEG", 0, 0xFF, 0xD8, 0xFF),
+        new Signature("GIF", 0, 'G', 'I', 'F', '8'),
+        new Signature("WEBP", 8, 'W', 'E', 'B', 'P'),
+        new Signature("ZIP/Office", 0, 'P', 'K', 0x03, 0x04),
+        new Signature("RAR", 0, 'R', 'a', 'r', '!', 0x1A, 0x07),
+        new Signature("7z", 0, '7', 'z', 0xBC, 0xAF, 0x27, 0x1C),
+        new Signature("GZIP", 0, 0x1F, 0x8B),
+        new Signature("BZIP2", 0, 'B', 'Z', 'h'),
+        new Signature("XZ", 0, 0xFD, '7', 'z', 'X', 'Z', 0x00),
+        new Signature("Zstandard", 0, 0x28, 0xB5, 0x2F, 0xFD),
+        new Signature("MP4", 4, 'f', 't', 'y', 'p'),
+        new Signature("LZ78", 0, 0x00, 0x04, 'L', 'Z', '7', '8'),
+        new Signature("LZ78", 0, 0x00, 0x05, 'L', 'Z', '7', '8')
+    };
+
+    private final CompressibilityEstimator estimator;
+
+    public ContentSniffer() {
+        this(new CompressibilityEstimator());
+    }
+
+    public ContentSniffer(CompressibilityEstimator estimator) {
+        this.estimator = estimator;
+    }
+
+    /**
+     * Identifica un formato ya comprimido por sus bytes mágicos
+     * @param header Primeros bytes del contenido
+     * @param length Cantidad de bytes válidos en header
+     * @return Nombre del formato, o null si no se reconoce
+     */
+    public String detectCompressedFormat(byte[] header, int length) {
+        for (Signature signature : SIGNATURES) {
+            if (signature.matches(header, length)) {
+                return signature.format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decide si un archivo debe guardarse en modo almacenado
+     * @param file Archivo a analizar
+     * @return Motivo (formato o entropía), o null si conviene comprimirlo
+     * @throws IOException Si hay error al leer
+     */
+    public String detectIncompressible(File file) throws IOException {
+        long length = file.length();
+        if (length == 0) {
+            return null;
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            byte[] header = new byte[16];
+            int headerLength = (int) Math.min(header.length, length);
+            raf.readFully(header, 0, headerLength);
+
+            String format = detectCompressedFormat(header, headerLength);
+            if (format != null) {
+                return "formato " + format + " ya comprimido";
+            }
+
+            // Muestrear ventanas repartidas en el archivo (bytes como chars 0-255)
+            int windows = length <= (long) SAMPLE_WINDOW * SAMPLE_WINDOWS ? 1 : SAMPLE_WINDOWS;
+            int window = windows == 1 ? (int) length : SAMPLE_WINDOW;
+            byte[] buffer = new byte[window];
+            StringBuilder sample = new StringBuilder(window * windows);
+            for (int w = 0; w < windows; w++) {
+                long offset = windows == 1 ? 0 : w * (length - window) / (windows - 1);
+                raf.seek(offset);
+                raf.readFully(buffer);
+                for (byte b : buffer) {
+                    sample.append((char) (b & 0xFF));
+                }
+            }
+
+            CompressibilityEstimator.Estimate estimate = estimator.estimate(sample.toString());
+            if (estimate.getEntropy() > MAX_ENTROPY) {
+                return String.format("entropía alta (%.2f bits/byte)", estimate.getEntropy());
+            }
+            if (!estimate.isWorthCompressing()) {
+                return String.format("expansión estimada %.2f%%", -estimate.getEstimatedPercentage());
+            }
+            return null;
+        }
+    }
+}
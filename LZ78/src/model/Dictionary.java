@@ -4,34 +4,57 @@ import java.util.*;
 
 /**
  * Representa el diccionario usado en el algoritmo LZ78
+ *
+ * Puede continuar a partir de un diccionario base sin copiarlo: las
+ * búsquedas consultan primero la base y las entradas nuevas se guardan
+ * aparte, con índices a continuación de los de la base.
  */
 public class Dictionary {
     private Map<String, Integer> dictionary;
     private Map<Integer, String> reverseDictionary;
     private int nextIndex;
+    private Dictionary base;
+    private int baseNextIndex;
 
     public Dictionary() {
+        this(null);
+    }
+
+    /**
+     * Crea un diccionario que continúa a partir de otro
+     * @param base Diccionario base (null para iniciar vacío); no debe modificarse mientras se use
+     */
+    Dictionary(Dictionary base) {
         this.dictionary = new HashMap<>();
         this.reverseDictionary = new HashMap<>();
-        this.nextIndex = 1;
+        this.base = base;
+        this.baseNextIndex = base != null ? base.nextIndex : 1;
+        this.nextIndex = baseNextIndex;
     }
 
     /**
      * Agrega una entrada al diccionario
      */
     public int add(String sequence) {
-        if (!dictionary.containsKey(sequence)) {
-            dictionary.put(sequence, nextIndex);
-            reverseDictionary.put(nextIndex, sequence);
-            nextIndex++;
+        Integer index = getIndex(sequence);
+        if (index != null) {
+            return index;
         }
-        return dictionary.get(sequence);
+        dictionary.put(sequence, nextIndex);
+        reverseDictionary.put(nextIndex, sequence);
+        return nextIndex++;
     }
 
     /**
      * Obtiene el índice de una secuencia
      */
     public Integer getIndex(String sequence) {
+        if (base != null) {
+            Integer index = base.getIndex(sequence);
+            if (index != null) {
+                return index;
+            }
+        }
         return dictionary.get(sequence);
     }
 
@@ -39,6 +62,9 @@ public class Dictionary {
      * Obtiene la secuencia dado un índice
      */
     public String getSequence(int index) {
+        if (index < baseNextIndex) {
+            return base != null ? base.getSequence(index) : null;
+        }
         return reverseDictionary.get(index);
     }
 
@@ -46,22 +72,24 @@ public class Dictionary {
      * Verifica si una secuencia existe en el diccionario
      */
     public boolean contains(String sequence) {
-        return dictionary.containsKey(sequence);
+        return (base != null && base.contains(sequence)) || dictionary.containsKey(sequence);
     }
 
     /**
      * Retorna el tamaño del diccionario
      */
     public int size() {
-        return dictionary.size();
+        return (base != null ? base.size() : 0) + dictionary.size();
     }
 
     /**
-     * Limpia el diccionario
+     * Limpia el diccionario, incluidas las entradas de la base
      */
     public void clear() {
         dictionary.clear();
         reverseDictionary.clear();
+        base = null;
+        baseNextIndex = 1;
         nextIndex = 1;
     }
 
@@ -69,7 +97,9 @@ public class Dictionary {
      * Obtiene una copia del diccionario para visualización
      */
     public Map<Integer, String> getReverseDictionary() {
-        return new HashMap<>(reverseDictionary);
+        Map<Integer, String> copy = base != null ? base.getReverseDictionary() : new HashMap<>();
+        copy.putAll(reverseDictionary);
+        return copy;
     }
 
     /**
@@ -80,11 +110,12 @@ public class Dictionary {
         sb.append("DICCIONARIO LZ78\n");
         sb.append("================\n\n");
         
-        List<Integer> indices = new ArrayList<>(reverseDictionary.keySet());
+        Map<Integer, String> entries = getReverseDictionary();
+        List<Integer> indices = new ArrayList<>(entries.keySet());
         Collections.sort(indices);
         
         for (int index : indices) {
-            String sequence = reverseDictionary.get(index);
+            String sequence = entries.get(index);
             sb.append(String.format("%-5d -> %s\n", index, escapeString(sequence)));
         }
         
@@ -1,5 +1,7 @@
 package model;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,6 +9,7 @@ import java.util.List;
  * Implementa el algoritmo de compresión LZ78
  */
 public class LZ78Compressor {
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
     
     /**
      * Comprime un texto usando el algoritmo LZ78
@@ -15,12 +18,23 @@ public class LZ78Compressor {
      * @throws IllegalArgumentException si el texto está vacío
      */
     public CompressionResult compress(String text) {
+        return compress(text, null);
+    }
+
+    /**
+     * Comprime un texto iniciando desde un diccionario predefinido
+     * @param text Texto a comprimir
+     * @param preset Diccionario predefinido (null para iniciar vacío)
+     * @return Resultado de la compresión
+     * @throws IllegalArgumentException si el texto está vacío
+     */
+    public CompressionResult compress(String text, PresetDictionary preset) {
         if (text == null || text.isEmpty()) {
             throw new IllegalArgumentException("El texto no puede estar vacío");
         }
 
         CompressionResult result = new CompressionResult();
-        Dictionary dictionary = new Dictionary();
+        Dictionary dictionary = preset != null ? preset.createDictionary() : new Dictionary();
         List<CompressionResult.EncodedPair> encodedData = new ArrayList<>();
 
         String current = "";
@@ -60,12 +74,55 @@ public class LZ78Compressor {
         result.setOriginalText(text);
         result.setEncodedData(encodedData);
         result.setDictionary(dictionary);
+        result.setPresetDictionary(preset);
         result.setOriginalSize(text.length());
         
-        // Calcular tamaño comprimido de forma más precisa
-        // Usar codificación de tamaño variable basada en el tamaño del diccionario
+        result.setCompressedSize(calculateCompressedSize(encodedData.size(), dictionary.size()));
+
+        return result;
+    }
+
+    /**
+     * Comprime un flujo de texto sin cargarlo completo en memoria, usando
+     * un diccionario fuera del heap
+     * @param in Texto de entrada
+     * @param sink Destino de los pares codificados
+     * @param dictionary Diccionario fuera del heap (normalmente vacío)
+     * @return Resultado con tamaños y número de pares (sin pares ni diccionario en memoria)
+     * @throws IOException Si hay error al leer o escribir
+     * @throws IllegalArgumentException si la entrada está vacía
+     */
+    public CompressionResult compressStream(Reader in, LZ78StreamEncoder.PairSink sink,
+                                            OffHeapDictionary dictionary) throws IOException {
+        LZ78StreamEncoder encoder = new LZ78StreamEncoder(dictionary);
+        char[] buffer = new char[STREAM_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            encoder.encode(buffer, 0, read, sink);
+        }
+        encoder.finish(sink);
+
+        if (encoder.getInputChars() == 0) {
+            throw new IllegalArgumentException("El texto no puede estar vacío");
+        }
+
+        CompressionResult result = new CompressionResult();
+        result.setOriginalSize(encoder.getInputChars());
+        result.setPairCount(encoder.getPairCount());
+        result.setCompressedSize(calculateCompressedSize(encoder.getPairCount(), dictionary.size()));
+        return result;
+    }
+
+    /**
+     * Calcula el tamaño comprimido de forma más precisa, usando codificación
+     * de tamaño variable basada en el tamaño del diccionario
+     * @param pairCount Número de pares codificados
+     * @param dictionarySize Tamaño del diccionario
+     * @return Tamaño estimado en bytes, incluyendo el encabezado
+     */
+    static long calculateCompressedSize(long pairCount, int dictionarySize) {
         long compressedSize = 0;
-        int maxIndex = dictionary.size();
+        int maxIndex = dictionarySize;
         
         // Calcular bits necesarios para representar los índices
         int bitsForIndex = maxIndex > 0 ? (int) Math.ceil(Math.log(maxIndex + 1) / Math.log(2)) : 1;
@@ -73,7 +130,7 @@ public class LZ78Compressor {
         
         // Cada par: índice (bits variables) + carácter (8 bits)
         int bitsPerPair = bitsForIndex + 8;
-        long totalBits = (long) encodedData.size() * bitsPerPair;
+        long totalBits = pairCount * bitsPerPair;
         
         // Convertir a bytes (redondear hacia arriba)
         compressedSize = (totalBits + 7) / 8;
@@ -81,9 +138,7 @@ public class LZ78Compressor {
         // Añadir overhead del formato (número mágico, tamaños, etc.)
         compressedSize += 50; // Overhead aproximado del encabezado
         
-        result.setCompressedSize(compressedSize);
-
-        return result;
+        return compressedSize;
     }
 
     /**
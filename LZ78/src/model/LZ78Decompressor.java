@@ -1,5 +1,8 @@
 package model;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
 /**
@@ -14,12 +17,23 @@ public class LZ78Decompressor {
      * @throws IllegalArgumentException si los datos están vacíos o son inválidos
      */
     public CompressionResult decompress(List<CompressionResult.EncodedPair> encodedData) {
+        return decompress(encodedData, null);
+    }
+
+    /**
+     * Descomprime datos codificados con LZ78 a partir de un diccionario predefinido
+     * @param encodedData Lista de pares codificados
+     * @param preset Diccionario predefinido usado al comprimir (null si no se usó)
+     * @return Resultado con el texto descomprimido
+     * @throws IllegalArgumentException si los datos están vacíos o son inválidos
+     */
+    public CompressionResult decompress(List<CompressionResult.EncodedPair> encodedData, PresetDictionary preset) {
         if (encodedData == null || encodedData.isEmpty()) {
             throw new IllegalArgumentException("Los datos codificados no pueden estar vacíos");
         }
 
         CompressionResult result = new CompressionResult();
-        Dictionary dictionary = new Dictionary();
+        Dictionary dictionary = preset != null ? preset.createDictionary() : new Dictionary();
         StringBuilder decompressedText = new StringBuilder();
 
         for (CompressionResult.EncodedPair pair : encodedData) {
@@ -48,6 +62,7 @@ public class LZ78Decompressor {
 
         result.setDecompressedText(decompressedText.toString());
         result.setDictionary(dictionary);
+        result.setPresetDictionary(preset);
         result.setEncodedData(encodedData);
         result.setOriginalSize(decompressedText.length());
         
@@ -64,7 +79,17 @@ public class LZ78Decompressor {
      * @return Diccionario reconstruido
      */
     public Dictionary rebuildDictionary(List<CompressionResult.EncodedPair> encodedData) {
-        Dictionary dictionary = new Dictionary();
+        return rebuildDictionary(encodedData, null);
+    }
+
+    /**
+     * Reconstruye el diccionario a partir de datos codificados y un diccionario predefinido
+     * @param encodedData Lista de pares codificados
+     * @param preset Diccionario predefinido usado al comprimir (null si no se usó)
+     * @return Diccionario reconstruido
+     */
+    public Dictionary rebuildDictionary(List<CompressionResult.EncodedPair> encodedData, PresetDictionary preset) {
+        Dictionary dictionary = preset != null ? preset.createDictionary() : new Dictionary();
 
         for (CompressionResult.EncodedPair pair : encodedData) {
             int index = pair.getIndex();
@@ -87,6 +112,38 @@ public class LZ78Decompressor {
         return dictionary;
     }
 
+    /**
+     * Descomprime un flujo de pares sin cargarlos en memoria, usando un
+     * diccionario fuera del heap
+     * @param in Flujo posicionado al inicio de los pares (int índice, char carácter)
+     * @param pairCount Número de pares a leer
+     * @param out Destino del texto descomprimido
+     * @param dictionary Diccionario fuera del heap (normalmente vacío)
+     * @return Resultado con tamaños y número de pares (sin texto ni diccionario en memoria)
+     * @throws IOException Si hay error al leer o escribir
+     * @throws IllegalArgumentException si los datos son inválidos
+     */
+    public CompressionResult decompressStream(DataInputStream in, long pairCount, Writer out,
+                                              OffHeapDictionary dictionary) throws IOException {
+        if (pairCount <= 0) {
+            throw new IllegalArgumentException("Los datos codificados no pueden estar vacíos");
+        }
+
+        LZ78StreamDecoder decoder = new LZ78StreamDecoder(dictionary);
+        for (long i = 0; i < pairCount; i++) {
+            int index = in.readInt();
+            char character = in.readChar();
+            decoder.decode(index, character, out);
+        }
+        out.flush();
+
+        CompressionResult result = new CompressionResult();
+        result.setOriginalSize(decoder.getOutputChars());
+        result.setPairCount(pairCount);
+        result.setCompressedSize(calculateCompressedSize(pairCount, dictionary.size()));
+        return result;
+    }
+
     /**
      * Calcula el tamaño real del archivo comprimido en bytes
      * usando codificación de longitud variable basada en el tamaño del diccionario
@@ -95,7 +152,11 @@ public class LZ78Decompressor {
      * @return Tamaño estimado en bytes
      */
     private long calculateCompressedSize(List<CompressionResult.EncodedPair> encodedData, int dictionarySize) {
-        if (encodedData.isEmpty()) {
+        return calculateCompressedSize(encodedData.size(), dictionarySize);
+    }
+
+    private long calculateCompressedSize(long pairCount, int dictionarySize) {
+        if (pairCount == 0) {
             return 0;
         }
 
@@ -108,7 +169,7 @@ public class LZ78Decompressor {
         int bitsPerChar = 8;
         
         // Total de bits para todos los pares
-        long totalBits = (long) encodedData.size() * (bitsPerIndex + bitsPerChar);
+        long totalBits = pairCount * (bitsPerIndex + bitsPerChar);
         
         // Convertir a bytes (redondear hacia arriba)
         long totalBytes = (totalBits + 7) / 8;
@@ -0,0 +1,75 @@
+package model;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Decodificador LZ78 incremental sobre un diccionario fuera del heap.
+ *
+ * Cada par se traduce recorriendo la cadena de prefijos del trie, sin
+ * guardar las frases como String.
+ */
+public class LZ78StreamDecoder {
+    private final OffHeapDictionary dictionary;
+    private char[] phrase;
+    private long outputChars;
+
+    public LZ78StreamDecoder(OffHeapDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.phrase = new char[256];
+    }
+
+    /**
+     * Decodifica un par y escribe su secuencia
+     * @param index Índice del prefijo
+     * @param character Carácter del par
+     * @param out Destino del texto
+     * @throws IOException Si hay error al escribir
+     * @throws IllegalArgumentException Si el índice no existe
+     */
+    public void decode(int index, char character, Writer out) throws IOException {
+        if (index < 0 || index > dictionary.size()) {
+            throw new IllegalArgumentException("Datos corruptos: índice " + index + " no encontrado");
+        }
+
+        // Recorrer los prefijos de atrás hacia adelante
+        int length = 0;
+        int node = index;
+        while (node != 0) {
+            if (length == phrase.length) {
+                phrase = grow(phrase);
+            }
+            phrase[length++] = dictionary.getCharacter(node);
+            node = dictionary.getParent(node);
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            char tmp = phrase[i];
+            phrase[i] = phrase[j];
+            phrase[j] = tmp;
+        }
+        if (length == phrase.length) {
+            phrase = grow(phrase);
+        }
+        phrase[length++] = character;
+
+        out.write(phrase, 0, length);
+        outputChars += length;
+
+        // Igual que Dictionary.add: una secuencia repetida no crea entrada nueva
+        dictionary.addIfAbsent(index, character);
+    }
+
+    private static char[] grow(char[] buffer) {
+        char[] grown = new char[buffer.length * 2];
+        System.arraycopy(buffer, 0, grown, 0, buffer.length);
+        return grown;
+    }
+
+    public long getOutputChars() {
+        return outputChars;
+    }
+
+    public OffHeapDictionary getDictionary() {
+        return dictionary;
+    }
+}
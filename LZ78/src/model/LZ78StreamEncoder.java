@@ -0,0 +1,103 @@
+package model;
+
+import java.io.IOException;
+
+/**
+ * Codificador LZ78 incremental sobre un diccionario fuera del heap.
+ *
+ * Recibe el texto por bloques y emite cada par (índice, carácter) a un
+ * destino apenas se completa. La frase actual se conserva entre bloques,
+ * de modo que dividir la entrada no cambia los pares generados.
+ */
+public class LZ78StreamEncoder {
+
+    /**
+     * Destino de los pares codificados
+     */
+    public interface PairSink {
+        void accept(int index, char character) throws IOException;
+    }
+
+    private final OffHeapDictionary dictionary;
+    private int current;
+    private long inputChars;
+    private long pairCount;
+
+    public LZ78StreamEncoder(OffHeapDictionary dictionary) {
+        this(dictionary, 0);
+    }
+
+    /**
+     * @param dictionary Diccionario (vacío o restaurado de una ejecución previa)
+     * @param currentPhrase Índice de la frase en curso (0 = vacía)
+     */
+    public LZ78StreamEncoder(OffHeapDictionary dictionary, int currentPhrase) {
+        if (currentPhrase < 0 || currentPhrase > dictionary.size()) {
+            throw new IllegalArgumentException("Frase actual " + currentPhrase + " no encontrada");
+        }
+        this.dictionary = dictionary;
+        this.current = currentPhrase;
+    }
+
+    /**
+     * Codifica un bloque de caracteres
+     * @param buffer Caracteres a codificar
+     * @param offset Posición inicial
+     * @param length Cantidad de caracteres
+     * @param sink Destino de los pares completados
+     * @throws IOException Si el destino o el diccionario fallan
+     */
+    public void encode(char[] buffer, int offset, int length, PairSink sink) throws IOException {
+        int phrase = current;
+        for (int i = offset; i < offset + length; i++) {
+            char c = buffer[i];
+            int next = dictionary.lookup(phrase, c);
+
+            if (next != 0) {
+                phrase = next;
+            } else {
+                // Emitir (prefijo, carácter) y agregar la nueva frase
+                sink.accept(phrase, c);
+                dictionary.add(phrase, c);
+                pairCount++;
+                phrase = 0;
+            }
+        }
+        current = phrase;
+        inputChars += length;
+    }
+
+    /**
+     * Emite la frase pendiente, igual que el final de LZ78Compressor.compress.
+     * El par emitido corresponde a una frase que ya existe, así que el
+     * diccionario no cambia y la codificación puede continuar después.
+     * @param sink Destino del último par
+     * @throws IOException Si el destino falla
+     */
+    public void finish(PairSink sink) throws IOException {
+        if (current != 0) {
+            sink.accept(dictionary.getParent(current), dictionary.getCharacter(current));
+            pairCount++;
+            current = 0;
+        }
+    }
+
+    /**
+     * @return Índice de la frase en curso (0 = vacía)
+     */
+    public int getCurrentPhrase() {
+        return current;
+    }
+
+    public long getInputChars() {
+        return inputChars;
+    }
+
+    public long getPairCount() {
+        return pairCount;
+    }
+
+    public OffHeapDictionary getDictionary() {
+        return dictionary;
+    }
+}
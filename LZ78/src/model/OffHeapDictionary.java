@@ -0,0 +1,379 @@
+package model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Diccionario LZ78 almacenado fuera del heap de Java.
+ *
+ * Guarda el diccionario como un trie: cada frase es un nodo (prefijo, carácter)
+ * y un índice hash de direccionamiento abierto permite buscar el hijo de un
+ * nodo en O(1). Ambos arreglos viven en ByteBuffers directos o en archivos
+ * mapeados en memoria, así que el recolector de basura no los recorre y las
+ * pausas no crecen con el tamaño del diccionario.
+ *
+ * El nodo 0 es la frase vacía; su posición guarda el número de frases para
+ * que un diccionario mapeado pueda volver a abrirse desde disco.
+ */
+public class OffHeapDictionary implements AutoCloseable {
+    private static final int SEGMENT_SHIFT = 24;
+    private static final long SEGMENT_ELEMENTS = 1L << SEGMENT_SHIFT;
+    private static final long INITIAL_CAPACITY = 1 << 12;
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 1;
+    private static final String NODES_SUFFIX = ".nodes";
+    private static final String INDEX_SUFFIX = ".index";
+
+    private final File scratchBase;
+    private final boolean persistent;
+    private Storage nodes;
+    private Storage slots;
+    private long slotMask;
+    private int size;
+
+    /**
+     * Crea un diccionario vacío en memoria directa (fuera del heap)
+     */
+    public OffHeapDictionary() throws IOException {
+        this(null, false);
+    }
+
+    /**
+     * Crea un diccionario vacío respaldado por archivos mapeados en memoria
+     * @param scratchBase Ruta base de los archivos (se agregan sufijos .nodes e .index)
+     * @param persistent true para conservar los archivos al cerrar
+     * @throws IOException Si no se pueden crear los archivos
+     */
+    public OffHeapDictionary(File scratchBase, boolean persistent) throws IOException {
+        this.scratchBase = scratchBase;
+        this.persistent = persistent;
+        if (scratchBase != null) {
+            Files.deleteIfExists(nodesFile().toPath());
+            Files.deleteIfExists(indexFile().toPath());
+        }
+        this.nodes = new Storage(nodesFile(), Long.BYTES, INITIAL_CAPACITY);
+        this.slots = new Storage(indexFile(), Integer.BYTES, INITIAL_CAPACITY * 2);
+        this.slotMask = slots.capacity - 1;
+        this.size = 0;
+        nodes.putLong(0, 0);
+    }
+
+    private OffHeapDictionary(File scratchBase, Storage nodes, Storage slots) {
+        this.scratchBase = scratchBase;
+        this.persistent = true;
+        this.nodes = nodes;
+        this.slots = slots;
+        this.slotMask = slots.capacity - 1;
+        this.size = (int) nodes.getLong(0);
+    }
+
+    /**
+     * Abre un diccionario persistente guardado previamente
+     * @param scratchBase Ruta base usada al crearlo
+     * @return Diccionario con todas sus frases
+     * @throws IOException Si los archivos no existen o están corruptos
+     */
+    public static OffHeapDictionary open(File scratchBase) throws IOException {
+        File nodesFile = new File(scratchBase.getPath() + NODES_SUFFIX);
+        File indexFile = new File(scratchBase.getPath() + INDEX_SUFFIX);
+        if (!nodesFile.exists() || !indexFile.exists()) {
+            throw new IOException("No existe el diccionario en " + scratchBase);
+        }
+
+        long slotCapacity = indexFile.length() / Integer.BYTES;
+        if (Long.bitCount(slotCapacity) != 1) {
+            throw new IOException("Diccionario corrupto: índice de tamaño inválido");
+        }
+        Storage nodes = new Storage(nodesFile, Long.BYTES, nodesFile.length() / Long.BYTES);
+        Storage slots = new Storage(indexFile, Integer.BYTES, slotCapacity);
+        OffHeapDictionary dictionary = new OffHeapDictionary(scratchBase, nodes, slots);
+        if (dictionary.size < 0 || dictionary.size >= nodes.capacity) {
+            dictionary.close();
+            throw new IOException("Diccionario corrupto: tamaño inválido");
+        }
+        return dictionary;
+    }
+
+    /**
+     * Busca la frase formada por un prefijo más un carácter
+     * @param parent Índice del prefijo (0 = frase vacía)
+     * @param character Carácter que extiende el prefijo
+     * @return Índice de la frase, o 0 si no existe
+     */
+    public int lookup(int parent, char character) {
+        long key = key(parent, character);
+        long slot = hash(key) & slotMask;
+        while (true) {
+            int index = slots.getInt(slot);
+            if (index == 0) {
+                return 0;
+            }
+            if (nodes.getLong(index) == key) {
+                return index;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    /**
+     * Agrega una frase nueva (se asume que no existe)
+     * @param parent Índice del prefijo
+     * @param character Carácter que extiende el prefijo
+     * @return Índice asignado a la frase
+     * @throws IOException Si no se puede ampliar el almacenamiento
+     */
+    public int add(int parent, char character) throws IOException {
+        if (size >= MAX_SIZE) {
+            throw new IllegalStateException("El diccionario alcanzó su tamaño máximo");
+        }
+        if (parent < 0 || parent > size) {
+            throw new IllegalArgumentException("Prefijo " + parent + " no encontrado");
+        }
+
+        int index = size + 1;
+        if (index >= nodes.capacity) {
+            nodes.grow(nodes.capacity * 2);
+        }
+        long key = key(parent, character);
+        nodes.putLong(index, key);
+        size = index;
+        nodes.putLong(0, size);
+
+        // Mantener el factor de carga del índice por debajo de 1/2
+        if ((long) size * 2 > slots.capacity) {
+            rehash(slots.capacity * 2);
+        } else {
+            insertSlot(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Agrega la frase solo si no existe (igual que Dictionary.add)
+     * @return Índice de la frase existente o nueva
+     * @throws IOException Si no se puede ampliar el almacenamiento
+     */
+    public int addIfAbsent(int parent, char character) throws IOException {
+        int existing = lookup(parent, character);
+        return existing != 0 ? existing : add(parent, character);
+    }
+
+    private void insertSlot(long key, int index) {
+        long slot = hash(key) & slotMask;
+        while (slots.getInt(slot) != 0) {
+            slot = (slot + 1) & slotMask;
+        }
+        slots.putInt(slot, index);
+    }
+
+    /**
+     * Reconstruye el índice hash con una capacidad mayor
+     */
+    private void rehash(long newCapacity) throws IOException {
+        File target = scratchBase != null ? new File(scratchBase.getPath() + INDEX_SUFFIX + ".tmp") : null;
+        if (target != null) {
+            Files.deleteIfExists(target.toPath());
+        }
+        Storage old = slots;
+        slots = new Storage(target, Integer.BYTES, newCapacity);
+        slotMask = newCapacity - 1;
+        for (int i = 1; i <= size; i++) {
+            insertSlot(nodes.getLong(i), i);
+        }
+        old.close();
+        if (target != null) {
+            Files.move(target.toPath(), indexFile().toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return Índice del prefijo de una frase
+     */
+    public int getParent(int index) {
+        return (int) (nodes.getLong(index) >>> 16);
+    }
+
+    /**
+     * @return Último carácter de una frase
+     */
+    public char getCharacter(int index) {
+        return (char) nodes.getLong(index);
+    }
+
+    /**
+     * @return Número de frases (sin contar la frase vacía)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Vacía el diccionario para reutilizarlo con otra entrada. Si creció,
+     * vuelve a la capacidad inicial; si no, solo limpia el índice.
+     * @throws IOException Si no se puede recrear el almacenamiento
+     */
+    public void clear() throws IOException {
+        if (nodes.capacity > INITIAL_CAPACITY) {
+            nodes.close();
+            slots.close();
+            if (scratchBase != null) {
+                Files.deleteIfExists(nodesFile().toPath());
+                Files.deleteIfExists(indexFile().toPath());
+            }
+            nodes = new Storage(nodesFile(), Long.BYTES, INITIAL_CAPACITY);
+            slots = new Storage(indexFile(), Integer.BYTES, INITIAL_CAPACITY * 2);
+            slotMask = slots.capacity - 1;
+        } else {
+            for (long i = 0; i < slots.capacity; i++) {
+                slots.putInt(i, 0);
+            }
+        }
+        size = 0;
+        nodes.putLong(0, 0);
+    }
+
+    /**
+     * Escribe en disco los cambios de un diccionario mapeado
+     */
+    public void force() {
+        nodes.force();
+        slots.force();
+    }
+
+    /**
+     * Libera el almacenamiento. Los archivos temporales se eliminan
+     * salvo que el diccionario sea persistente.
+     */
+    @Override
+    public void close() throws IOException {
+        if (persistent) {
+            force();
+        }
+        nodes.close();
+        slots.close();
+        if (scratchBase != null && !persistent) {
+            Files.deleteIfExists(nodesFile().toPath());
+            Files.deleteIfExists(indexFile().toPath());
+        }
+    }
+
+    private File nodesFile() {
+        return scratchBase != null ? new File(scratchBase.getPath() + NODES_SUFFIX) : null;
+    }
+
+    private File indexFile() {
+        return scratchBase != null ? new File(scratchBase.getPath() + INDEX_SUFFIX) : null;
+    }
+
+    private static long key(int parent, char character) {
+        return ((long) parent << 16) | character;
+    }
+
+    private static long hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Arreglo de elementos de tamaño fijo repartido en segmentos fuera del heap
+     */
+    private static class Storage {
+        private final FileChannel channel;
+        private final int elementBytes;
+        private ByteBuffer[] segments;
+        private long capacity;
+
+        Storage(File file, int elementBytes, long capacity) throws IOException {
+            this.channel = file != null ? FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE) : null;
+            this.elementBytes = elementBytes;
+            this.segments = new ByteBuffer[0];
+            this.capacity = 0;
+            grow(capacity);
+        }
+
+        /**
+         * Amplía la capacidad. Mientras cabe en un segmento se reemplaza el
+         * único segmento; después se agregan segmentos completos.
+         */
+        void grow(long newCapacity) throws IOException {
+            if (newCapacity <= SEGMENT_ELEMENTS) {
+                ByteBuffer buffer = allocate(0, newCapacity);
+                if (channel == null && segments.length == 1) {
+                    ByteBuffer old = segments[0].duplicate();
+                    old.clear();
+                    buffer.put(old);
+                    buffer.clear();
+                }
+                segments = new ByteBuffer[]{buffer};
+                capacity = newCapacity;
+                return;
+            }
+
+            int segmentCount = (int) ((newCapacity + SEGMENT_ELEMENTS - 1) >>> SEGMENT_SHIFT);
+            ByteBuffer[] grown = new ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                boolean reusable = i < segments.length && segments[i].capacity() == SEGMENT_ELEMENTS * elementBytes;
+                if (reusable) {
+                    grown[i] = segments[i];
+                } else {
+                    grown[i] = allocate((long) i << SEGMENT_SHIFT, SEGMENT_ELEMENTS);
+                    if (channel == null && i < segments.length) {
+                        ByteBuffer old = segments[i].duplicate();
+                        old.clear();
+                        grown[i].put(old);
+                        grown[i].clear();
+                    }
+                }
+            }
+            segments = grown;
+            capacity = (long) segmentCount << SEGMENT_SHIFT;
+        }
+
+        private ByteBuffer allocate(long firstElement, long elements) throws IOException {
+            int bytes = Math.toIntExact(elements * elementBytes);
+            if (channel == null) {
+                return ByteBuffer.allocateDirect(bytes);
+            }
+            return channel.map(FileChannel.MapMode.READ_WRITE, firstElement * elementBytes, bytes);
+        }
+
+        long getLong(long i) {
+            return segments[(int) (i >>> SEGMENT_SHIFT)].getLong((int) (i & (SEGMENT_ELEMENTS - 1)) * Long.BYTES);
+        }
+
+        void putLong(long i, long value) {
+            segments[(int) (i >>> SEGMENT_SHIFT)].putLong((int) (i & (SEGMENT_ELEMENTS - 1)) * Long.BYTES, value);
+        }
+
+        int getInt(long i) {
+            return segments[(int) (i >>> SEGMENT_SHIFT)].getInt((int) (i & (SEGMENT_ELEMENTS - 1)) * Integer.BYTES);
+        }
+
+        void putInt(long i, int value) {
+            segments[(int) (i >>> SEGMENT_SHIFT)].putInt((int) (i & (SEGMENT_ELEMENTS - 1)) * Integer.BYTES, value);
+        }
+
+        void force() {
+            for (ByteBuffer segment : segments) {
+                if (segment instanceof MappedByteBuffer) {
+                    ((MappedByteBuffer) segment).force();
+                }
+            }
+        }
+
+        void close() throws IOException {
+            segments = new ByteBuffer[0];
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package model;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Diccionario LZ78 predefinido, entrenado a partir de un corpus de ejemplo.
+ *
+ * El compresor y el descompresor pueden iniciar con estas entradas en lugar
+ * de un diccionario vacío, lo que mejora la compresión de mensajes pequeños.
+ * Cada entrada i se guarda como el par (prefijo, carácter), igual que los
+ * pares codificados, por lo que el conjunto es cerrado bajo prefijos.
+ *
+ * Formato del archivo (.lz78d, big-endian):
+ *   int magic | short versión | short largo id | id UTF-8 | int entradas |
+ *   long CRC32 de las entradas | entradas (int prefijo, char carácter)
+ */
+public class PresetDictionary {
+    public static final String FILE_EXTENSION = ".lz78d";
+    private static final int MAGIC = 0x4C5A3744; // "LZ7D"
+    private static final short VERSION = 1;
+    private static final int ENTRY_BYTES = Integer.BYTES + Character.BYTES;
+
+    private final String id;
+    private final int[] parents;
+    private final char[] characters;
+    private final long checksum;
+    private String[] sequences;
+    private Dictionary baseDictionary;
+
+    private PresetDictionary(String id, int[] parents, char[] characters) {
+        this.id = id;
+        this.parents = parents;
+        this.characters = characters;
+        this.checksum = computeChecksum(parents, characters);
+    }
+
+    /**
+     * Entrena un diccionario predefinido con las frases LZ78 más usadas del corpus
+     * @param id Identificador del diccionario
+     * @param corpus Textos de ejemplo
+     * @param maxEntries Número máximo de entradas a conservar
+     * @return Diccionario entrenado
+     * @throws IllegalArgumentException si el corpus está vacío
+     */
+    public static PresetDictionary train(String id, List<String> corpus, int maxEntries) {
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("El identificador no puede estar vacío");
+        }
+        if (corpus == null || corpus.isEmpty()) {
+            throw new IllegalArgumentException("El corpus de entrenamiento no puede estar vacío");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("El número de entradas debe ser positivo");
+        }
+
+        // Recorrer el corpus con LZ78 compartiendo un mismo diccionario
+        Dictionary dictionary = new Dictionary();
+        List<Integer> parentList = new ArrayList<>();
+        List<Character> charList = new ArrayList<>();
+        List<Integer> uses = new ArrayList<>();
+        parentList.add(0);
+        charList.add('\0');
+        uses.add(0);
+
+        for (String text : corpus) {
+            if (text == null || text.isEmpty()) {
+                continue;
+            }
+            String current = "";
+            int currentIndex = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                String next = current + c;
+                Integer nextIndex = dictionary.getIndex(next);
+                if (nextIndex != null) {
+                    current = next;
+                    currentIndex = nextIndex;
+                } else {
+                    // El prefijo se reutiliza al emitir el par
+                    uses.set(currentIndex, uses.get(currentIndex) + 1);
+                    dictionary.add(next);
+                    parentList.add(currentIndex);
+                    charList.add(c);
+                    uses.add(0);
+                    current = "";
+                    currentIndex = 0;
+                }
+            }
+            if (currentIndex != 0) {
+                uses.set(currentIndex, uses.get(currentIndex) + 1);
+            }
+        }
+
+        int total = parentList.size();
+        // Peso de cada frase = usos propios + usos de sus extensiones.
+        // Los hijos siempre tienen índice mayor que su prefijo.
+        long[] weight = new long[total];
+        for (int i = total - 1; i >= 1; i--) {
+            weight[i] += uses.get(i);
+            weight[parentList.get(i)] += weight[i];
+        }
+
+        // El peso de un prefijo nunca es menor que el de sus extensiones, y ante
+        // empates gana el índice menor, así que la selección es cerrada bajo prefijos
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 1; i < total; i++) {
+            candidates.add(i);
+        }
+        candidates.sort((a, b) -> weight[a] != weight[b] ? Long.compare(weight[b], weight[a]) : Integer.compare(a, b));
+        List<Integer> selected = new ArrayList<>(candidates.subList(0, Math.min(maxEntries, candidates.size())));
+        Collections.sort(selected);
+
+        // Renumerar conservando el orden original (prefijos antes que extensiones)
+        Map<Integer, Integer> renumber = new HashMap<>();
+        renumber.put(0, 0);
+        int[] parents = new int[selected.size()];
+        char[] characters = new char[selected.size()];
+        for (int i = 0; i < selected.size(); i++) {
+            int original = selected.get(i);
+            renumber.put(original, i + 1);
+            parents[i] = renumber.get(parentList.get(original));
+            characters[i] = charList.get(original);
+        }
+
+        return new PresetDictionary(id, parents, characters);
+    }
+
+    /**
+     * Crea un diccionario nuevo que inicia con las entradas predefinidas.
+     * Las entradas se arman una sola vez y se comparten: cada diccionario
+     * creado solo guarda lo que agrega por encima de ellas.
+     * @return Diccionario listo para comprimir o descomprimir
+     */
+    public Dictionary createDictionary() {
+        return new Dictionary(getBaseDictionary());
+    }
+
+    /**
+     * Diccionario con las entradas predefinidas, que nunca se modifica
+     */
+    private synchronized Dictionary getBaseDictionary() {
+        if (baseDictionary == null) {
+            Dictionary built = new Dictionary();
+            for (String sequence : getSequences()) {
+                built.add(sequence);
+            }
+            baseDictionary = built;
+        }
+        return baseDictionary;
+    }
+
+    /**
+     * Reconstruye las secuencias a partir de los pares (prefijo, carácter)
+     */
+    private String[] getSequences() {
+        if (sequences == null) {
+            String[] built = new String[parents.length];
+            for (int i = 0; i < parents.length; i++) {
+                int parent = parents[i];
+                built[i] = parent == 0 ? String.valueOf(characters[i]) : built[parent - 1] + characters[i];
+            }
+            sequences = built;
+        }
+        return sequences;
+    }
+
+    /**
+     * Guarda el diccionario en formato binario compacto
+     * @param filePath Ruta donde guardar
+     * @throws IOException Si hay error al escribir
+     */
+    public void save(String filePath) throws IOException {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        try (DataOutputStream dos = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filePath)))) {
+            dos.writeInt(MAGIC);
+            dos.writeShort(VERSION);
+            dos.writeShort(idBytes.length);
+            dos.write(idBytes);
+            dos.writeInt(parents.length);
+            dos.writeLong(checksum);
+            for (int i = 0; i < parents.length; i++) {
+                dos.writeInt(parents[i]);
+                dos.writeChar(characters[i]);
+            }
+        }
+    }
+
+    /**
+     * Carga un diccionario predefinido mapeando el archivo en memoria
+     * @param filePath Ruta del archivo .lz78d
+     * @return Diccionario cargado
+     * @throws IOException Si el archivo no es válido o está corrupto
+     */
+    public static PresetDictionary load(String filePath) throws IOException {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            throw new IOException("El archivo no existe");
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < Integer.BYTES + 2 * Short.BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException("Archivo incompatible. No es un diccionario LZ78 válido");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Versión de diccionario no soportada: " + version);
+            }
+
+            byte[] idBytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(idBytes);
+            int count = buffer.getInt();
+            long expectedChecksum = buffer.getLong();
+
+            if (count < 0 || (long) count * ENTRY_BYTES != buffer.remaining()) {
+                throw new IOException("Diccionario corrupto: número de entradas inválido");
+            }
+
+            int[] parents = new int[count];
+            char[] characters = new char[count];
+            for (int i = 0; i < count; i++) {
+                int parent = buffer.getInt();
+                if (parent < 0 || parent > i) {
+                    throw new IOException("Diccionario corrupto: prefijo " + parent + " inválido");
+                }
+                parents[i] = parent;
+                characters[i] = buffer.getChar();
+            }
+
+            PresetDictionary preset = new PresetDictionary(
+                new String(idBytes, StandardCharsets.UTF_8), parents, characters);
+            if (preset.checksum != expectedChecksum) {
+                throw new IOException("Diccionario corrupto: checksum no coincide");
+            }
+            return preset;
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("Diccionario corrupto: fin de archivo inesperado");
+        }
+    }
+
+    /**
+     * Calcula el CRC32 de las entradas en el mismo orden en que se guardan
+     */
+    private static long computeChecksum(int[] parents, char[] characters) {
+        CRC32 crc = new CRC32();
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_BYTES);
+        for (int i = 0; i < parents.length; i++) {
+            entry.clear();
+            entry.putInt(parents[i]).putChar(characters[i]).flip();
+            crc.update(entry);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Verifica si coincide con una referencia guardada en un archivo .lz78
+     */
+    public boolean matches(String referenceId, long referenceChecksum) {
+        return id.equals(referenceId) && checksum == referenceChecksum;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Retorna el número de entradas predefinidas
+     */
+    public int size() {
+        return parents.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PresetDictionary{id=%s, size=%d, crc=%08x}", id, size(), checksum);
+    }
+}
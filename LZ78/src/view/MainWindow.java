@@ -1,7 +1,9 @@
 package view;
 
 import controller.CompressionController;
+import model.CompressibilityEstimator;
 import model.CompressionResult;
+import model.PresetDictionary;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -9,12 +11,15 @@ import javax.swing.border.TitledBorder;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Ventana principal de la aplicación de compresión LZ78
  */
 public class MainWindow extends JFrame {
+    private static final int PRESET_DICTIONARY_ENTRIES = 4096;
+    
     private CompressionController controller;
     private JTabbedPane tabbedPane;
     
@@ -29,6 +34,8 @@ public class MainWindow extends JFrame {
     private JButton saveCompressedButton;
     private JButton saveDictionaryButton;
     private JButton clearCompressionButton;
+    private JButton trainPresetButton;
+    private JButton loadPresetButton;
     private JLabel compressionStatusLabel;
     
     // Panel de Descompresión
@@ -48,6 +55,9 @@ public class MainWindow extends JFrame {
     private String lastCompressedFileName;
     private String lastOriginalFileName;
     private String lastOriginalFilePath; // Path completo del archivo a comprimir
+    private SwingWorker<CompressibilityEstimator.Estimate, Void> estimateWorker;
+    private PresetDictionary lastPresetDictionary; // Diccionario predefinido del archivo cargado
+    private String lastStoredArchivePath; // Archivo .lz78 en modo almacenado cargado
 
     public MainWindow() {
         controller = new CompressionController();
@@ -101,6 +111,8 @@ public class MainWindow extends JFrame {
         saveCompressedButton = new JButton("Guardar Comprimido");
         saveDictionaryButton = new JButton("Guardar Diccionario");
         clearCompressionButton = new JButton("Limpiar");
+        trainPresetButton = new JButton("Entrenar Diccionario");
+        loadPresetButton = new JButton("Cargar Diccionario");
         
         saveCompressedButton.setEnabled(false);
         saveDictionaryButton.setEnabled(false);
@@ -171,6 +183,8 @@ public class MainWindow extends JFrame {
         buttonPanel.add(saveCompressedButton);
         buttonPanel.add(saveDictionaryButton);
         buttonPanel.add(clearCompressionButton);
+        buttonPanel.add(trainPresetButton);
+        buttonPanel.add(loadPresetButton);
         
         topPanel.add(inputPanel, BorderLayout.CENTER);
         topPanel.add(buttonPanel, BorderLayout.SOUTH);
@@ -257,6 +271,8 @@ public class MainWindow extends JFrame {
         saveCompressedButton.addActionListener(e -> saveCompressed());
         saveDictionaryButton.addActionListener(e -> saveDictionary());
         clearCompressionButton.addActionListener(e -> clearCompression());
+        trainPresetButton.addActionListener(e -> trainPresetDictionary());
+        loadPresetButton.addActionListener(e -> loadPresetDictionary());
         
         // Listeners de descompresión
         loadCompressedButton.addActionListener(e -> loadCompressedFile());
@@ -304,8 +320,11 @@ public class MainWindow extends JFrame {
                 lastOriginalFileName = file.getName();
                 lastOriginalFilePath = file.getAbsolutePath();
                 
-                compressionStatusLabel.setText("Archivo cargado: " + file.getName() + " (" + file.length() + " bytes)");
+                // Mostrar una estimación rápida antes de comprimir
+                compressionStatusLabel.setText("Archivo cargado: " + file.getName() + " (" + file.length() + " bytes) - " +
+                    "estimando compresibilidad...");
                 compressionStatusLabel.setForeground(Color.BLUE);
+                estimateCompressibility(file, content);
             } catch (Exception ex) {
                 showError("Error al cargar archivo", ex.getMessage());
                 compressionStatusLabel.setText("Error: " + ex.getMessage());
@@ -314,6 +333,44 @@ public class MainWindow extends JFrame {
         }
     }
 
+    /**
+     * Estima la compresibilidad en un hilo separado; la estimación se
+     * descarta si mientras tanto se carga otro archivo o se comprime
+     */
+    private void estimateCompressibility(File file, String content) {
+        cancelEstimate();
+        estimateWorker = new SwingWorker<CompressibilityEstimator.Estimate, Void>() {
+            @Override
+            protected CompressibilityEstimator.Estimate doInBackground() {
+                return controller.estimateCompressibility(content);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    CompressibilityEstimator.Estimate estimate = get();
+                    statsArea.setText(estimate.getSummary());
+                    compressionStatusLabel.setText("Archivo cargado: " + file.getName() + " (" + file.length() + " bytes) - " +
+                        String.format("reducción estimada %.2f%%", estimate.getEstimatedPercentage()));
+                    compressionStatusLabel.setForeground(estimate.isWorthCompressing() ? Color.BLUE : new Color(255, 140, 0));
+                } catch (Exception ex) {
+                    compressionStatusLabel.setText("Archivo cargado: " + file.getName() + " (" + file.length() + " bytes)");
+                }
+            }
+        };
+        estimateWorker.execute();
+    }
+
+    private void cancelEstimate() {
+        if (estimateWorker != null) {
+            estimateWorker.cancel(false);
+            estimateWorker = null;
+        }
+    }
+
     private void compress() {
         if (lastOriginalFilePath == null || lastOriginalFileName == null) {
             showError("Sin archivo", "Por favor, cargue un archivo primero.");
@@ -325,6 +382,7 @@ public class MainWindow extends JFrame {
         compressionStatusLabel.setForeground(Color.BLUE);
         
         // Deshabilitar botones durante la compresión
+        cancelEstimate();
         compressButton.setEnabled(false);
         loadFileButton.setEnabled(false);
 
@@ -332,6 +390,12 @@ public class MainWindow extends JFrame {
         SwingWorker<CompressionResult, Void> worker = new SwingWorker<CompressionResult, Void>() {
             @Override
             protected CompressionResult doInBackground() throws Exception {
+                // Los archivos que no se pueden comprimir se guardan sin codificar
+                String storedReason = controller.detectIncompressible(lastOriginalFilePath);
+                if (storedReason != null) {
+                    return controller.createStoredResult(lastOriginalFilePath, storedReason);
+                }
+                
                 // Cargar el archivo usando el path almacenado
                 String content;
                 String fileName = lastOriginalFileName.toLowerCase();
@@ -354,6 +418,17 @@ public class MainWindow extends JFrame {
                 try {
                     lastCompressionResult = get();
                     
+                    if (lastCompressionResult.isStored()) {
+                        compressedOutputArea.setText("[Modo almacenado: el archivo se guardará sin codificar]");
+                        statsArea.setText(lastCompressionResult.getStatistics());
+                        compressionDictionaryViewer.clear();
+                        saveCompressedButton.setEnabled(true);
+                        saveDictionaryButton.setEnabled(false);
+                        compressionStatusLabel.setText("Modo almacenado - " + lastCompressionResult.getStoredReason());
+                        compressionStatusLabel.setForeground(new Color(0, 128, 0));
+                        return;
+                    }
+                    
                     // Mostrar datos codificados
                     compressedOutputArea.setText(lastCompressionResult.getEncodedDataString());
                     
@@ -447,6 +522,65 @@ public class MainWindow extends JFrame {
         }
     }
 
+    private void trainPresetDictionary() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Seleccione los archivos del corpus de entrenamiento");
+        fileChooser.setMultiSelectionEnabled(true);
+        
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File[] samples = fileChooser.getSelectedFiles();
+        
+        JFileChooser saveChooser = new JFileChooser();
+        saveChooser.setFileFilter(new FileNameExtensionFilter("Diccionarios LZ78", "lz78d"));
+        saveChooser.setSelectedFile(new File("diccionario" + PresetDictionary.FILE_EXTENSION));
+        
+        if (saveChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File file = saveChooser.getSelectedFile();
+            try {
+                List<String> samplePaths = new ArrayList<>();
+                for (File sample : samples) {
+                    samplePaths.add(sample.getAbsolutePath());
+                }
+                
+                // El nombre del archivo sirve como identificador del diccionario
+                String id = file.getName();
+                if (id.toLowerCase().endsWith(PresetDictionary.FILE_EXTENSION)) {
+                    id = id.substring(0, id.length() - PresetDictionary.FILE_EXTENSION.length());
+                }
+                
+                PresetDictionary preset = controller.trainPresetDictionary(
+                    samplePaths, id, PRESET_DICTIONARY_ENTRIES, file.getAbsolutePath());
+                controller.setPresetDictionary(preset);
+                
+                showInfo("Diccionario entrenado", "Se entrenó el diccionario '" + preset.getId() + "' con " +
+                    preset.size() + " entradas.\nSe usará en las siguientes compresiones.");
+                compressionStatusLabel.setText("Diccionario predefinido: " + preset.getId());
+                compressionStatusLabel.setForeground(Color.BLUE);
+            } catch (Exception ex) {
+                showError("Error al entrenar diccionario", ex.getMessage());
+            }
+        }
+    }
+
+    private void loadPresetDictionary() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new FileNameExtensionFilter("Diccionarios LZ78", "lz78d"));
+        
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            File file = fileChooser.getSelectedFile();
+            try {
+                PresetDictionary preset = controller.loadPresetDictionary(file.getAbsolutePath());
+                compressionStatusLabel.setText("Diccionario predefinido: " + preset.getId() +
+                    " (" + preset.size() + " entradas)");
+                compressionStatusLabel.setForeground(Color.BLUE);
+            } catch (Exception ex) {
+                showError("Error al cargar diccionario", ex.getMessage());
+            }
+        }
+    }
+
     // ==================== MÉTODOS DE DESCOMPRESIÓN ====================
     
     private void loadCompressedFile() {
@@ -456,11 +590,18 @@ public class MainWindow extends JFrame {
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
             File file = fileChooser.getSelectedFile();
             try {
+                if (controller.isStoredFile(file.getAbsolutePath())) {
+                    loadStoredFile(file);
+                    return;
+                }
+                lastStoredArchivePath = null;
+                
                 Object[] result = controller.loadCompressedFileWithExtension(file.getAbsolutePath());
                 String originalExtension = (String) result[0];
                 @SuppressWarnings("unchecked")
                 List<CompressionResult.EncodedPair> encodedData = 
                     (List<CompressionResult.EncodedPair>) result[1];
+                lastPresetDictionary = (PresetDictionary) result[2];
                 
                 // Guardar el nombre del archivo para usarlo al descomprimir
                 lastCompressedFileName = file.getName();
@@ -492,6 +633,36 @@ public class MainWindow extends JFrame {
         }
     }
 
+    /**
+     * Carga un archivo en modo almacenado: no hay nada que decodificar,
+     * el contenido se copia directamente al guardar
+     */
+    private void loadStoredFile(File file) throws Exception {
+        Object[] info = controller.loadStoredFileInfo(file.getAbsolutePath());
+        String originalExtension = (String) info[0];
+        long size = (Long) info[1];
+        
+        lastCompressedFileName = file.getName();
+        lastOriginalFileName = originalExtension;
+        lastStoredArchivePath = file.getAbsolutePath();
+        lastDecompressionResult = null;
+        lastPresetDictionary = null;
+        
+        decompressedOutputArea.setText("");
+        decompressionDictionaryViewer.clear();
+        String fileType = !originalExtension.isEmpty() ? originalExtension : "desconocido";
+        decompressionStatsArea.setText("Archivo cargado correctamente.\n\n" +
+            "Tipo de archivo original: " + fileType + "\n" +
+            "MODO ALMACENADO: el contenido no está codificado\n" +
+            "Tamaño original: " + size + " bytes\n\n" +
+            "Presione 'Guardar Descomprimido' para extraerlo.");
+        
+        decompressButton.setEnabled(false);
+        saveDecompressedButton.setEnabled(true);
+        decompressionStatusLabel.setText("Archivo almacenado cargado: " + file.getName());
+        decompressionStatusLabel.setForeground(Color.BLUE);
+    }
+
     private void decompress() {
         if (lastDecompressionResult == null || lastDecompressionResult.getEncodedData() == null) {
             showError("Sin datos", "No hay datos comprimidos cargados.");
@@ -510,7 +681,7 @@ public class MainWindow extends JFrame {
         SwingWorker<CompressionResult, Void> worker = new SwingWorker<CompressionResult, Void>() {
             @Override
             protected CompressionResult doInBackground() throws Exception {
-                return controller.decompressData(lastDecompressionResult.getEncodedData());
+                return controller.decompressData(lastDecompressionResult.getEncodedData(), lastPresetDictionary);
             }
             
             @Override
@@ -557,8 +728,8 @@ public class MainWindow extends JFrame {
     }
 
     private void saveDecompressed() {
-        if (lastDecompressionResult == null || 
-            lastDecompressionResult.getDecompressedText() == null) {
+        if (lastStoredArchivePath == null && (lastDecompressionResult == null || 
+            lastDecompressionResult.getDecompressedText() == null)) {
             showError("Sin datos", "No hay texto descomprimido para guardar.");
             return;
         }
@@ -606,7 +777,9 @@ public class MainWindow extends JFrame {
             File file = fileChooser.getSelectedFile();
             try {
                 // Guardar como binario o texto según la extensión
-                if (originalExt.equals(".txt")) {
+                if (lastStoredArchivePath != null) {
+                    controller.extractStoredFile(lastStoredArchivePath, file.getAbsolutePath());
+                } else if (originalExt.equals(".txt")) {
                     controller.saveDecompressedFile(
                         lastDecompressionResult.getDecompressedText(), 
                         file.getAbsolutePath());
@@ -645,6 +818,8 @@ public class MainWindow extends JFrame {
         decompressionDictionaryViewer.clear();
         lastDecompressionResult = null;
         lastCompressedFileName = null;
+        lastPresetDictionary = null;
+        lastStoredArchivePath = null;
         decompressButton.setEnabled(false);
         saveDecompressedButton.setEnabled(false);
         decompressionStatusLabel.setText("Listo para descomprimir");
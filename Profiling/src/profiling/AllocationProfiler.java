@@ -0,0 +1,272 @@
+package profiling;
+
+import model.CompressionResult;
+import model.LZ78Compressor;
+import model.LZ78Decompressor;
+import modelo.HuffmanEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Mide la memoria que usan LZ78Compressor, LZ78Decompressor y HuffmanEncoder.
+ *
+ * Para cada entrada y cada fase registra:
+ * - bytes asignados por el hilo (ThreadMXBean.getThreadAllocatedBytes),
+ * - heap retenido por el resultado después de un GC completo,
+ * - tiempo de la fase,
+ * y los normaliza por MB de entrada. Cada fase se repite y se informa la
+ * mediana. El reporte es texto tabulado con una línea por fase, en orden
+ * fijo, para poder compararlo con diff entre versiones.
+ *
+ * Uso: java profiling.AllocationProfiler [--repeat N] [--warmup N]
+ *      [--synthetic TAMAÑO]... [--out reporte.tsv] [archivos...]
+ */
+public class AllocationProfiler {
+    private static final double MB = 1024.0 * 1024.0;
+    private static final String USAGE = "Uso: java profiling.AllocationProfiler [--repeat N] [--warmup N]"
+        + " [--synthetic TAMAÑO]... [--out reporte.tsv] [archivos...]";
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final MemoryMXBean memory;
+    private final int repeat;
+    private final int warmup;
+
+    /**
+     * Medición de una fase (mediana de las repeticiones)
+     */
+    static class Measurement {
+        final String phase;
+        final String input;
+        final long inputBytes;
+        final long allocatedBytes;
+        final long retainedBytes;
+        final double millis;
+
+        Measurement(String phase, String input, long inputBytes,
+                    long allocatedBytes, long retainedBytes, double millis) {
+            this.phase = phase;
+            this.input = input;
+            this.inputBytes = inputBytes;
+            this.allocatedBytes = allocatedBytes;
+            this.retainedBytes = retainedBytes;
+            this.millis = millis;
+        }
+
+        double perMegabyte(long bytes) {
+            return inputBytes == 0 ? 0 : bytes / (inputBytes / MB);
+        }
+    }
+
+    public AllocationProfiler(int repeat, int warmup) {
+        if (repeat < 1 || warmup < 0) {
+            throw new IllegalArgumentException("Se necesita al menos una repetición y un calentamiento no negativo");
+        }
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            throw new IllegalStateException("La JVM no permite medir bytes asignados por hilo");
+        }
+        this.threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            throw new IllegalStateException("La JVM no permite medir bytes asignados por hilo");
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        this.memory = ManagementFactory.getMemoryMXBean();
+        this.repeat = repeat;
+        this.warmup = warmup;
+    }
+
+    /**
+     * Mide las fases de ambos códecs sobre un texto
+     * @param name Nombre de la entrada en el reporte
+     * @param text Contenido
+     * @param inputBytes Tamaño de la entrada en bytes
+     * @return Mediciones en orden fijo
+     */
+    public List<Measurement> profile(String name, String text, long inputBytes) {
+        List<Measurement> results = new ArrayList<>();
+        LZ78Compressor compressor = new LZ78Compressor();
+        LZ78Decompressor decompressor = new LZ78Decompressor();
+
+        results.add(measure("lz78.compress", name, inputBytes, () -> compressor.compress(text)));
+
+        // La descompresión parte de los pares ya generados, que no cuentan en su fase
+        CompressionResult compressed = compressor.compress(text);
+        List<CompressionResult.EncodedPair> pairs = compressed.getEncodedData();
+        results.add(measure("lz78.decompress", name, inputBytes, () -> decompressor.decompress(pairs)));
+
+        results.add(measure("huffman.encode", name, inputBytes, () -> HuffmanEncoder.encode(text)));
+        return results;
+    }
+
+    /**
+     * Ejecuta una fase varias veces y toma la mediana de cada métrica
+     */
+    private Measurement measure(String phase, String input, long inputBytes, Supplier<Object> task) {
+        for (int i = 0; i < warmup; i++) {
+            task.get();
+        }
+
+        long[] allocated = new long[repeat];
+        long[] retained = new long[repeat];
+        double[] millis = new double[repeat];
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < repeat; i++) {
+            long baseline = usedHeapAfterGc();
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+
+            Object result = task.get();
+
+            millis[i] = (System.nanoTime() - start) / 1e6;
+            allocated[i] = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+            // El resultado sigue referenciado durante el GC: lo que queda es lo retenido
+            retained[i] = Math.max(0, usedHeapAfterGc() - baseline);
+            Reference.reachabilityFence(result);
+        }
+
+        return new Measurement(phase, input, inputBytes,
+            median(allocated), median(retained), median(millis));
+    }
+
+    /**
+     * Heap usado después de varios GC, hasta que el valor se estabiliza
+     */
+    private long usedHeapAfterGc() {
+        long previous = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            long used = memory.getHeapMemoryUsage().getUsed();
+            if (Math.abs(previous - used) < 16 * 1024) {
+                return used;
+            }
+            previous = used;
+        }
+        return previous;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /**
+     * Escribe el reporte: encabezado con el entorno y una línea por fase
+     */
+    public static void writeReport(List<Measurement> measurements, PrintWriter out, int repeat) {
+        out.printf("# java=%s vm=%s maxHeapMB=%d repeat=%d%n",
+            System.getProperty("java.version"), System.getProperty("java.vm.name"),
+            Runtime.getRuntime().maxMemory() / (1024 * 1024), repeat);
+        out.println("phase\tinput\tinputBytes\tallocatedBytes\tallocatedPerMB\tretainedBytes\tretainedPerMB\tmillis");
+        for (Measurement m : measurements) {
+            out.printf(Locale.ROOT, "%s\t%s\t%d\t%d\t%.0f\t%d\t%.0f\t%.1f%n",
+                m.phase, m.input, m.inputBytes,
+                m.allocatedBytes, m.perMegabyte(m.allocatedBytes),
+                m.retainedBytes, m.perMegabyte(m.retainedBytes),
+                m.millis);
+        }
+        out.flush();
+    }
+
+    /**
+     * Texto sintético repetitivo con vocabulario limitado (reproducible)
+     */
+    static String syntheticText(int chars) {
+        String[] words = {"compresión ", "datos ", "diccionario ", "símbolo ", "frecuencia ",
+            "código ", "entropía ", "árbol ", "mensaje ", "bits\n"};
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(chars + 16);
+        while (text.length() < chars) {
+            text.append(words[random.nextInt(words.length)]);
+        }
+        text.setLength(chars);
+        return text.toString();
+    }
+
+    /**
+     * Lee un archivo con la misma regla de los controladores:
+     * UTF-8 para .txt y un carácter por byte para el resto
+     */
+    static String readInput(File file) throws IOException {
+        Charset charset = file.getName().toLowerCase().endsWith(".txt")
+            ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+        return new String(Files.readAllBytes(file.toPath()), charset);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int repeat = 5;
+        int warmup = 2;
+        String output = null;
+        List<Integer> synthetic = new ArrayList<>();
+        List<File> files = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--repeat":
+                    repeat = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--synthetic":
+                    synthetic.add(Integer.parseInt(args[++i]));
+                    break;
+                case "--out":
+                    output = args[++i];
+                    break;
+                default:
+                    files.add(new File(args[i]));
+            }
+        }
+        if (repeat < 1 || warmup < 0) {
+            System.err.println("--repeat debe ser al menos 1 y --warmup no puede ser negativo");
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        if (synthetic.isEmpty() && files.isEmpty()) {
+            synthetic.add(256 * 1024);
+            synthetic.add(1024 * 1024);
+        }
+
+        AllocationProfiler profiler = new AllocationProfiler(repeat, warmup);
+        List<Measurement> measurements = new ArrayList<>();
+        for (int size : synthetic) {
+            String text = syntheticText(size);
+            measurements.addAll(profiler.profile("synthetic-" + size, text,
+                text.getBytes(StandardCharsets.UTF_8).length));
+        }
+        for (File file : files) {
+            if (file.length() == 0) {
+                System.err.println("Se omite el archivo vacío " + file);
+                continue;
+            }
+            measurements.addAll(profiler.profile(file.getName(), readInput(file), file.length()));
+        }
+
+        if (output == null) {
+            writeReport(measurements, new PrintWriter(System.out), repeat);
+        } else {
+            try (PrintWriter out = new PrintWriter(output, StandardCharsets.UTF_8)) {
+                writeReport(measurements, out, repeat);
+            }
+            System.out.println("Reporte guardado en " + output);
+        }
+    }
+}